@@ -0,0 +1,70 @@
+package Portal.code;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of log calls when no output is enabled, the default config. Run with the gc profiler
+ * (./gradlew jmh does), gc.alloc.rate.norm should be 0 B/op for every logger benchmark.
+ * eagerConcat is the old sendMessage style for comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggerBenchmark {
+
+    // Fields, so nothing below is a constant the compiler can fold
+    private long shipId = 123_456_789L;
+    private double distance = 42.5;
+    private String dimension = "minecraft:the_nether";
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Config.SEND_LOGS_TO_ALL_PLAYERS = false;
+        Config.CREATE_LOG_FILES = false;
+        Config.CONSOLE_LOGS = false;
+        Config.LOG_LEVEL = "debug";
+        Logger.configure();
+    }
+
+    @Benchmark
+    public void literal() {
+        Logger.debug("[Portal Skies] Attempting main hand interaction...");
+    }
+
+    @Benchmark
+    public void supplier() {
+        Logger.debug(() -> "[Portal Skies] Ship " + shipId + " teleporting to " + dimension + " (" + distance + " blocks)");
+    }
+
+    @Benchmark
+    public void parameterized() {
+        Logger.debug("[Portal Skies] Ship %d teleporting to %s (%.1f blocks)", shipId, dimension, distance);
+    }
+
+    @Benchmark
+    public void guardedTrace() {
+        if (Logger.isEnabled(Logger.Level.TRACE)) {
+            Logger.trace("checking ship is in portal: id =%d", shipId);
+        }
+    }
+
+    @Benchmark
+    public void eagerConcat() {
+        Logger.sendMessage("[Portal Skies] Ship " + shipId + " teleporting to " + dimension + " (" + distance + " blocks)", false);
+    }
+}
@@ -0,0 +1,261 @@
+package Portal.code;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Log file writer that keeps file IO off the threads doing the logging.
+ * Lines go into a bounded lock-free ring buffer (many producers, one consumer) and a daemon thread
+ * writes them out in batches, flushing once enough has piled up or some time has passed. When the
+ * buffer is full lines are either dropped (and counted in the file) or the caller waits for room.
+ * The writer thread also moves on to the next file once the current one is big or old enough.
+ */
+public class AsyncLogWriter {
+
+    /**
+     * Where the lines go. {@link #next} is called on the writer thread after the current file is closed.
+     */
+    public interface Segments {
+        File current();
+
+        // When the current file was started, also across restarts, for the age limit
+        long currentOpenedMillis();
+
+        File next();
+    }
+
+    // Flush after this many characters or this long after the first unflushed line
+    private static final int FLUSH_CHARS = 64 * 1024;
+    private static final long FLUSH_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+    // How long the writer sleeps when there's nothing to write
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    // How long a caller waits between tries when the buffer is full and blocking is on
+    private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+    private static final long CLOSE_TIMEOUT_MILLIS = 5000;
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private record Entry(long millis, String message) {}
+
+    // Queued to switch files, in order with the lines around it
+    private static final Object ROTATE = new Object();
+
+    private final AtomicReferenceArray<Object> slots;
+    private final int mask;
+    private final boolean blockWhenFull;
+    private final Segments segments;
+    // 0 = no limit
+    private final long maxFileChars;
+    private final long maxFileAgeMillis;
+    // Next slot producers claim, and next slot the writer reads
+    private final AtomicLong tail = new AtomicLong();
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final Thread thread;
+    private volatile boolean running = true;
+
+    private Writer out;
+    private long lastSecond = -1;
+    private String lastTimestamp;
+    // Size (roughly, in characters) and opening time of the current file
+    private long fileChars;
+    private long fileOpenedMillis;
+
+    public AsyncLogWriter(Segments segments, int capacity, boolean blockWhenFull, long maxFileChars, long maxFileAgeMillis) {
+        // Rounded up to a power of two so slots are picked with a mask
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        this.slots = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.blockWhenFull = blockWhenFull;
+        this.segments = segments;
+        this.maxFileChars = maxFileChars;
+        this.maxFileAgeMillis = maxFileAgeMillis;
+        open(segments.current());
+
+        this.thread = new Thread(this::run, "Portal Skies log writer");
+        this.thread.setDaemon(true);
+        this.thread.start();
+    }
+
+    /**
+     * Queues a line, timestamped now. Never touches the file on the calling thread.
+     */
+    public void write(String message) {
+        offer(new Entry(System.currentTimeMillis(), message), blockWhenFull);
+    }
+
+    /**
+     * Continues in the next file once everything queued so far is written.
+     */
+    public void rotate() {
+        offer(ROTATE, true);
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * Writes out whatever is queued, then closes the file. Lines offered after this are dropped.
+     */
+    public void close() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(CLOSE_TIMEOUT_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void offer(Object record, boolean block) {
+        while (running) {
+            long claimed = tail.get();
+            if (claimed - head.get() >= slots.length()) {
+                if (!block) {
+                    dropped.incrementAndGet();
+                    return;
+                }
+                // Full, give the writer a moment
+                LockSupport.unpark(thread);
+                LockSupport.parkNanos(BLOCKED_PARK_NANOS);
+                continue;
+            }
+            if (tail.compareAndSet(claimed, claimed + 1)) {
+                slots.lazySet((int) (claimed & mask), record);
+                return;
+            }
+        }
+        dropped.incrementAndGet();
+    }
+
+    private void run() {
+        long unflushedSince = 0;
+        int unflushedChars = 0;
+        long reportedDrops = 0;
+
+        while (true) {
+            boolean stopping = !running;
+            long position = head.get();
+            Object record = slots.get((int) (position & mask));
+
+            if (record == null) {
+                // Empty, or a producer claimed the slot and hasn't published yet
+                if (position == tail.get() && stopping) break;
+                if (unflushedChars > 0 && System.nanoTime() - unflushedSince >= FLUSH_INTERVAL_NANOS) {
+                    flush();
+                    unflushedChars = 0;
+                }
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+                continue;
+            }
+
+            slots.lazySet((int) (position & mask), null);
+            head.lazySet(position + 1);
+
+            long drops = dropped.get();
+            if (drops != reportedDrops) {
+                unflushedChars += append(System.currentTimeMillis(), "[" + (drops - reportedDrops) + " log lines dropped, log queue was full]");
+                reportedDrops = drops;
+            }
+
+            if (record instanceof Entry entry) {
+                if (isFull(entry.millis())) {
+                    next();
+                    unflushedChars = 0;
+                }
+                if (unflushedChars == 0) unflushedSince = System.nanoTime();
+                unflushedChars += append(entry.millis(), entry.message());
+            } else if (record == ROTATE) {
+                next();
+                unflushedChars = 0;
+            }
+
+            if (unflushedChars >= FLUSH_CHARS) {
+                flush();
+                unflushedChars = 0;
+            }
+        }
+
+        flush();
+        try {
+            if (out != null) out.close();
+        } catch (IOException ignored) {
+        }
+        out = null;
+    }
+
+    private int append(long millis, String message) {
+        if (out == null) return 0;
+        long second = millis / 1000;
+        if (second != lastSecond) {
+            lastSecond = second;
+            lastTimestamp = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault()).format(TIMESTAMP_FORMAT);
+        }
+        try {
+            out.write('[');
+            out.write(lastTimestamp);
+            out.write("] ");
+            out.write(message);
+            out.write(System.lineSeparator());
+        } catch (IOException e) {
+            failed(e);
+        }
+        int chars = message.length() + 24;
+        fileChars += chars;
+        return chars;
+    }
+
+    private boolean isFull(long millis) {
+        return (maxFileChars > 0 && fileChars >= maxFileChars)
+                || (maxFileAgeMillis > 0 && millis - fileOpenedMillis >= maxFileAgeMillis);
+    }
+
+    private void next() {
+        flush();
+        try {
+            if (out != null) out.close();
+        } catch (IOException ignored) {
+        }
+        out = null;
+        open(segments.next());
+    }
+
+    private void flush() {
+        if (out == null) return;
+        try {
+            out.flush();
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    private void open(File file) {
+        try {
+            if (out != null) out.close();
+            out = new BufferedWriter(new FileWriter(file, true), FLUSH_CHARS);
+            // Appending to what an earlier run left, its age counts from when that run started it
+            fileChars = file.length();
+            fileOpenedMillis = segments.currentOpenedMillis();
+        } catch (IOException e) {
+            failed(e);
+        }
+    }
+
+    private void failed(IOException e) {
+        out = null;
+        if (Config.CONSOLE_LOGS) {
+            System.err.println("[Portal Skies] Log file write failed, file logging stopped: " + e.getMessage());
+        }
+    }
+}
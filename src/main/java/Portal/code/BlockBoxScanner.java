@@ -0,0 +1,90 @@
+package Portal.code;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+
+import java.util.function.Predicate;
+
+/**
+ * Finds blocking blocks in a world box one chunk section at a time.
+ * Empty sections and sections whose palette holds no blocking state are passed over whole,
+ * only the rest are read block by block.
+ */
+public class BlockBoxScanner {
+
+    /**
+     * Where the scanner gets chunks from, so callers can share the ones they already hold.
+     */
+    public interface ChunkLookup {
+        LevelChunk get(int chunkX, int chunkZ);
+    }
+
+    private final Predicate<BlockState> isBlocking;
+
+    private long sectionsVisited = 0;
+    private long sectionsSkipped = 0;
+    private long blocksRead = 0;
+
+    public BlockBoxScanner(Predicate<BlockState> isBlocking) {
+        this.isBlocking = isBlocking;
+    }
+
+    /**
+     * First blocking block inside the box (inclusive block coordinates), or null if there's none.
+     * Parts of the box above or below the level count as empty.
+     */
+    public BlockPos findFirst(ChunkLookup chunks, int minSection, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                LevelChunkSection[] sections = chunks.get(chunkX, chunkZ).getSections();
+
+                int fromIndex = Math.max(0, (minY >> 4) - minSection);
+                int toIndex = Math.min(sections.length - 1, (maxY >> 4) - minSection);
+                for (int index = fromIndex; index <= toIndex; index++) {
+                    sectionsVisited++;
+                    LevelChunkSection section = sections[index];
+                    if (section == null || section.hasOnlyAir() || !section.maybeHas(isBlocking)) {
+                        sectionsSkipped++;
+                        continue;
+                    }
+
+                    int baseY = (minSection + index) << 4;
+                    BlockPos found = scanSection(section.getStates(),
+                            Math.max(minX, chunkX << 4), Math.max(minY, baseY), Math.max(minZ, chunkZ << 4),
+                            Math.min(maxX, (chunkX << 4) + 15), Math.min(maxY, baseY + 15), Math.min(maxZ, (chunkZ << 4) + 15));
+                    if (found != null) return found;
+                }
+            }
+        }
+        return null;
+    }
+
+    public long getSectionsVisited() {
+        return sectionsVisited;
+    }
+
+    public long getSectionsSkipped() {
+        return sectionsSkipped;
+    }
+
+    public long getBlocksRead() {
+        return blocksRead;
+    }
+
+    private BlockPos scanSection(PalettedContainer<BlockState> states, int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        for (int y = minY; y <= maxY; y++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    blocksRead++;
+                    if (isBlocking.test(states.get(x & 15, y & 15, z & 15))) {
+                        return new BlockPos(x, y, z);
+                    }
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,91 @@
+package Portal.code;
+
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.Locale;
+
+/**
+ * What the teleport code needs to know about each block state, worked out once per tag load
+ * and stored in a table indexed by block state id.
+ * Solid means the state blocks motion and isn't in {@link #TELEPORT_PASSABLE}; helms are the
+ * blocks in {@link #SHIP_HELMS}, plus anything named like a helm the way helms used to be found,
+ * so helms and control seats of other Valkyrien Skies add-ons keep working. Both tags can be
+ * extended by datapacks.
+ */
+public final class BlockClassification {
+
+    // Solid blocks ships may still arrive inside of: leaves, slabs, fences, plants, snow...
+    public static final TagKey<Block> TELEPORT_PASSABLE =
+            TagKey.create(Registries.BLOCK, new ResourceLocation("valkerian_nether_portals", "teleport_passable"));
+    // Blocks players are put back at after a teleport
+    public static final TagKey<Block> SHIP_HELMS =
+            TagKey.create(Registries.BLOCK, new ResourceLocation("valkerian_nether_portals", "ship_helms"));
+
+    private static final byte SOLID = 1;
+    private static final byte HELM = 2;
+    // The old name match, only read while the table is built
+    private static final String[] HELM_NAME_PARTS = {"helm", "wheel", "controller", "pilot"};
+
+    // Replaced as a whole on rebuild, readers never see a half filled table
+    private static volatile byte[] flags = new byte[0];
+
+    private BlockClassification() {
+    }
+
+    /**
+     * Re-reads every block state. Call whenever block tags change.
+     */
+    public static void rebuild() {
+        byte[] table = new byte[Block.BLOCK_STATE_REGISTRY.size()];
+        int solid = 0, helms = 0;
+        for (BlockState state : Block.BLOCK_STATE_REGISTRY) {
+            byte classification = classify(state);
+            table[Block.BLOCK_STATE_REGISTRY.getId(state)] = classification;
+            if ((classification & SOLID) != 0) solid++;
+            if ((classification & HELM) != 0) helms++;
+        }
+        flags = table;
+
+        Logger.debug("[Portal Skies] Classified %d block states (%d solid, %d helms)", table.length, solid, helms);
+    }
+
+    public static boolean isSolid(BlockState state) {
+        return (get(state) & SOLID) != 0;
+    }
+
+    public static boolean isHelm(BlockState state) {
+        return (get(state) & HELM) != 0;
+    }
+
+    private static byte get(BlockState state) {
+        byte[] table = flags;
+        int id = Block.BLOCK_STATE_REGISTRY.getId(state);
+        // Before the first tag load there's no table, answer from the state itself
+        return id >= 0 && id < table.length ? table[id] : classify(state);
+    }
+
+    private static byte classify(BlockState state) {
+        if (state.isAir()) return 0;
+
+        byte classification = 0;
+        if (state.isSolid() && state.blocksMotion() && !state.is(TELEPORT_PASSABLE)) {
+            classification |= SOLID;
+        }
+        if (state.is(SHIP_HELMS) || isNamedLikeHelm(state)) {
+            classification |= HELM;
+        }
+        return classification;
+    }
+
+    private static boolean isNamedLikeHelm(BlockState state) {
+        String name = state.getBlock().getDescriptionId().toLowerCase(Locale.ROOT);
+        for (String part : HELM_NAME_PARTS) {
+            if (name.contains(part)) return true;
+        }
+        return false;
+    }
+}
@@ -10,24 +10,55 @@ public class Config {
     // Existing configurable values with defaults
     public static int CHECK_INTERVAL_TICKS = 50;
     public static int PORTAL_COOLDOWN_TICKS = 100;
+    public static int PARKED_CHECK_INTERVAL_TICKS = 200; // Ships not moving and not inside a known portal
+    public static int SHIP_CHECK_BUDGET_MICROS = 2000; // Time per tick for ship checks (0 = no limit)
     public static boolean SEND_LOGS_TO_ALL_PLAYERS = false;
     public static boolean CREATE_LOG_FILES = false;
     public static boolean CONSOLE_LOGS = false; // NEW: Control console output
-    public static double MIN_MOVEMENT_THRESHOLD = 0.1;
-    public static long CACHE_CLEAR_INTERVAL = 30000;
+    public static String LOG_LEVEL = "debug"; // trace, debug, info or warn
+    public static int LOG_QUEUE_CAPACITY = 8192; // Lines waiting for the log file writer
+    public static boolean LOG_BLOCK_WHEN_FULL = false; // Wait for room instead of dropping lines
+    public static int LOG_MAX_FILE_KB = 4096; // Start the next log file at this size (0 = no limit)
+    public static int LOG_MAX_FILE_AGE_MINUTES = 1440; // Or once the file is this old (0 = no limit)
+    public static int LOG_MAX_FILES = 20; // Older log files are deleted
+    public static boolean LOG_COMPRESS = true; // Gzip log files once they're closed
+    public static boolean TELEPORT_JOURNAL = true; // Binary record of every teleport in logs/teleport-journal.bin
+    public static int TELEPORT_JOURNAL_MAX_MB = 16; // Size before the journal starts over (the old one is kept)
+    public static double MIN_MOVEMENT_THRESHOLD = 0.1; // Blocks/tick, so 0.1 is 2 blocks/second of ship velocity
 
     // New portal detection configuration
     public static int PORTAL_SAMPLES_PER_FACE = 3; // 3x3 grid per face
     public static int PORTAL_FACE_SKIP_INTERVAL = 2; // Check every face (0 = all faces)
     public static boolean PORTAL_ALWAYS_CHECK_FRONT_BACK = true; // Always check front and back faces
+    public static boolean PORTAL_SWEPT_DETECTION = true; // Catch ships that crossed a portal between two checks
+
+    // Destination portal search
+    public static boolean USE_POI_PORTAL_SEARCH = true; // Ask vanilla's POI index instead of scanning blocks
+    public static boolean ASYNC_PORTAL_SEARCH = true; // Scan unknown exits off the server thread, POI for loaded chunks
+    public static int PORTAL_SEARCH_THREADS = 1;
+    public static boolean HULL_ACCURATE_COLLISION = true; // Test the ship's real blocks at the exit, not its bounding box
+    public static boolean SAFE_EXIT_SEARCH = true; // Move blocked ships to the nearest clear spot instead of cancelling
+    public static int SAFE_EXIT_SEARCH_RADIUS = 8;
+    public static boolean PREWARM_EXIT_CHUNKS = true; // Load exit chunks while ships approach a portal
+    public static int PREWARM_DISTANCE = 64; // Blocks from a portal
+    public static int PREWARM_LEAD_TICKS = 200; // Ticks before a ship could reach it
+    public static int PREWARM_RADIUS_CHUNKS = 2;
 
     private static final String CONFIG_FILE_NAME = "valkerian_nether_portals.toml";
     private static final String DEFAULT_CONFIG =
             "# Valkerian Nether Portals Configuration\n" +
-                    "# How often to check ships for portal collisions (in ticks, 20 ticks = 1 second)\n" +
-                    "# Higher values = better performance, lower values = faster detection\n" +
+                    "# Longest time between portal checks of a moving ship (in ticks, 20 ticks = 1 second)\n" +
+                    "# Ships heading for a known portal are checked sooner, down to every tick\n" +
+                    "# Higher values = better performance, lower values = faster detection of unknown portals\n" +
                     "checkShipsEveryXTicks=50\n\n" +
 
+                    "# Time between portal checks of parked ships that are not inside a portal (in ticks)\n" +
+                    "parkedShipCheckInterval=200\n\n" +
+
+                    "# Time ship portal checks may take per server tick (in microseconds, 0 = no limit)\n" +
+                    "# Checks that don't fit are carried over to the next tick in the order they were due\n" +
+                    "shipCheckBudgetMicros=2000\n\n" +
+
                     "# How long ships wait before being able to teleport again (in ticks)\n" +
                     "portalCooldownTicks=100\n\n" +
 
@@ -37,16 +68,38 @@ public class Config {
                     "# Whether to create log files in the logs/ directory\n" +
                     "createLogFiles=false\n\n" +
 
+                    "# Lowest level written to the log file and console: trace, debug, info or warn\n" +
+                    "# Players only ever get info and warn\n" +
+                    "logLevel=debug\n\n" +
+
+                    "# Log lines are written to the file by a background thread. Up to this many lines can wait for it\n" +
+                    "logQueueCapacity=8192\n\n" +
+
+                    "# What happens when the queue is full: false drops lines (the file notes how many),\n" +
+                    "# true makes the logging thread wait until there's room\n" +
+                    "logBlockWhenFull=false\n\n" +
+
+                    "# Log files are closed once they reach this size in KB or this age in minutes (0 = no limit),\n" +
+                    "# then gzipped in the background. Only the newest logMaxFiles are kept\n" +
+                    "logMaxFileKb=4096\n" +
+                    "logMaxFileAgeMinutes=1440\n" +
+                    "logMaxFiles=20\n" +
+                    "logCompress=true\n\n" +
+
+                    "# Record every portal detection, exit search, safety decision and teleport as a\n" +
+                    "# 128 byte record in logs/teleport-journal.bin, read it with Portal.code.TeleportJournalReader\n" +
+                    "teleportJournal=true\n\n" +
+
+                    "# Journal size in megabytes before it's moved to teleport-journal.1.bin and started over\n" +
+                    "teleportJournalMaxMb=16\n\n" +
+
                     "# Whether to output logs to console (can be spammy)\n" +
                     "consoleLogs=false\n\n" +
 
-                    "# Minimum movement speed required to check for portals (blocks/tick)\n" +
-                    "# Ships moving slower than this won't be checked to improve performance\n" +
+                    "# Minimum movement speed required to check for portals (blocks/tick, ship velocity / 20)\n" +
+                    "# Slower ships count as parked and are checked every parkedShipCheckInterval unless inside a portal\n" +
                     "minMovementThreshold=0.1\n\n" +
 
-                    "# How often to clear portal detection cache (in milliseconds)\n" +
-                    "cacheClearInterval=30000\n\n" +
-
                     "# Portal Detection Settings\n" +
                     "# Number of sampling points per face (creates NxN grid on each face)\n" +
                     "# Higher values = better detection, lower values = better performance\n" +
@@ -58,7 +111,47 @@ public class Config {
 
                     "# Always check front and back faces regardless of skip interval\n" +
                     "# Front/back are where ships most commonly enter/exit portals\n" +
-                    "portalAlwaysCheckFrontBack=true\n"
+                    "portalAlwaysCheckFrontBack=true\n\n" +
+
+                    "# Also test the volume a ship swept through since its last check against known portals\n" +
+                    "# Lets fast ships use thin portals even with a large checkShipsEveryXTicks\n" +
+                    "portalSweptDetection=true\n\n" +
+
+                    "# Destination Portal Search\n" +
+                    "# Find exit portals through vanilla's point-of-interest index (like vanilla portal travel does)\n" +
+                    "# instead of scanning block columns. Disable only if another mod breaks nether portal POIs\n" +
+                    "usePoiPortalSearch=true\n\n" +
+
+                    "# Search for unknown exit portals in the background: loaded chunks are answered through POI (with\n" +
+                    "# usePoiPortalSearch), the rest are read from disk without being generated and scanned on worker\n" +
+                    "# threads. The ship goes through a few ticks later\n" +
+                    "asyncPortalSearch=true\n\n" +
+
+                    "# Worker threads for background portal searches\n" +
+                    "portalSearchThreads=1\n\n" +
+
+                    "# Teleport Safety\n" +
+                    "# Check the exit against the ship's actual blocks instead of its whole rotated bounding box\n" +
+                    "# Lets diagonal ships through narrow caves, very large ships still use the bounding box\n" +
+                    "hullAccurateCollision=true\n\n" +
+
+                    "# When the exit is blocked, look for the nearest clear spot within this many blocks and arrive there\n" +
+                    "# instead of cancelling the teleport\n" +
+                    "safeExitSearch=true\n" +
+                    "safeExitSearchRadius=8\n\n" +
+
+                    "# Exit Chunk Pre-loading\n" +
+                    "# Load the chunks around the other side of a portal while a ship is flying towards it,\n" +
+                    "# so they're ready when it arrives instead of loading during the teleport\n" +
+                    "prewarmExitChunks=true\n\n" +
+
+                    "# Start once a moving ship is within this many blocks of a known portal\n" +
+                    "# and could reach it within prewarmLeadTicks at its current speed\n" +
+                    "prewarmDistance=64\n" +
+                    "prewarmLeadTicks=200\n\n" +
+
+                    "# Radius in chunks loaded around the exit\n" +
+                    "prewarmRadiusChunks=2\n"
             ;
 
     public static void load() {
@@ -121,12 +214,45 @@ public class Config {
                 case "checkShipsEveryXTicks":
                     CHECK_INTERVAL_TICKS = parseInt(value, 5);
                     break;
+                case "parkedShipCheckInterval":
+                    PARKED_CHECK_INTERVAL_TICKS = parseInt(value, 200);
+                    break;
+                case "shipCheckBudgetMicros":
+                    SHIP_CHECK_BUDGET_MICROS = parseInt(value, 2000);
+                    break;
                 case "portalCooldownTicks":
                     PORTAL_COOLDOWN_TICKS = parseInt(value, 100);
                     break;
                 case "sendLogsToAllPlayers":
                     SEND_LOGS_TO_ALL_PLAYERS = parseBoolean(value, false);
                     break;
+                case "logLevel":
+                    LOG_LEVEL = value;
+                    break;
+                case "logQueueCapacity":
+                    LOG_QUEUE_CAPACITY = parseInt(value, 8192);
+                    break;
+                case "logBlockWhenFull":
+                    LOG_BLOCK_WHEN_FULL = parseBoolean(value, false);
+                    break;
+                case "logMaxFileKb":
+                    LOG_MAX_FILE_KB = Math.max(0, parseInt(value, 4096));
+                    break;
+                case "logMaxFileAgeMinutes":
+                    LOG_MAX_FILE_AGE_MINUTES = Math.max(0, parseInt(value, 1440));
+                    break;
+                case "logMaxFiles":
+                    LOG_MAX_FILES = Math.max(1, parseInt(value, 20));
+                    break;
+                case "logCompress":
+                    LOG_COMPRESS = parseBoolean(value, true);
+                    break;
+                case "teleportJournal":
+                    TELEPORT_JOURNAL = parseBoolean(value, true);
+                    break;
+                case "teleportJournalMaxMb":
+                    TELEPORT_JOURNAL_MAX_MB = Math.max(1, parseInt(value, 16));
+                    break;
                 case "createLogFiles":
                     CREATE_LOG_FILES = parseBoolean(value, false);
                     break;
@@ -136,9 +262,6 @@ public class Config {
                 case "minMovementThreshold":
                     MIN_MOVEMENT_THRESHOLD = parseDouble(value, 0.1);
                     break;
-                case "cacheClearInterval":
-                    CACHE_CLEAR_INTERVAL = parseLong(value, 30000);
-                    break;
                 // New portal detection settings
                 case "portalSamplesPerFace":
                     PORTAL_SAMPLES_PER_FACE = parseInt(value, 3);
@@ -149,6 +272,39 @@ public class Config {
                 case "portalAlwaysCheckFrontBack":
                     PORTAL_ALWAYS_CHECK_FRONT_BACK = parseBoolean(value, true);
                     break;
+                case "portalSweptDetection":
+                    PORTAL_SWEPT_DETECTION = parseBoolean(value, true);
+                    break;
+                case "asyncPortalSearch":
+                    ASYNC_PORTAL_SEARCH = parseBoolean(value, true);
+                    break;
+                case "portalSearchThreads":
+                    PORTAL_SEARCH_THREADS = parseInt(value, 1);
+                    break;
+                case "hullAccurateCollision":
+                    HULL_ACCURATE_COLLISION = parseBoolean(value, true);
+                    break;
+                case "safeExitSearch":
+                    SAFE_EXIT_SEARCH = parseBoolean(value, true);
+                    break;
+                case "safeExitSearchRadius":
+                    SAFE_EXIT_SEARCH_RADIUS = parseInt(value, 8);
+                    break;
+                case "prewarmExitChunks":
+                    PREWARM_EXIT_CHUNKS = parseBoolean(value, true);
+                    break;
+                case "prewarmDistance":
+                    PREWARM_DISTANCE = parseInt(value, 64);
+                    break;
+                case "prewarmLeadTicks":
+                    PREWARM_LEAD_TICKS = parseInt(value, 200);
+                    break;
+                case "prewarmRadiusChunks":
+                    PREWARM_RADIUS_CHUNKS = parseInt(value, 2);
+                    break;
+                case "usePoiPortalSearch":
+                    USE_POI_PORTAL_SEARCH = parseBoolean(value, true);
+                    break;
                 default:
                     if (CONSOLE_LOGS) {
                         System.out.println("[Portal Skies] Unknown config option: " + key);
@@ -204,19 +360,34 @@ public class Config {
     }
 
     private static void applyConfig() {
+        Logger.configure();
+
         // Use direct console output for initial config loading
         if (CONSOLE_LOGS) {
             System.out.println("[Portal Skies] Config applied:");
             System.out.println("[Portal Skies] - Check interval: " + CHECK_INTERVAL_TICKS + " ticks");
+            System.out.println("[Portal Skies] - Parked check interval: " + PARKED_CHECK_INTERVAL_TICKS + " ticks");
+            System.out.println("[Portal Skies] - Ship check budget: " + SHIP_CHECK_BUDGET_MICROS + " µs per tick");
             System.out.println("[Portal Skies] - Cooldown: " + PORTAL_COOLDOWN_TICKS + " ticks");
             System.out.println("[Portal Skies] - Player logs: " + SEND_LOGS_TO_ALL_PLAYERS);
-            System.out.println("[Portal Skies] - File logs: " + CREATE_LOG_FILES);
+            System.out.println("[Portal Skies] - File logs: " + CREATE_LOG_FILES + " (queue " + LOG_QUEUE_CAPACITY + " lines, " +
+                    (LOG_BLOCK_WHEN_FULL ? "waits" : "drops") + " when full)");
             System.out.println("[Portal Skies] - Console logs: " + CONSOLE_LOGS);
-            System.out.println("[Portal Skies] - Movement threshold: " + MIN_MOVEMENT_THRESHOLD);
-            System.out.println("[Portal Skies] - Cache clear: " + CACHE_CLEAR_INTERVAL + "ms");
+            System.out.println("[Portal Skies] - Log level: " + LOG_LEVEL);
+            System.out.println("[Portal Skies] - Log files: up to " + LOG_MAX_FILE_KB + " KB / " + LOG_MAX_FILE_AGE_MINUTES +
+                    " minutes each, " + LOG_MAX_FILES + " kept" + (LOG_COMPRESS ? ", gzipped" : ""));
+            System.out.println("[Portal Skies] - Teleport journal: " + TELEPORT_JOURNAL + " (up to " + TELEPORT_JOURNAL_MAX_MB + " MB)");
+            System.out.println("[Portal Skies] - Movement threshold: " + MIN_MOVEMENT_THRESHOLD + " blocks/tick");
             System.out.println("[Portal Skies] - Portal samples per face: " + PORTAL_SAMPLES_PER_FACE);
             System.out.println("[Portal Skies] - Face skip interval: " + PORTAL_FACE_SKIP_INTERVAL);
             System.out.println("[Portal Skies] - Always check front/back: " + PORTAL_ALWAYS_CHECK_FRONT_BACK);
+            System.out.println("[Portal Skies] - Swept portal detection: " + PORTAL_SWEPT_DETECTION);
+            System.out.println("[Portal Skies] - POI portal search: " + USE_POI_PORTAL_SEARCH);
+            System.out.println("[Portal Skies] - Background portal search: " + ASYNC_PORTAL_SEARCH + " (" + PORTAL_SEARCH_THREADS + " threads)");
+            System.out.println("[Portal Skies] - Hull accurate collision: " + HULL_ACCURATE_COLLISION);
+            System.out.println("[Portal Skies] - Safe exit search: " + SAFE_EXIT_SEARCH + " (radius " + SAFE_EXIT_SEARCH_RADIUS + ")");
+            System.out.println("[Portal Skies] - Exit chunk pre-loading: " + PREWARM_EXIT_CHUNKS + " (within " + PREWARM_DISTANCE +
+                    " blocks / " + PREWARM_LEAD_TICKS + " ticks, radius " + PREWARM_RADIUS_CHUNKS + " chunks)");
         }
     }
 
@@ -224,14 +395,36 @@ public class Config {
         // Reset to defaults if config loading fails
         CHECK_INTERVAL_TICKS = 50;
         PORTAL_COOLDOWN_TICKS = 100;
+        PARKED_CHECK_INTERVAL_TICKS = 200;
+        SHIP_CHECK_BUDGET_MICROS = 2000;
         SEND_LOGS_TO_ALL_PLAYERS = false;
         CREATE_LOG_FILES = false;
+        LOG_LEVEL = "debug";
+        LOG_QUEUE_CAPACITY = 8192;
+        LOG_BLOCK_WHEN_FULL = false;
+        LOG_MAX_FILE_KB = 4096;
+        LOG_MAX_FILE_AGE_MINUTES = 1440;
+        LOG_MAX_FILES = 20;
+        LOG_COMPRESS = true;
+        TELEPORT_JOURNAL = true;
+        TELEPORT_JOURNAL_MAX_MB = 16;
         CONSOLE_LOGS = false; // NEW: Default to false
         MIN_MOVEMENT_THRESHOLD = 0.1;
-        CACHE_CLEAR_INTERVAL = 30000;
         PORTAL_SAMPLES_PER_FACE = 3;
         PORTAL_FACE_SKIP_INTERVAL = 1;
         PORTAL_ALWAYS_CHECK_FRONT_BACK = true;
+        PORTAL_SWEPT_DETECTION = true;
+        USE_POI_PORTAL_SEARCH = true;
+        ASYNC_PORTAL_SEARCH = true;
+        PORTAL_SEARCH_THREADS = 1;
+        HULL_ACCURATE_COLLISION = true;
+        SAFE_EXIT_SEARCH = true;
+        SAFE_EXIT_SEARCH_RADIUS = 8;
+        PREWARM_EXIT_CHUNKS = true;
+        PREWARM_DISTANCE = 64;
+        PREWARM_LEAD_TICKS = 200;
+        PREWARM_RADIUS_CHUNKS = 2;
+        Logger.configure();
     }
 
     // Utility method to reload config (can be called from commands if needed)
@@ -0,0 +1,86 @@
+package Portal.code;
+
+import it.unimi.dsi.fastutil.objects.Reference2ByteMap;
+import it.unimi.dsi.fastutil.objects.Reference2ByteOpenHashMap;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.tags.TagKey;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.EntityType;
+import org.valkyrienskies.mod.common.entity.ShipMountingEntity;
+
+/**
+ * How the teleport treats each entity type, worked out the first time a type is seen and kept
+ * until tags reload. The rules come from entity type tags, which datapacks can extend.
+ */
+public final class EntityClassification {
+
+    // Taken along even when they aren't alive: item frames, paintings, boats, minecarts
+    public static final TagKey<EntityType<?>> TELEPORT_ALWAYS = tag("teleport_always");
+    // Left behind even when alive
+    public static final TagKey<EntityType<?>> TELEPORT_NEVER = tag("teleport_never");
+    // Re-created and reset on arrival so they can be ridden again right away
+    public static final TagKey<EntityType<?>> RIDEABLE = tag("rideable");
+
+    private static final byte CLASSIFIED = 1;
+    private static final byte ALWAYS = 2;
+    private static final byte NEVER = 4;
+    private static final byte IS_RIDEABLE = 8;
+    private static final byte PLAYER = 16;
+    private static final byte SHIP_MOUNT = 32;
+
+    private static final Reference2ByteMap<EntityType<?>> TYPES = new Reference2ByteOpenHashMap<>();
+
+    private EntityClassification() {
+    }
+
+    public static boolean shouldTeleport(Entity entity) {
+        byte flags = get(entity);
+        if ((flags & PLAYER) != 0) return true;
+        if ((flags & NEVER) != 0) return false;
+        return entity.isAlive() || (flags & ALWAYS) != 0;
+    }
+
+    public static boolean isRideable(Entity entity) {
+        return !entity.getPassengers().isEmpty() || (get(entity) & IS_RIDEABLE) != 0;
+    }
+
+    public static boolean isPlayer(Entity entity) {
+        return (get(entity) & PLAYER) != 0;
+    }
+
+    public static boolean isShipMount(Entity entity) {
+        return (get(entity) & SHIP_MOUNT) != 0;
+    }
+
+    // Tags changed, classify every type again when it's next seen. Server thread only, like the lookups
+    public static void clear() {
+        TYPES.clear();
+    }
+
+    private static byte get(Entity entity) {
+        EntityType<?> type = entity.getType();
+        byte flags = TYPES.getByte(type);
+        if (flags == 0) {
+            flags = classify(entity, type);
+            TYPES.put(type, flags);
+        }
+        return flags;
+    }
+
+    // The class checks hold for the whole type, every entity of a type has the same class
+    private static byte classify(Entity entity, EntityType<?> type) {
+        byte flags = CLASSIFIED;
+        if (type.is(TELEPORT_ALWAYS)) flags |= ALWAYS;
+        if (type.is(TELEPORT_NEVER)) flags |= NEVER;
+        if (type.is(RIDEABLE)) flags |= IS_RIDEABLE;
+        if (entity instanceof ServerPlayer) flags |= PLAYER;
+        if (entity instanceof ShipMountingEntity) flags |= SHIP_MOUNT;
+        return flags;
+    }
+
+    private static TagKey<EntityType<?>> tag(String path) {
+        return TagKey.create(Registries.ENTITY_TYPE, new ResourceLocation("valkerian_nether_portals", path));
+    }
+}
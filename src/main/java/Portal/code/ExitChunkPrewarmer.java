@@ -0,0 +1,95 @@
+package Portal.code;
+
+import Portal.code.PortalRegistry.PortalFrame;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads the chunks around a portal's likely exit before a ship gets there.
+ * Ships closing in on a known portal ask for a short-lived ticket around the matching spot in the
+ * other dimension: the known exit portal when the registry has one, the scaled position otherwise.
+ * The chunk system loads (or generates) them in the background, and the ticket runs out on its
+ * own once ships stop asking.
+ */
+public class ExitChunkPrewarmer {
+
+    // Tickets expire by themselves this long after they were last issued
+    private static final int LIFESPAN_TICKS = 300;
+    // Re-issue a ticket still in use this often, well before it runs out
+    private static final long REFRESH_TICKS = 100;
+    private static final TicketType<ChunkPos> PREWARM_TICKET =
+            TicketType.create("valkerian_portal_prewarm", Comparator.comparingLong(ChunkPos::toLong), LIFESPAN_TICKS);
+
+    private record ExitKey(ResourceKey<Level> dimension, long chunk) {}
+
+    // When each exit was last ticketed
+    private final Map<ExitKey, Long> issued = new HashMap<>();
+    private long nextPruneTick = 0;
+
+    /**
+     * Tickets the exit of a portal in the overworld or nether. Cheap to call every check,
+     * exits already ticketed recently are skipped.
+     */
+    public void prewarm(ServerLevel source, PortalFrame portal, long now) {
+        boolean fromNether = source.dimension() == Level.NETHER;
+        if (!fromNether && source.dimension() != Level.OVERWORLD) return;
+
+        ServerLevel target = source.getServer().getLevel(fromNether ? Level.OVERWORLD : Level.NETHER);
+        if (target == null) return;
+
+        // Same scaling and search square as the exit lookup
+        double scale = fromNether ? 8.0 : 0.125;
+        int searchRadius = fromNether ? 136 : 24;
+        int exitX = (int) Math.floor(portal.center().getX() * scale);
+        int exitZ = (int) Math.floor(portal.center().getZ() * scale);
+
+        // Registry lookup only, validating the frame here would load the chunks synchronously
+        BlockPos exitCenter = new BlockPos(exitX, fromNether ? portal.center().getY() : 64, exitZ);
+        PortalFrame knownExit = PortalRegistry.get(target).findNearest(exitCenter, searchRadius, 1, 1, frame -> true);
+        if (knownExit != null) {
+            exitX = knownExit.center().getX();
+            exitZ = knownExit.center().getZ();
+        }
+
+        ChunkPos chunk = new ChunkPos(exitX >> 4, exitZ >> 4);
+        ExitKey key = new ExitKey(target.dimension(), chunk.toLong());
+        Long last = issued.get(key);
+        if (last != null && now - last < REFRESH_TICKS) return;
+        issued.put(key, now);
+
+        // Distance radius + 1 keeps the whole square loaded and ticking, re-adding refreshes the lifespan
+        int radius = Math.max(0, Config.PREWARM_RADIUS_CHUNKS);
+        target.getChunkSource().addRegionTicket(PREWARM_TICKET, chunk, radius + 1, chunk);
+
+        if (last == null) {
+            Logger.debug("[Portal Skies] Pre-loading exit chunks around %s in %s (%s)", chunk, target.dimension().location(),
+                    knownExit != null ? "known portal" : "scaled position");
+        }
+    }
+
+    /**
+     * Forgets exits whose tickets have expired by now.
+     */
+    public void prune(long now) {
+        if (now < nextPruneTick) return;
+        nextPruneTick = now + LIFESPAN_TICKS;
+        issued.values().removeIf(last -> now - last > LIFESPAN_TICKS);
+    }
+
+    public int getTicketedCount() {
+        return issued.size();
+    }
+
+    public void clear() {
+        issued.clear();
+        nextPruneTick = 0;
+    }
+}
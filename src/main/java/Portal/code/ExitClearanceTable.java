@@ -0,0 +1,174 @@
+package Portal.code;
+
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.function.Predicate;
+
+/**
+ * Summed-volume table of solid blocks around a blocked exit. Once it's built, the number of solid
+ * blocks in any box inside it takes eight reads, so every nearby placement of a ship can be tried
+ * for about the cost of one scan.
+ */
+public class ExitClearanceTable {
+
+    // At most a 4 MB table per safety check, bigger areas are checked offset by offset instead
+    private static final long MAX_CELLS = 1L << 20;
+
+    // Offsets within the last requested radius, nearest first
+    private static int cachedRadius = -1;
+    private static int[] cachedOffsets;
+
+    private final int originX, originY, originZ;
+    private final int sizeX, sizeY, sizeZ;
+    // (sizeX + 1) * (sizeY + 1) * (sizeZ + 1), the first row of every axis stays zero
+    private final int[] sums;
+
+    private ExitClearanceTable(int originX, int originY, int originZ, int sizeX, int sizeY, int sizeZ) {
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.sums = new int[(sizeX + 1) * (sizeY + 1) * (sizeZ + 1)];
+    }
+
+    /**
+     * Counts solid blocks in the box (inclusive block coordinates). Returns null when the box is
+     * too big. Parts of the box outside the level count as empty, chunks the lookup has no chunk
+     * for (not loaded, say) count as solid so nothing gets placed in them.
+     */
+    public static ExitClearanceTable build(BlockBoxScanner.ChunkLookup chunks, int minSection, Predicate<BlockState> isSolid,
+                                           int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        int sizeX = maxX - minX + 1, sizeY = maxY - minY + 1, sizeZ = maxZ - minZ + 1;
+        if ((long) (sizeX + 1) * (sizeY + 1) * (sizeZ + 1) > MAX_CELLS) return null;
+
+        ExitClearanceTable table = new ExitClearanceTable(minX, minY, minZ, sizeX, sizeY, sizeZ);
+        table.fill(chunks, minSection, isSolid, maxX, maxY, maxZ);
+        table.accumulate();
+        return table;
+    }
+
+    /**
+     * Solid blocks in the box (inclusive world block coordinates), which must lie inside the table.
+     */
+    public int countSolid(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        int x0 = minX - originX, y0 = minY - originY, z0 = minZ - originZ;
+        int x1 = maxX - originX + 1, y1 = maxY - originY + 1, z1 = maxZ - originZ + 1;
+        return sums[index(x1, y1, z1)] - sums[index(x0, y1, z1)] - sums[index(x1, y0, z1)] - sums[index(x1, y1, z0)]
+                + sums[index(x0, y0, z1)] + sums[index(x0, y1, z0)] + sums[index(x1, y0, z0)] - sums[index(x0, y0, z0)];
+    }
+
+    /**
+     * Packed (dx, dy, dz) offsets with every component within the radius, nearest first. Among
+     * offsets equally far, upwards comes before sideways before downwards. Shared, don't modify.
+     */
+    public static int[] offsetsWithin(int radius) {
+        if (radius == cachedRadius) return cachedOffsets;
+
+        int side = 2 * radius + 1;
+        int[][] offsets = new int[side * side * side][];
+        int count = 0;
+        for (int dx = -radius; dx <= radius; dx++) {
+            for (int dy = -radius; dy <= radius; dy++) {
+                for (int dz = -radius; dz <= radius; dz++) {
+                    offsets[count++] = new int[]{dx, dy, dz};
+                }
+            }
+        }
+        Arrays.sort(offsets, Comparator.<int[]>comparingInt(o -> o[0] * o[0] + o[1] * o[1] + o[2] * o[2])
+                .thenComparingInt(o -> -Integer.signum(o[1])));
+
+        int[] packed = new int[offsets.length * 3];
+        for (int i = 0; i < offsets.length; i++) {
+            packed[i * 3] = offsets[i][0];
+            packed[i * 3 + 1] = offsets[i][1];
+            packed[i * 3 + 2] = offsets[i][2];
+        }
+        cachedRadius = radius;
+        cachedOffsets = packed;
+        return packed;
+    }
+
+    private void fill(BlockBoxScanner.ChunkLookup chunks, int minSection, Predicate<BlockState> isSolid, int maxX, int maxY, int maxZ) {
+        for (int chunkX = originX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = originZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                LevelChunk chunk = chunks.get(chunkX, chunkZ);
+                if (chunk == null) {
+                    fillColumn(chunkX, chunkZ, maxX, maxY, maxZ);
+                    continue;
+                }
+                LevelChunkSection[] sections = chunk.getSections();
+                int fromIndex = Math.max(0, (originY >> 4) - minSection);
+                int toIndex = Math.min(sections.length - 1, (maxY >> 4) - minSection);
+
+                for (int index = fromIndex; index <= toIndex; index++) {
+                    LevelChunkSection section = sections[index];
+                    if (section == null || section.hasOnlyAir() || !section.maybeHas(isSolid)) continue;
+
+                    PalettedContainer<BlockState> states = section.getStates();
+                    int baseY = (minSection + index) << 4;
+                    int fromY = Math.max(originY, baseY), toY = Math.min(maxY, baseY + 15);
+                    int fromZ = Math.max(originZ, chunkZ << 4), toZ = Math.min(maxZ, (chunkZ << 4) + 15);
+                    int fromX = Math.max(originX, chunkX << 4), toX = Math.min(maxX, (chunkX << 4) + 15);
+                    for (int y = fromY; y <= toY; y++) {
+                        for (int z = fromZ; z <= toZ; z++) {
+                            for (int x = fromX; x <= toX; x++) {
+                                if (isSolid.test(states.get(x & 15, y & 15, z & 15))) {
+                                    sums[index(x - originX + 1, y - originY + 1, z - originZ + 1)] = 1;
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    // Marks the table's whole height inside one chunk as solid
+    private void fillColumn(int chunkX, int chunkZ, int maxX, int maxY, int maxZ) {
+        int fromZ = Math.max(originZ, chunkZ << 4), toZ = Math.min(maxZ, (chunkZ << 4) + 15);
+        int fromX = Math.max(originX, chunkX << 4), toX = Math.min(maxX, (chunkX << 4) + 15);
+        for (int y = originY; y <= maxY; y++) {
+            for (int z = fromZ; z <= toZ; z++) {
+                for (int x = fromX; x <= toX; x++) {
+                    sums[index(x - originX + 1, y - originY + 1, z - originZ + 1)] = 1;
+                }
+            }
+        }
+    }
+
+    // Running sums along x, then z, then y turn the counts into box sums from the origin
+    private void accumulate() {
+        for (int y = 1; y <= sizeY; y++) {
+            for (int z = 1; z <= sizeZ; z++) {
+                for (int x = 1; x <= sizeX; x++) {
+                    sums[index(x, y, z)] += sums[index(x - 1, y, z)];
+                }
+            }
+        }
+        for (int y = 1; y <= sizeY; y++) {
+            for (int z = 1; z <= sizeZ; z++) {
+                for (int x = 1; x <= sizeX; x++) {
+                    sums[index(x, y, z)] += sums[index(x, y, z - 1)];
+                }
+            }
+        }
+        for (int y = 1; y <= sizeY; y++) {
+            for (int z = 1; z <= sizeZ; z++) {
+                for (int x = 1; x <= sizeX; x++) {
+                    sums[index(x, y, z)] += sums[index(x, y - 1, z)];
+                }
+            }
+        }
+    }
+
+    private int index(int x, int y, int z) {
+        return (y * (sizeZ + 1) + z) * (sizeX + 1) + x;
+    }
+}
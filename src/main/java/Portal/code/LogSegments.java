@@ -0,0 +1,249 @@
+package Portal.code;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The numbered ship-teleport-N.log files. Their numbers, and when the current one was started, are
+ * kept in a small index file so startup reads one file instead of listing the logs folder. Closed segments are gzipped on a background
+ * thread and the oldest are deleted once there are more than {@link Config#LOG_MAX_FILES}.
+ * {@link #next} is only called by the log writer thread.
+ */
+public class LogSegments implements AsyncLogWriter.Segments {
+
+    public static final String FILE_PREFIX = "ship-teleport-";
+    public static final String FILE_EXTENSION = ".log";
+    private static final String COMPRESSED_EXTENSION = ".gz";
+    private static final String INDEX_FILE = "ship-teleport.index";
+    private static final Pattern FILE_NUMBER_PATTERN = Pattern.compile(Pattern.quote(FILE_PREFIX) + "(\\d+)" + Pattern.quote(FILE_EXTENSION) + "(\\.gz)?");
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private final Path folder;
+    private volatile int current;
+    private volatile long currentOpened;
+    // Closed segments still on disk, oldest first
+    private final ArrayDeque<Integer> closed = new ArrayDeque<>();
+    // Compression and deletes, in order, so a segment is never deleted while it's being compressed
+    private final ExecutorService background = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Portal Skies log compressor");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private LogSegments(Path folder) {
+        this.folder = folder;
+    }
+
+    /**
+     * Picks up where the index says the last run stopped. Without an index (first run, or logs
+     * from before there was one) the folder is listed once and the index written.
+     */
+    public static LogSegments open(Path folder) throws IOException {
+        Files.createDirectories(folder);
+        LogSegments segments = new LogSegments(folder);
+        if (!segments.readIndex()) {
+            segments.rebuildIndex();
+        }
+        // Anything over the limit, then segments a crash or shutdown left uncompressed
+        segments.trim();
+        for (int number : segments.closed) {
+            segments.compress(number);
+        }
+        segments.writeIndex();
+        return segments;
+    }
+
+    @Override
+    public File current() {
+        return file(current, false).toFile();
+    }
+
+    public int currentNumber() {
+        return current;
+    }
+
+    @Override
+    public long currentOpenedMillis() {
+        return currentOpened;
+    }
+
+    @Override
+    public File next() {
+        int finished = current;
+        closed.addLast(finished);
+        current = finished + 1;
+        currentOpened = System.currentTimeMillis();
+        compress(finished);
+        trim();
+        writeIndex();
+        return current();
+    }
+
+    /**
+     * Lets queued compression finish, so the next server start doesn't find half written archives.
+     */
+    public void close() {
+        background.shutdown();
+        try {
+            background.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean readIndex() {
+        List<String> lines;
+        try {
+            lines = Files.readAllLines(folder.resolve(INDEX_FILE), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return false;
+        }
+        try {
+            // First line the segment being written and when it was started, then the closed ones oldest first
+            int currentNumber = -1;
+            long openedMillis = System.currentTimeMillis();
+            List<Integer> closedNumbers = new ArrayList<>();
+            for (String line : lines) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                if (currentNumber < 0) {
+                    // Indexes from before the time was kept only have the number, their age starts now
+                    String[] parts = line.split("\\s+");
+                    currentNumber = Integer.parseInt(parts[0]);
+                    if (parts.length > 1) openedMillis = Long.parseLong(parts[1]);
+                } else {
+                    closedNumbers.add(Integer.parseInt(line));
+                }
+            }
+            if (currentNumber < 0) return false;
+            current = currentNumber;
+            currentOpened = openedMillis;
+            closed.addAll(closedNumbers);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    // One directory listing, then never again while the index is there
+    private void rebuildIndex() throws IOException {
+        List<Integer> numbers = new ArrayList<>();
+        try (Stream<Path> files = Files.list(folder)) {
+            files.forEach(path -> {
+                Matcher matcher = FILE_NUMBER_PATTERN.matcher(path.getFileName().toString());
+                if (matcher.matches()) {
+                    numbers.add(Integer.parseInt(matcher.group(1)));
+                }
+            });
+        }
+        Collections.sort(numbers);
+
+        closed.clear();
+        // Nothing says when the newest file was started, its age starts now
+        currentOpened = System.currentTimeMillis();
+        if (numbers.isEmpty()) {
+            current = 1;
+        } else {
+            // Continue in the newest file like before, the rest count as closed
+            current = numbers.get(numbers.size() - 1);
+            for (int number : numbers) {
+                if (number != current && (closed.isEmpty() || closed.peekLast() != number)) {
+                    closed.addLast(number);
+                }
+            }
+        }
+    }
+
+    private void writeIndex() {
+        Path index = folder.resolve(INDEX_FILE);
+        Path temp = folder.resolve(INDEX_FILE + ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                writer.write("# Portal Skies log segments: the one being written and when it was started, then closed ones oldest first");
+                writer.newLine();
+                writer.write(current + " " + currentOpened);
+                writer.newLine();
+                for (int number : closed) {
+                    writer.write(Integer.toString(number));
+                    writer.newLine();
+                }
+            }
+            try {
+                Files.move(temp, index, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, index, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // Next startup lists the folder instead
+            if (Config.CONSOLE_LOGS) {
+                System.err.println("[Portal Skies] Failed to write log index: " + e.getMessage());
+            }
+        }
+    }
+
+    // Drops the oldest segments until the current one and the closed ones fit the limit
+    private void trim() {
+        while (!closed.isEmpty() && closed.size() + 1 > Math.max(1, Config.LOG_MAX_FILES)) {
+            int number = closed.removeFirst();
+            background.execute(() -> {
+                delete(file(number, false));
+                delete(file(number, true));
+            });
+        }
+    }
+
+    private void compress(int number) {
+        if (!Config.LOG_COMPRESS) return;
+        background.execute(() -> {
+            Path source = file(number, false);
+            Path target = file(number, true);
+            Path temp = folder.resolve(target.getFileName() + ".tmp");
+            try {
+                try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp), 64 * 1024)) {
+                    Files.copy(source, out);
+                }
+                Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+                Files.delete(source);
+            } catch (NoSuchFileException e) {
+                // Already compressed or deleted
+                delete(temp);
+            } catch (IOException e) {
+                delete(temp);
+                if (Config.CONSOLE_LOGS) {
+                    System.err.println("[Portal Skies] Failed to compress " + source.getFileName() + ": " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    private Path file(int number, boolean compressed) {
+        return folder.resolve(FILE_PREFIX + number + FILE_EXTENSION + (compressed ? COMPRESSED_EXTENSION : ""));
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException ignored) {
+        }
+    }
+}
@@ -7,22 +7,29 @@ import net.minecraftforge.server.ServerLifecycleHooks;
 
 import java.io.*;
 import java.nio.file.*;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
-import java.util.Comparator;
-import java.util.regex.Pattern;
-import java.util.regex.Matcher;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 public class Logger {
-    // Static public variables
-    public static boolean newFile = false;
-    public static int currentFileNumber = 1;
-    private static PrintWriter currentWriter = null;
+    // Does the file IO on its own thread, see AsyncLogWriter
+    private static AsyncLogWriter currentWriter = null;
+    // Numbering, compression and retention of the log files
+    private static LogSegments segments = null;
     private static final String LOG_FOLDER = "logs";
-    private static final String FILE_PREFIX = "ship-teleport-";
-    private static final String FILE_EXTENSION = ".log";
-    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
-    private static final Pattern FILE_NUMBER_PATTERN = Pattern.compile(FILE_PREFIX + "(\\d+)" + FILE_EXTENSION);
+
+    /**
+     * Message levels. INFO and WARN also go to players when sendLogsToAllPlayers is on,
+     * TRACE and DEBUG only ever go to the log file and console.
+     */
+    public enum Level { TRACE, DEBUG, INFO, WARN }
+
+    // Lowest level that currently goes anywhere, everything below returns after one compare
+    private static int enabledFrom = Level.DEBUG.ordinal();
+    // Lowest levels written to the file and console, and sent to players
+    private static int localFrom = Level.DEBUG.ordinal();
+    private static int playersFrom = Level.INFO.ordinal();
+    private static final int NOTHING_ENABLED = Level.values().length;
 
     // Static initializer - runs when class is first loaded
     static {
@@ -33,14 +40,10 @@ public class Logger {
         try {
             // Only initialize file logging if enabled in config
             if (Config.CREATE_LOG_FILES) {
-                // Ensure logs directory exists
-                Files.createDirectories(Paths.get(LOG_FOLDER));
-
-                // Find the highest existing file number
-                currentFileNumber = findHighestFileNumber();
-
-                // Create or open the current log file
-                openCurrentLogFile();
+                // Reads the index file, the logs folder is only listed when there is none
+                segments = LogSegments.open(Paths.get(LOG_FOLDER));
+                currentWriter = new AsyncLogWriter(segments, Config.LOG_QUEUE_CAPACITY, Config.LOG_BLOCK_WHEN_FULL,
+                        (long) Config.LOG_MAX_FILE_KB * 1024, TimeUnit.MINUTES.toMillis(Config.LOG_MAX_FILE_AGE_MINUTES));
             } else if (Config.CONSOLE_LOGS) {
                 System.out.println("[Portal Skies] File logging is disabled in config");
             }
@@ -52,77 +55,147 @@ public class Logger {
         }
     }
 
-    private static int findHighestFileNumber() {
+    /**
+     * Works out which levels reach any output from the config. Called whenever the config is applied.
+     */
+    public static void configure() {
+        int threshold;
         try {
-            return Files.list(Paths.get(LOG_FOLDER))
-                    .filter(Files::isRegularFile)
-                    .map(path -> path.getFileName().toString())
-                    .map(fileName -> {
-                        Matcher matcher = FILE_NUMBER_PATTERN.matcher(fileName);
-                        return matcher.matches() ? Integer.parseInt(matcher.group(1)) : 0;
-                    })
-                    .max(Comparator.naturalOrder())
-                    .orElse(0); // Returns 0 if no files found, so we start at 1
-
-        } catch (Exception e) {
-            if (Config.CONSOLE_LOGS) {
-                System.err.println("[Portal Skies] Error scanning log files: " + e.getMessage());
-            }
-            return 0;
+            threshold = Level.valueOf(Config.LOG_LEVEL.trim().toUpperCase(Locale.ROOT)).ordinal();
+        } catch (IllegalArgumentException e) {
+            threshold = Level.DEBUG.ordinal();
         }
+
+        localFrom = Config.CREATE_LOG_FILES || Config.CONSOLE_LOGS ? threshold : NOTHING_ENABLED;
+        playersFrom = Config.SEND_LOGS_TO_ALL_PLAYERS ? Math.max(threshold, Level.INFO.ordinal()) : NOTHING_ENABLED;
+        enabledFrom = Math.min(localFrom, playersFrom);
     }
 
-    private static void openCurrentLogFile() {
-        try {
-            // Close previous writer if exists
-            if (currentWriter != null) {
-                currentWriter.close();
-            }
+    public static boolean isEnabled(Level level) {
+        return level.ordinal() >= enabledFrom;
+    }
 
-            String filename = FILE_PREFIX + currentFileNumber + FILE_EXTENSION;
-            File logFile = new File(LOG_FOLDER, filename);
+    // Each level takes a plain message, a supplier, or a String.format pattern with up to three
+    // arguments. Nothing is built unless the level is enabled, but primitive format arguments are
+    // boxed before the call, so hot paths use the supplier or check isEnabled first.
 
-            // Create writer in append mode
-            currentWriter = new PrintWriter(new FileWriter(logFile, true));
+    public static void trace(String message) {
+        if (enabledFrom <= Level.TRACE.ordinal()) log(Level.TRACE, message);
+    }
 
-        } catch (Exception e) {
-            if (Config.CONSOLE_LOGS) {
-                System.err.println("[Portal Skies] Failed to open log file: " + e.getMessage());
-                e.printStackTrace();
-            }
-        }
+    public static void trace(Supplier<String> message) {
+        if (enabledFrom <= Level.TRACE.ordinal()) log(Level.TRACE, message.get());
+    }
+
+    public static void trace(String format, Object arg) {
+        if (enabledFrom <= Level.TRACE.ordinal()) log(Level.TRACE, String.format(format, arg));
+    }
+
+    public static void trace(String format, Object arg1, Object arg2) {
+        if (enabledFrom <= Level.TRACE.ordinal()) log(Level.TRACE, String.format(format, arg1, arg2));
+    }
+
+    public static void trace(String format, Object arg1, Object arg2, Object arg3) {
+        if (enabledFrom <= Level.TRACE.ordinal()) log(Level.TRACE, String.format(format, arg1, arg2, arg3));
+    }
+
+    public static void debug(String message) {
+        if (enabledFrom <= Level.DEBUG.ordinal()) log(Level.DEBUG, message);
+    }
+
+    public static void debug(Supplier<String> message) {
+        if (enabledFrom <= Level.DEBUG.ordinal()) log(Level.DEBUG, message.get());
+    }
+
+    public static void debug(String format, Object arg) {
+        if (enabledFrom <= Level.DEBUG.ordinal()) log(Level.DEBUG, String.format(format, arg));
+    }
+
+    public static void debug(String format, Object arg1, Object arg2) {
+        if (enabledFrom <= Level.DEBUG.ordinal()) log(Level.DEBUG, String.format(format, arg1, arg2));
+    }
+
+    public static void debug(String format, Object arg1, Object arg2, Object arg3) {
+        if (enabledFrom <= Level.DEBUG.ordinal()) log(Level.DEBUG, String.format(format, arg1, arg2, arg3));
+    }
+
+    public static void info(String message) {
+        if (enabledFrom <= Level.INFO.ordinal()) log(Level.INFO, message);
+    }
+
+    public static void info(Supplier<String> message) {
+        if (enabledFrom <= Level.INFO.ordinal()) log(Level.INFO, message.get());
+    }
+
+    public static void info(String format, Object arg) {
+        if (enabledFrom <= Level.INFO.ordinal()) log(Level.INFO, String.format(format, arg));
+    }
+
+    public static void info(String format, Object arg1, Object arg2) {
+        if (enabledFrom <= Level.INFO.ordinal()) log(Level.INFO, String.format(format, arg1, arg2));
+    }
+
+    public static void info(String format, Object arg1, Object arg2, Object arg3) {
+        if (enabledFrom <= Level.INFO.ordinal()) log(Level.INFO, String.format(format, arg1, arg2, arg3));
+    }
+
+    public static void warn(String message) {
+        if (enabledFrom <= Level.WARN.ordinal()) log(Level.WARN, message);
     }
 
-    // Main public static method
+    public static void warn(Supplier<String> message) {
+        if (enabledFrom <= Level.WARN.ordinal()) log(Level.WARN, message.get());
+    }
+
+    public static void warn(String format, Object arg) {
+        if (enabledFrom <= Level.WARN.ordinal()) log(Level.WARN, String.format(format, arg));
+    }
+
+    public static void warn(String format, Object arg1, Object arg2) {
+        if (enabledFrom <= Level.WARN.ordinal()) log(Level.WARN, String.format(format, arg1, arg2));
+    }
+
+    public static void warn(String format, Object arg1, Object arg2, Object arg3) {
+        if (enabledFrom <= Level.WARN.ordinal()) log(Level.WARN, String.format(format, arg1, arg2, arg3));
+    }
+
+    private static void log(Level level, String message) {
+        output(message, level.ordinal() >= localFrom, level.ordinal() >= playersFrom);
+    }
+
+    // Old entry point: true is INFO, false is DEBUG
     public static void sendMessage(String message, boolean outputToPlayers) {
-        // Handle new file request (only if file logging is enabled)
-        if (newFile && Config.CREATE_LOG_FILES) {
-            currentFileNumber++;
-            openCurrentLogFile();
-            newFile = false;
+        if (outputToPlayers) {
+            info(message);
+        } else {
+            debug(message);
         }
+    }
 
+    private static void output(String message, boolean local, boolean outputToPlayers) {
         // Write to log file only if enabled in config
-        if (Config.CREATE_LOG_FILES) {
+        if (local && Config.CREATE_LOG_FILES) {
             writeToLogFile(message);
         }
 
-        // Output to players only if enabled in config AND requested by caller
+        // Output to players only if enabled in config AND the level goes to players
         if (outputToPlayers && Config.SEND_LOGS_TO_ALL_PLAYERS) {
             sendToAllPlayers(message);
         }
 
         // Log to console only if enabled in config
-        if (Config.CONSOLE_LOGS) {
+        if (local && Config.CONSOLE_LOGS) {
             System.out.println("[Portal Skies] " + message);
         }
     }
 
     private static void writeToLogFile(String message) {
+        // Closed when the server stopped, the next one starts a writer again
+        if (currentWriter == null && Config.CREATE_LOG_FILES) {
+            initializeLogger();
+        }
         if (currentWriter != null && Config.CREATE_LOG_FILES) {
-            String timestamp = LocalDateTime.now().format(TIMESTAMP_FORMAT);
-            currentWriter.println("[" + timestamp + "] " + message);
-            currentWriter.flush(); // Ensure it's written immediately
+            currentWriter.write(message);
         }
     }
 
@@ -159,22 +232,30 @@ public class Logger {
         }
     }
 
-    // Utility method to close the logger properly
+    // Utility method to close the logger properly, writes out everything still queued first
     public static void close() {
         if (currentWriter != null) {
             currentWriter.close();
             currentWriter = null;
         }
+        // Waits for the last compression
+        if (segments != null) {
+            segments.close();
+            segments = null;
+        }
     }
 
-    // Optional: Method to manually trigger new file
+    // Optional: Method to manually trigger new file, files also change by size and age (logMaxFileKb, logMaxFileAgeMinutes)
     public static void startNewLogFile() {
-        newFile = true;
+        if (currentWriter != null) {
+            currentWriter.rotate();
+        }
     }
 
     // Optional: Get current log file info
     public static String getCurrentLogFileName() {
-        return FILE_PREFIX + currentFileNumber + FILE_EXTENSION;
+        LogSegments current = segments;
+        return current == null ? null : current.current().getName();
     }
 
     // Optional: Get player count for debugging
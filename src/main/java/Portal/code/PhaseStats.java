@@ -0,0 +1,141 @@
+package Portal.code;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * How long each part of a teleport takes, one fixed-size histogram per phase. Buckets are
+ * log-linear: every power of two is split into {@link #SUB_BUCKETS} equal parts, so any recorded
+ * time is off by at most 1/16 and the whole range from 1 ns to about 18 minutes fits in a few
+ * hundred counters. Server thread only, like the code being measured.
+ */
+public final class PhaseStats {
+
+    public enum Phase {
+        DETECTION("detection"),
+        SOURCE_VALIDATION("source validation"),
+        DESTINATION_SEARCH("destination search"),
+        SAFETY_CHECK("safety check"),
+        ENTITY_COLLECTION("entity collection"),
+        TRANSFER("transfer");
+
+        public final String displayName;
+
+        Phase(String displayName) {
+            this.displayName = displayName;
+        }
+    }
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Longer times land in the last bucket, max still has the real value
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = (MAX_EXPONENT - SUB_BUCKET_BITS + 2) * SUB_BUCKETS;
+
+    private static final Histogram[] HISTOGRAMS = new Histogram[Phase.values().length];
+
+    static {
+        for (int i = 0; i < HISTOGRAMS.length; i++) {
+            HISTOGRAMS[i] = new Histogram();
+        }
+    }
+
+    private PhaseStats() {
+    }
+
+    public static void record(Phase phase, long nanos) {
+        HISTOGRAMS[phase.ordinal()].record(nanos);
+    }
+
+    public static void reset() {
+        for (Histogram histogram : HISTOGRAMS) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * One line per phase: count, p50, p99 and max. Phases nothing was recorded for say so.
+     */
+    public static String[] describe() {
+        Phase[] phases = Phase.values();
+        String[] lines = new String[phases.length];
+        for (Phase phase : phases) {
+            Histogram histogram = HISTOGRAMS[phase.ordinal()];
+            lines[phase.ordinal()] = histogram.count == 0
+                    ? String.format(Locale.ROOT, "%s: no samples", phase.displayName)
+                    : String.format(Locale.ROOT, "%s: %d, p50 %s, p99 %s, max %s", phase.displayName, histogram.count,
+                    formatNanos(histogram.percentile(0.50)), formatNanos(histogram.percentile(0.99)), formatNanos(histogram.max));
+        }
+        return lines;
+    }
+
+    public static long getCount(Phase phase) {
+        return HISTOGRAMS[phase.ordinal()].count;
+    }
+
+    public static long getPercentile(Phase phase, double fraction) {
+        return HISTOGRAMS[phase.ordinal()].percentile(fraction);
+    }
+
+    public static long getMax(Phase phase) {
+        return HISTOGRAMS[phase.ordinal()].max;
+    }
+
+    private static String formatNanos(long nanos) {
+        if (nanos < 1_000) return nanos + " ns";
+        if (nanos < 1_000_000) return String.format(Locale.ROOT, "%.1f µs", nanos / 1_000.0);
+        if (nanos < 1_000_000_000) return String.format(Locale.ROOT, "%.2f ms", nanos / 1_000_000.0);
+        return String.format(Locale.ROOT, "%.2f s", nanos / 1_000_000_000.0);
+    }
+
+    private static final class Histogram {
+        final long[] counts = new long[BUCKETS];
+        long count;
+        long max;
+
+        void record(long nanos) {
+            long value = Math.max(0, nanos);
+            counts[bucket(value)]++;
+            count++;
+            if (value > max) max = value;
+        }
+
+        void reset() {
+            Arrays.fill(counts, 0);
+            count = 0;
+            max = 0;
+        }
+
+        // Upper end of the bucket holding the given fraction of samples, never above the real max
+        long percentile(double fraction) {
+            if (count == 0) return 0;
+            long rank = Math.max(1, (long) Math.ceil(fraction * count));
+            long seen = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                seen += counts[bucket];
+                if (seen >= rank) {
+                    // The last bucket has no upper end
+                    return bucket == BUCKETS - 1 ? max : Math.min(upperBound(bucket), max);
+                }
+            }
+            return max;
+        }
+
+        // Values below SUB_BUCKETS get a bucket each, above that the top bits pick the bucket
+        static int bucket(long value) {
+            if (value < SUB_BUCKETS) return (int) value;
+            int exponent = 63 - Long.numberOfLeadingZeros(value);
+            if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+            int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+            return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+        }
+
+        static long upperBound(int bucket) {
+            if (bucket < SUB_BUCKETS) return bucket;
+            int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+            long subBucket = bucket % SUB_BUCKETS;
+            long width = 1L << (exponent - SUB_BUCKET_BITS);
+            return (1L << exponent) + (subBucket + 1) * width - 1;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package Portal.code;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.NetherPortalBlock;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+
+/**
+ * Walks columns around a center in the same ring order as the old vanilla-style search
+ * (ring by ring, then dx, then dz, then Y upwards) and hands back every nether portal block.
+ * Sections whose palette can't contain a portal block are rejected once per chunk, so only
+ * sections that really hold portals are read block by block.
+ * Reads either the live level or a {@link PortalSearchSnapshot} taken for an off-thread search.
+ */
+public class PortalColumnScanner {
+
+    @SuppressWarnings("unchecked")
+    static final PalettedContainer<BlockState>[] NO_SECTIONS = new PalettedContainer[0];
+
+    /**
+     * Per chunk, the block states of sections that may hold portal blocks, null where the
+     * palette ruled it out.
+     */
+    public interface SectionSource {
+        PalettedContainer<BlockState>[] candidateSections(int chunkX, int chunkZ);
+    }
+
+    private final SectionSource source;
+    private final int centerX;
+    private final int centerZ;
+    private final int radius;
+    private final int minSection;
+
+    private boolean started = false;
+    private int ring, dx, dz;
+    private int x, z;
+
+    private PalettedContainer<BlockState>[] columnSections;
+    private int sectionIndex;
+    private int localY;
+
+    private long blocksRead = 0;
+
+    public PortalColumnScanner(ServerLevel level, BlockPos center, int radius) {
+        this(new LiveSections(level), level.getMinSection(), center, radius);
+    }
+
+    public PortalColumnScanner(SectionSource source, int minSection, BlockPos center, int radius) {
+        this.source = source;
+        this.centerX = center.getX();
+        this.centerZ = center.getZ();
+        this.radius = radius;
+        this.minSection = minSection;
+    }
+
+    public static boolean isPortal(BlockState state) {
+        return state.getBlock() instanceof NetherPortalBlock;
+    }
+
+    /**
+     * Next portal block in scan order, or null once the whole square has been searched.
+     */
+    public BlockPos next() {
+        while (true) {
+            if (columnSections != null) {
+                while (sectionIndex < columnSections.length) {
+                    PalettedContainer<BlockState> section = columnSections[sectionIndex];
+                    if (section != null) {
+                        while (localY < 16) {
+                            int y = localY++;
+                            blocksRead++;
+                            if (isPortal(section.get(x & 15, y, z & 15))) {
+                                return new BlockPos(x, ((minSection + sectionIndex) << 4) + y, z);
+                            }
+                        }
+                    }
+                    sectionIndex++;
+                    localY = 0;
+                }
+                columnSections = null;
+            }
+
+            if (!advanceColumn()) return null;
+
+            columnSections = source.candidateSections(x >> 4, z >> 4);
+            sectionIndex = 0;
+            localY = 0;
+        }
+    }
+
+    // Ring of the last block handed out, nothing on it is closer than ring blocks horizontally
+    public int getRing() {
+        return ring;
+    }
+
+    public long getBlocksRead() {
+        return blocksRead;
+    }
+
+    // Only counted for live scans, snapshots filter their sections when they're taken
+    public long getSectionsSkipped() {
+        return source instanceof LiveSections live ? live.skipped[0] : 0;
+    }
+
+    // Steps to the next column on the current ring, jumping over the ring's interior
+    private boolean advanceColumn() {
+        if (!started) {
+            started = true;
+            ring = 0;
+            dx = 0;
+            dz = 0;
+        } else {
+            dz++;
+            if (Math.abs(dx) != ring && dz > -ring && dz < ring) {
+                dz = ring;
+            }
+            if (dz > ring) {
+                dx++;
+                dz = -ring;
+            }
+            if (dx > ring) {
+                ring++;
+                dx = -ring;
+                dz = -ring;
+            }
+        }
+
+        if (ring > radius) return false;
+
+        x = centerX + dx;
+        z = centerZ + dz;
+        return true;
+    }
+
+    /**
+     * Palette filter for one chunk: the states of sections that may hold portal blocks.
+     * Adds the number of sections it ruled out to {@code skipped[0]}.
+     */
+    static PalettedContainer<BlockState>[] filterSections(LevelChunkSection[] sections, long[] skipped) {
+        PalettedContainer<BlockState>[] candidates = null;
+        for (int i = 0; i < sections.length; i++) {
+            LevelChunkSection section = sections[i];
+            if (section == null || section.hasOnlyAir() || !section.maybeHas(PortalColumnScanner::isPortal)) {
+                skipped[0]++;
+                continue;
+            }
+            if (candidates == null) candidates = newSectionArray(sections.length);
+            candidates[i] = section.getStates();
+        }
+        return candidates == null ? NO_SECTIONS : candidates;
+    }
+
+    @SuppressWarnings("unchecked")
+    static PalettedContainer<BlockState>[] newSectionArray(int length) {
+        return new PalettedContainer[length];
+    }
+
+    // Reads the level directly, loading chunks as the scan reaches them
+    private static class LiveSections implements SectionSource {
+        private final ServerLevel level;
+        private final Long2ObjectMap<PalettedContainer<BlockState>[]> cache = new Long2ObjectOpenHashMap<>();
+        private final long[] skipped = new long[1];
+
+        LiveSections(ServerLevel level) {
+            this.level = level;
+        }
+
+        @Override
+        public PalettedContainer<BlockState>[] candidateSections(int chunkX, int chunkZ) {
+            long key = ChunkPos.asLong(chunkX, chunkZ);
+            PalettedContainer<BlockState>[] cached = cache.get(key);
+            if (cached != null) return cached;
+
+            LevelChunk chunk = level.getChunk(chunkX, chunkZ);
+            PalettedContainer<BlockState>[] candidates = filterSections(chunk.getSections(), skipped);
+            cache.put(key, candidates);
+            return candidates;
+        }
+    }
+}
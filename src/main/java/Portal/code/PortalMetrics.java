@@ -0,0 +1,230 @@
+package Portal.code;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+
+/**
+ * Counters and gauges of the portal code, published over JMX for monitoring. Counters are
+ * LongAdders, so the server thread and the search workers never contend on them; gauges are
+ * suppliers read only when JMX asks.
+ */
+public final class PortalMetrics implements PortalMetricsMXBean {
+
+    public static final String OBJECT_NAME = "valkerian_nether_portals:type=PortalMetrics";
+
+    public enum Cache {
+        SAMPLE_LATTICE("sampleLattice"),
+        TARGET_CHUNKS("targetChunks"),
+        EXIT_SEARCH("exitSearch");
+
+        final String key;
+
+        Cache(String key) {
+            this.key = key;
+        }
+    }
+
+    private static final PortalMetrics INSTANCE = new PortalMetrics();
+
+    private static final LongAdder SHIP_CHECKS = new LongAdder();
+    private static volatile int shipChecksLastTick;
+    private static final LongAdder SAMPLE_POINTS = new LongAdder();
+    private static final LongAdder BLOCK_READS = new LongAdder();
+    private static final LongAdder SEARCHES_STARTED = new LongAdder();
+    private static final LongAdder SEARCHES_SUCCEEDED = new LongAdder();
+    private static final LongAdder SEARCHES_FAILED = new LongAdder();
+    private static final LongAdder BACKGROUND_SEARCHES = new LongAdder();
+    private static final LongAdder TELEPORTS = new LongAdder();
+    private static final LongAdder[] CANCELLED = adders(TeleportJournal.Outcome.values().length);
+    private static final LongAdder[] CACHE_HITS = adders(Cache.values().length);
+    private static final LongAdder[] CACHE_MISSES = adders(Cache.values().length);
+    // Insertion ordered so JMX consoles list them the same way every time
+    private static final Map<String, IntSupplier> GAUGES = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    private PortalMetrics() {
+    }
+
+    /**
+     * Makes the metrics visible to JMX. Harmless to call again.
+     */
+    public static void register() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+        } catch (InstanceAlreadyExistsException ignored) {
+        } catch (Exception e) {
+            Logger.warn(() -> "[Portal Skies] Failed to register JMX metrics: " + e.getMessage());
+        }
+    }
+
+    // Sizes are read on the JMX thread while the server thread changes them, an off by one read is fine
+    public static void gauge(String name, IntSupplier size) {
+        GAUGES.put(name, size);
+    }
+
+    public static void shipChecks(int checked) {
+        SHIP_CHECKS.add(checked);
+        shipChecksLastTick = checked;
+    }
+
+    public static void samplePoints(int tested) {
+        SAMPLE_POINTS.add(tested);
+        BLOCK_READS.add(tested);
+    }
+
+    public static void blockReads(long reads) {
+        BLOCK_READS.add(reads);
+    }
+
+    public static void blockRead() {
+        BLOCK_READS.increment();
+    }
+
+    public static void searchStarted() {
+        SEARCHES_STARTED.increment();
+    }
+
+    public static void searchFinished(boolean found) {
+        (found ? SEARCHES_SUCCEEDED : SEARCHES_FAILED).increment();
+    }
+
+    public static void backgroundSearchStarted() {
+        BACKGROUND_SEARCHES.increment();
+    }
+
+    public static void cacheLookup(Cache cache, boolean hit) {
+        (hit ? CACHE_HITS : CACHE_MISSES)[cache.ordinal()].increment();
+    }
+
+    /**
+     * Counts teleport outcomes as the journal sees them: accepted teleports, and refusals by reason.
+     */
+    public static void teleportEvent(TeleportJournal.Event event, TeleportJournal.Outcome outcome) {
+        if (event == TeleportJournal.Event.TELEPORT) {
+            TELEPORTS.increment();
+        } else if (outcome != TeleportJournal.Outcome.OK && outcome != TeleportJournal.Outcome.MOVED
+                && outcome != TeleportJournal.Outcome.SEARCH_PENDING && outcome != TeleportJournal.Outcome.ALREADY_MOVING) {
+            CANCELLED[outcome.ordinal()].increment();
+        }
+    }
+
+    @Override
+    public long getShipChecks() {
+        return SHIP_CHECKS.sum();
+    }
+
+    @Override
+    public int getShipChecksLastTick() {
+        return shipChecksLastTick;
+    }
+
+    @Override
+    public long getSamplePointsTested() {
+        return SAMPLE_POINTS.sum();
+    }
+
+    @Override
+    public long getBlockStateReads() {
+        return BLOCK_READS.sum();
+    }
+
+    @Override
+    public long getPortalSearchesStarted() {
+        return SEARCHES_STARTED.sum();
+    }
+
+    @Override
+    public long getPortalSearchesSucceeded() {
+        return SEARCHES_SUCCEEDED.sum();
+    }
+
+    @Override
+    public long getPortalSearchesFailed() {
+        return SEARCHES_FAILED.sum();
+    }
+
+    @Override
+    public long getBackgroundSearchesStarted() {
+        return BACKGROUND_SEARCHES.sum();
+    }
+
+    @Override
+    public long getTeleportsCompleted() {
+        return TELEPORTS.sum();
+    }
+
+    @Override
+    public Map<String, Long> getCancelledTeleports() {
+        Map<String, Long> cancelled = new LinkedHashMap<>();
+        for (TeleportJournal.Outcome outcome : TeleportJournal.Outcome.values()) {
+            long count = CANCELLED[outcome.ordinal()].sum();
+            if (count > 0) cancelled.put(outcome.name(), count);
+        }
+        return cancelled;
+    }
+
+    @Override
+    public Map<String, Long> getCacheHits() {
+        return perCache(CACHE_HITS);
+    }
+
+    @Override
+    public Map<String, Long> getCacheMisses() {
+        return perCache(CACHE_MISSES);
+    }
+
+    @Override
+    public Map<String, Double> getCacheHitRates() {
+        Map<String, Double> rates = new LinkedHashMap<>();
+        for (Cache cache : Cache.values()) {
+            long hits = CACHE_HITS[cache.ordinal()].sum();
+            long total = hits + CACHE_MISSES[cache.ordinal()].sum();
+            rates.put(cache.key, total == 0 ? 0.0 : (double) hits / total);
+        }
+        return rates;
+    }
+
+    @Override
+    public Map<String, Long> getInternalSizes() {
+        Map<String, Long> sizes = new LinkedHashMap<>();
+        synchronized (GAUGES) {
+            GAUGES.forEach((name, size) -> sizes.put(name, (long) size.getAsInt()));
+        }
+        return sizes;
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder adder : new LongAdder[]{SHIP_CHECKS, SAMPLE_POINTS, BLOCK_READS, SEARCHES_STARTED,
+                SEARCHES_SUCCEEDED, SEARCHES_FAILED, BACKGROUND_SEARCHES, TELEPORTS}) {
+            adder.reset();
+        }
+        for (LongAdder[] adders : new LongAdder[][]{CANCELLED, CACHE_HITS, CACHE_MISSES}) {
+            for (LongAdder adder : adders) adder.reset();
+        }
+        shipChecksLastTick = 0;
+    }
+
+    private static Map<String, Long> perCache(LongAdder[] adders) {
+        Map<String, Long> counts = new LinkedHashMap<>();
+        for (Cache cache : Cache.values()) {
+            counts.put(cache.key, adders[cache.ordinal()].sum());
+        }
+        return counts;
+    }
+
+    private static LongAdder[] adders(int count) {
+        LongAdder[] adders = new LongAdder[count];
+        for (int i = 0; i < count; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+}
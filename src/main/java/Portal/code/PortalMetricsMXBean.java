@@ -0,0 +1,44 @@
+package Portal.code;
+
+import java.util.Map;
+
+/**
+ * What {@link PortalMetrics} publishes over JMX, as valkerian_nether_portals:type=PortalMetrics.
+ * Counters only ever grow until {@link #reset}, gauges are read when asked for.
+ */
+public interface PortalMetricsMXBean {
+
+    long getShipChecks();
+
+    // Ships checked in the last server tick
+    int getShipChecksLastTick();
+
+    long getSamplePointsTested();
+
+    long getBlockStateReads();
+
+    long getPortalSearchesStarted();
+
+    long getPortalSearchesSucceeded();
+
+    long getPortalSearchesFailed();
+
+    long getBackgroundSearchesStarted();
+
+    long getTeleportsCompleted();
+
+    // Refused teleports by reason
+    Map<String, Long> getCancelledTeleports();
+
+    Map<String, Long> getCacheHits();
+
+    Map<String, Long> getCacheMisses();
+
+    // Hits / (hits + misses), 0 before the first lookup
+    Map<String, Double> getCacheHitRates();
+
+    // Entry counts of internal maps and queues
+    Map<String, Long> getInternalSizes();
+
+    void reset();
+}
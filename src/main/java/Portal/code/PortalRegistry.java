@@ -0,0 +1,451 @@
+package Portal.code;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.saveddata.SavedData;
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
+
+/**
+ * Per-dimension index of known nether portal frames, saved with the world.
+ * Every frame is stored in each chunk column its obsidian ring touches, so "nearest portal
+ * with width >= w and height >= h" only has to look at the chunks around the query point.
+ *
+ * On disk frames are grouped per region (32x32 chunks) as packed 16 byte records. Regions stay
+ * as raw bytes until a query or chunk load touches them, so loading the world doesn't depend on
+ * how many portals it has. Frames read from disk are re-checked against their chunk when it loads.
+ */
+public class PortalRegistry extends SavedData {
+
+    private static final String DATA_NAME = "valkerian_nether_portals_portals";
+    private static final int DATA_VERSION = 1;
+    private static final int FRAME_BYTES = 16;
+
+    // SavedData instances are owned by each level's storage, this just avoids the lookup on hot paths
+    private static final Map<ResourceKey<Level>, PortalRegistry> REGISTRIES = new HashMap<>();
+
+    private final Long2ObjectMap<List<PortalFrame>> framesByChunk = new Long2ObjectOpenHashMap<>();
+    private final Set<PortalFrame> frames = new HashSet<>();
+
+    // Regions loaded from disk that nothing has asked about yet
+    private final Long2ObjectMap<byte[]> encodedRegions = new Long2ObjectOpenHashMap<>();
+    // Frames decoded from disk that haven't been checked against the world yet
+    private final Set<PortalFrame> unverified = new HashSet<>();
+    // Widest frame ever stored, so lookups know how far outside a region a frame can reach
+    private int maxFrameWidth = 1;
+
+    public record PortalFrame(int minX, int minY, int minZ, Direction.Axis axis, int width, int height) {
+
+        public int maxX() {
+            return axis == Direction.Axis.X ? minX + width - 1 : minX;
+        }
+
+        public int maxY() {
+            return minY + height - 1;
+        }
+
+        public int maxZ() {
+            return axis == Direction.Axis.Z ? minZ + width - 1 : minZ;
+        }
+
+        // Always one of the portal blocks, even for even-sized frames
+        public BlockPos center() {
+            return new BlockPos((minX + maxX()) / 2, (minY + maxY()) / 2, (minZ + maxZ()) / 2);
+        }
+
+        public boolean contains(int x, int y, int z) {
+            return x >= minX && x <= maxX() && y >= minY && y <= maxY() && z >= minZ && z <= maxZ();
+        }
+
+        // Like contains, but grown by one block inside the portal plane so the obsidian ring counts too
+        public boolean touches(int x, int y, int z) {
+            int growX = axis == Direction.Axis.X ? 1 : 0;
+            int growZ = axis == Direction.Axis.Z ? 1 : 0;
+            return x >= minX - growX && x <= maxX() + growX &&
+                    y >= minY - 1 && y <= maxY() + 1 &&
+                    z >= minZ - growZ && z <= maxZ() + growZ;
+        }
+
+        public boolean intersects(PortalFrame other) {
+            return minX <= other.maxX() && maxX() >= other.minX &&
+                    minY <= other.maxY() && maxY() >= other.minY &&
+                    minZ <= other.maxZ() && maxZ() >= other.minZ;
+        }
+
+        // Chebyshev distance on the XZ plane from a column to the closest column of this frame,
+        // which is the same ring number the old column scan would have found it at
+        public int horizontalDistance(int x, int z) {
+            int dx = x < minX ? minX - x : (x > maxX() ? x - maxX() : 0);
+            int dz = z < minZ ? minZ - z : (z > maxZ() ? z - maxZ() : 0);
+            return Math.max(dx, dz);
+        }
+
+        // Squared distance from a block to the closest portal block of this frame, which is what vanilla's
+        // distSqr gives for the nearest of its POI records
+        public long distanceSqr(BlockPos pos) {
+            long dx = Math.max(0, Math.max(minX - pos.getX(), pos.getX() - maxX()));
+            long dy = Math.max(0, Math.max(minY - pos.getY(), pos.getY() - maxY()));
+            long dz = Math.max(0, Math.max(minZ - pos.getZ(), pos.getZ() - maxZ()));
+            return dx * dx + dy * dy + dz * dz;
+        }
+    }
+
+    public static PortalRegistry get(ServerLevel level) {
+        return REGISTRIES.computeIfAbsent(level.dimension(),
+                key -> level.getDataStorage().computeIfAbsent(PortalRegistry::load, PortalRegistry::new, DATA_NAME));
+    }
+
+    // Returns null instead of creating a registry, for hot event handlers
+    public static PortalRegistry peek(ServerLevel level) {
+        return REGISTRIES.get(level.dimension());
+    }
+
+    public static void clearAll() {
+        REGISTRIES.clear();
+    }
+
+    public int size() {
+        return frames.size();
+    }
+
+    public static PortalRegistry load(CompoundTag tag) {
+        PortalRegistry registry = new PortalRegistry();
+        if (tag.getInt("Version") != DATA_VERSION) return registry;
+
+        registry.maxFrameWidth = Math.max(1, tag.getInt("MaxWidth"));
+        ListTag regions = tag.getList("Regions", Tag.TAG_COMPOUND);
+        for (int i = 0; i < regions.size(); i++) {
+            CompoundTag region = regions.getCompound(i);
+            registry.encodedRegions.put(region.getLong("Key"), region.getByteArray("Frames"));
+        }
+        return registry;
+    }
+
+    @Override
+    public CompoundTag save(CompoundTag tag) {
+        Long2ObjectMap<List<PortalFrame>> byRegion = new Long2ObjectOpenHashMap<>();
+        for (PortalFrame frame : frames) {
+            byRegion.computeIfAbsent(regionKey(frame), k -> new ArrayList<>()).add(frame);
+        }
+
+        ListTag regions = new ListTag();
+        for (Long2ObjectMap.Entry<List<PortalFrame>> entry : byRegion.long2ObjectEntrySet()) {
+            regions.add(regionTag(entry.getLongKey(), encodeRegion(entry.getValue())));
+        }
+        for (Long2ObjectMap.Entry<byte[]> entry : encodedRegions.long2ObjectEntrySet()) {
+            regions.add(regionTag(entry.getLongKey(), entry.getValue()));
+        }
+
+        tag.putInt("Version", DATA_VERSION);
+        tag.putInt("MaxWidth", maxFrameWidth);
+        tag.put("Regions", regions);
+        return tag;
+    }
+
+    public void register(PortalFrame frame) {
+        decodeRegionsAround(frame.minX(), frame.minZ(), frame.maxX(), frame.maxZ());
+        unverified.remove(frame);
+        if (frames.contains(frame)) return;
+
+        // Two portals can't share blocks, so anything overlapping the new frame is outdated
+        List<PortalFrame> outdated = null;
+        for (PortalFrame existing : framesAround(frame)) {
+            if (existing.intersects(frame)) {
+                if (outdated == null) outdated = new ArrayList<>();
+                outdated.add(existing);
+            }
+        }
+        if (outdated != null) {
+            outdated.forEach(this::remove);
+        }
+
+        addFrame(frame);
+        maxFrameWidth = Math.max(maxFrameWidth, frame.width());
+        setDirty();
+    }
+
+    public void remove(PortalFrame frame) {
+        if (!frames.remove(frame)) return;
+        unverified.remove(frame);
+        setDirty();
+
+        forEachChunk(frame, chunkKey -> {
+            List<PortalFrame> list = framesByChunk.get(chunkKey);
+            if (list != null) {
+                list.remove(frame);
+                if (list.isEmpty()) framesByChunk.remove(chunkKey);
+            }
+        });
+    }
+
+    public PortalFrame findContaining(BlockPos pos) {
+        decodeRegionsAround(pos.getX(), pos.getZ(), pos.getX(), pos.getZ());
+        List<PortalFrame> list = framesByChunk.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+        if (list == null) return null;
+
+        for (PortalFrame frame : list) {
+            if (frame.contains(pos.getX(), pos.getY(), pos.getZ())) return frame;
+        }
+        return null;
+    }
+
+    /**
+     * Drops every frame whose portal blocks or obsidian ring include this position.
+     * Called for block updates, so it has to stay cheap when nothing is registered nearby.
+     * Regions still on disk aren't decoded for this, their frames get checked when used.
+     */
+    public void onBlockChanged(BlockPos pos) {
+        if (frames.isEmpty()) return;
+
+        List<PortalFrame> list = framesByChunk.get(ChunkPos.asLong(pos.getX() >> 4, pos.getZ() >> 4));
+        if (list == null) return;
+
+        List<PortalFrame> broken = null;
+        for (PortalFrame frame : list) {
+            if (frame.touches(pos.getX(), pos.getY(), pos.getZ())) {
+                if (broken == null) broken = new ArrayList<>();
+                broken.add(frame);
+            }
+        }
+        if (broken != null) {
+            broken.forEach(this::remove);
+        }
+    }
+
+    /**
+     * Nearest frame to the center within the same square radius the vanilla-style column scan uses,
+     * with at least the requested width and height. Nearest is vanilla's distSqr to the frame's
+     * closest block, like the POI and scan searches rank theirs. Candidates that fail
+     * {@code isIntact} are forgotten on the spot, so stale entries only ever cost one check.
+     */
+    public PortalFrame findNearest(BlockPos center, int radius, int minWidth, int minHeight, Predicate<PortalFrame> isIntact) {
+        int x = center.getX();
+        int z = center.getZ();
+        decodeRegionsAround(x - radius, z - radius, x + radius, z + radius);
+        if (frames.isEmpty()) return null;
+
+        int centerChunkX = x >> 4;
+        int centerChunkZ = z >> 4;
+        int maxRing = (radius >> 4) + 1;
+
+        PortalFrame best = null;
+        long bestDistanceSqr = Long.MAX_VALUE;
+        List<PortalFrame> stale = null;
+
+        for (int ring = 0; ring <= maxRing; ring++) {
+            // Nothing in this ring can be closer than (ring - 1) * 16 + 1 blocks
+            long ringDistance = (ring - 1) * 16L + 1;
+            if (best != null && ring > 0 && ringDistance * ringDistance > bestDistanceSqr) break;
+
+            for (int dx = -ring; dx <= ring; dx++) {
+                for (int dz = -ring; dz <= ring; dz++) {
+                    if (Math.abs(dx) != ring && Math.abs(dz) != ring) continue;
+
+                    List<PortalFrame> list = framesByChunk.get(ChunkPos.asLong(centerChunkX + dx, centerChunkZ + dz));
+                    if (list == null) continue;
+
+                    for (PortalFrame frame : list) {
+                        if (frame.width() < minWidth || frame.height() < minHeight) continue;
+
+                        if (frame.horizontalDistance(x, z) > radius) continue;
+
+                        // Ties go to the lower frame, like the POI search's tie on Y
+                        long distanceSqr = frame.distanceSqr(center);
+                        if (distanceSqr > bestDistanceSqr || (distanceSqr == bestDistanceSqr && frame.minY() >= best.minY())) continue;
+
+                        if (!isIntact.test(frame)) {
+                            if (stale == null) stale = new ArrayList<>();
+                            stale.add(frame);
+                            continue;
+                        }
+
+                        best = frame;
+                        bestDistanceSqr = distanceSqr;
+                    }
+                }
+            }
+        }
+
+        if (stale != null) {
+            stale.forEach(this::remove);
+        }
+        return best;
+    }
+
+    /**
+     * Every frame whose portal blocks overlap the given block box (inclusive bounds).
+     * Used by the swept detection, so it returns an empty list without allocating when
+     * nothing is registered.
+     */
+    public List<PortalFrame> findInBox(int minX, int minY, int minZ, int maxX, int maxY, int maxZ) {
+        decodeRegionsAround(minX, minZ, maxX, maxZ);
+        if (frames.isEmpty()) return Collections.emptyList();
+
+        List<PortalFrame> result = null;
+        for (int chunkX = minX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = minZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                List<PortalFrame> list = framesByChunk.get(ChunkPos.asLong(chunkX, chunkZ));
+                if (list == null) continue;
+
+                for (PortalFrame frame : list) {
+                    if (frame.maxX() < minX || frame.minX() > maxX
+                            || frame.maxY() < minY || frame.minY() > maxY
+                            || frame.maxZ() < minZ || frame.minZ() > maxZ) continue;
+
+                    if (result == null) result = new ArrayList<>();
+                    // Frames spanning a chunk border sit in both lists
+                    if (!result.contains(frame)) result.add(frame);
+                }
+            }
+        }
+        return result == null ? Collections.emptyList() : result;
+    }
+
+    public boolean needsChunkChecks() {
+        return !encodedRegions.isEmpty() || !unverified.isEmpty();
+    }
+
+    /**
+     * Checks frames read from disk that touch this chunk, once every chunk they span is loaded.
+     * Frames that fail the check are dropped; ones spanning unloaded chunks wait for a later load.
+     */
+    public void verifyChunk(ServerLevel level, int chunkX, int chunkZ, Predicate<PortalFrame> isIntact) {
+        int minX = chunkX << 4;
+        int minZ = chunkZ << 4;
+        decodeRegionsAround(minX, minZ, minX + 15, minZ + 15);
+        if (unverified.isEmpty()) return;
+
+        List<PortalFrame> list = framesByChunk.get(ChunkPos.asLong(chunkX, chunkZ));
+        if (list == null) return;
+
+        List<PortalFrame> broken = null;
+        for (PortalFrame frame : list) {
+            if (!unverified.contains(frame) || !isLoaded(level, frame)) continue;
+
+            if (isIntact.test(frame)) {
+                unverified.remove(frame);
+            } else {
+                if (broken == null) broken = new ArrayList<>();
+                broken.add(frame);
+            }
+        }
+        if (broken != null) {
+            broken.forEach(this::remove);
+        }
+    }
+
+    private static boolean isLoaded(ServerLevel level, PortalFrame frame) {
+        for (int chunkX = (frame.minX() - 1) >> 4; chunkX <= (frame.maxX() + 1) >> 4; chunkX++) {
+            for (int chunkZ = (frame.minZ() - 1) >> 4; chunkZ <= (frame.maxZ() + 1) >> 4; chunkZ++) {
+                if (!level.hasChunk(chunkX, chunkZ)) return false;
+            }
+        }
+        return true;
+    }
+
+    private void addFrame(PortalFrame frame) {
+        frames.add(frame);
+        forEachChunk(frame, chunkKey -> framesByChunk.computeIfAbsent(chunkKey, k -> new ArrayList<>()).add(frame));
+    }
+
+    // Frames are filed under the region of their min corner, so anything reaching into the
+    // given block range has its corner at most maxFrameWidth blocks before it
+    private void decodeRegionsAround(int minX, int minZ, int maxX, int maxZ) {
+        if (encodedRegions.isEmpty()) return;
+
+        int minRegionX = (minX - maxFrameWidth - 1) >> 9;
+        int maxRegionX = (maxX + 1) >> 9;
+        int minRegionZ = (minZ - maxFrameWidth - 1) >> 9;
+        int maxRegionZ = (maxZ + 1) >> 9;
+
+        for (int regionX = minRegionX; regionX <= maxRegionX; regionX++) {
+            for (int regionZ = minRegionZ; regionZ <= maxRegionZ; regionZ++) {
+                byte[] data = encodedRegions.remove(ChunkPos.asLong(regionX, regionZ));
+                if (data != null) {
+                    decodeRegion(data);
+                }
+            }
+        }
+    }
+
+    private void decodeRegion(byte[] data) {
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.remaining() >= FRAME_BYTES) {
+            int minX = buffer.getInt();
+            int minZ = buffer.getInt();
+            int minY = buffer.getShort();
+            int width = buffer.getShort() & 0xFFFF;
+            int height = buffer.getShort() & 0xFFFF;
+            Direction.Axis axis = buffer.get() == 0 ? Direction.Axis.X : Direction.Axis.Z;
+            buffer.get(); // reserved
+
+            PortalFrame frame = new PortalFrame(minX, minY, minZ, axis, width, height);
+            if (frames.contains(frame)) continue;
+
+            addFrame(frame);
+            unverified.add(frame);
+        }
+    }
+
+    private static byte[] encodeRegion(List<PortalFrame> regionFrames) {
+        ByteBuffer buffer = ByteBuffer.allocate(regionFrames.size() * FRAME_BYTES);
+        for (PortalFrame frame : regionFrames) {
+            buffer.putInt(frame.minX());
+            buffer.putInt(frame.minZ());
+            buffer.putShort((short) frame.minY());
+            buffer.putShort((short) frame.width());
+            buffer.putShort((short) frame.height());
+            buffer.put((byte) (frame.axis() == Direction.Axis.X ? 0 : 1));
+            buffer.put((byte) 0);
+        }
+        return buffer.array();
+    }
+
+    private static CompoundTag regionTag(long key, byte[] data) {
+        CompoundTag region = new CompoundTag();
+        region.putLong("Key", key);
+        region.putByteArray("Frames", data);
+        return region;
+    }
+
+    private static long regionKey(PortalFrame frame) {
+        return ChunkPos.asLong(frame.minX() >> 9, frame.minZ() >> 9);
+    }
+
+    private List<PortalFrame> framesAround(PortalFrame frame) {
+        Set<PortalFrame> result = new HashSet<>();
+        forEachChunk(frame, chunkKey -> {
+            List<PortalFrame> list = framesByChunk.get(chunkKey);
+            if (list != null) result.addAll(list);
+        });
+        return new ArrayList<>(result);
+    }
+
+    // Visits every chunk column the frame's obsidian ring touches
+    private static void forEachChunk(PortalFrame frame, LongConsumer action) {
+        int growX = frame.axis() == Direction.Axis.X ? 1 : 0;
+        int growZ = frame.axis() == Direction.Axis.Z ? 1 : 0;
+        int minChunkX = (frame.minX() - growX) >> 4;
+        int maxChunkX = (frame.maxX() + growX) >> 4;
+        int minChunkZ = (frame.minZ() - growZ) >> 4;
+        int maxChunkZ = (frame.maxZ() + growZ) >> 4;
+
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                action.accept(ChunkPos.asLong(chunkX, chunkZ));
+            }
+        }
+    }
+}
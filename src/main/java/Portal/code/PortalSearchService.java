@@ -0,0 +1,311 @@
+package Portal.code;
+
+import Portal.code.PortalRegistry.PortalFrame;
+import com.mojang.datafixers.util.Either;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ChunkHolder;
+import net.minecraft.server.level.ServerChunkCache;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.ChunkStatus;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiPredicate;
+
+/**
+ * Destination portal searches that don't block the server thread.
+ * A search covers the chunks of an exit square the POI index can't answer for. It asks the chunk
+ * system for them at the lowest status, so chunks are read from disk but never generated or made
+ * full, copies the sections that may hold portals once they're there, and scans and measures that
+ * copy on a worker. Results come
+ * back through {@link #tick} on a later tick, where every frame is checked against the live level
+ * before it's registered or handed out. Finished searches (found or not) are kept for a while,
+ * so ships waiting on the same exit don't start it again.
+ */
+public class PortalSearchService {
+
+    // Loaded chunks only need to stay around until they're copied
+    private static final TicketType<ChunkPos> SEARCH_TICKET =
+            TicketType.create("valkerian_portal_search", Comparator.comparingLong(ChunkPos::toLong), 300);
+    // Ticket level 34, one short of full: keeps a chunk in memory without promoting or generating it
+    private static final int SEARCH_TICKET_DISTANCE = -1;
+    // Give up waiting for chunks after this long and search what did load
+    private static final long LOAD_TIMEOUT_TICKS = 200;
+    // How long a finished search answers repeated requests
+    private static final long RESULT_TICKS = 100;
+
+    public static final Lookup PENDING = new Lookup(true, null);
+    public static final Lookup NOT_FOUND = new Lookup(false, null);
+
+    /**
+     * Answer to a search request: still running, or done with the frame found (null for none).
+     */
+    public record Lookup(boolean pending, PortalFrame frame) {}
+
+    // Y is part of the key, distSqr ranks frames by it
+    private record SearchKey(ResourceKey<Level> dimension, int x, int y, int z, int radius, int minWidth, int minHeight) {}
+
+    // Worker output, only read on the server thread
+    private record Outcome(Search search, List<PortalFrame> measured, long blocksRead, long nanos) {}
+
+    private enum State { LOADING, SCANNING, DONE }
+
+    private static final class Search {
+        final SearchKey key;
+        final List<ChunkPos> chunks;
+        final long startTick;
+        State state = State.LOADING;
+        // One per chunk, handed over by the worker that asked for them
+        volatile List<CompletableFuture<Either<ChunkAccess, ChunkHolder.ChunkLoadingFailure>>> loads;
+        int loadCursor = 0;
+        PortalFrame result;
+        long doneTick;
+
+        Search(SearchKey key, List<ChunkPos> chunks, long startTick) {
+            this.key = key;
+            this.chunks = chunks;
+            this.startTick = startTick;
+        }
+    }
+
+    private final BiPredicate<ServerLevel, PortalFrame> isIntact;
+    private final Map<SearchKey, Search> searches = new HashMap<>();
+    private final Queue<Outcome> finished = new ConcurrentLinkedQueue<>();
+    private ExecutorService workers;
+
+    public PortalSearchService(BiPredicate<ServerLevel, PortalFrame> isIntact) {
+        this.isIntact = isIntact;
+    }
+
+    /**
+     * Same square, scan order and nearest-by-distSqr pick as the synchronous column scan, over
+     * the given chunks only. The first request for an area starts the search and answers PENDING;
+     * once it's finished, requests get its result.
+     */
+    public Lookup find(ServerLevel level, BlockPos center, int radius, int minWidth, int minHeight, List<ChunkPos> chunks) {
+        SearchKey key = new SearchKey(level.dimension(), center.getX(), center.getY(), center.getZ(), radius, minWidth, minHeight);
+        Search search = searches.get(key);
+
+        if (search == null) {
+            PortalMetrics.cacheLookup(PortalMetrics.Cache.EXIT_SEARCH, false);
+            PortalMetrics.backgroundSearchStarted();
+            searches.put(key, start(level, key, center, chunks));
+            return PENDING;
+        }
+        if (search.state != State.DONE) return PENDING;
+        PortalMetrics.cacheLookup(PortalMetrics.Cache.EXIT_SEARCH, true);
+
+        // Re-checked on every answer, the frame may have been broken since the search finished
+        if (search.result != null && !isIntact.test(level, search.result)) {
+            PortalRegistry.get(level).remove(search.result);
+            search.result = null;
+        }
+        return search.result == null ? NOT_FOUND : new Lookup(false, search.result);
+    }
+
+    /**
+     * Moves searches along: snapshots areas whose chunks are loaded, takes in worker results
+     * and forgets old answers. Server thread only.
+     */
+    public void tick(MinecraftServer server) {
+        if (searches.isEmpty()) return;
+        long now = server.getTickCount();
+
+        Outcome outcome;
+        while ((outcome = finished.poll()) != null) {
+            ServerLevel level = server.getLevel(outcome.search().key.dimension());
+            if (level != null) complete(level, outcome, now);
+        }
+
+        Iterator<Search> iterator = searches.values().iterator();
+        while (iterator.hasNext()) {
+            Search search = iterator.next();
+            ServerLevel level = server.getLevel(search.key.dimension());
+            if (level == null || (search.state == State.DONE && now - search.doneTick > RESULT_TICKS)) {
+                iterator.remove();
+                continue;
+            }
+            if (search.state == State.LOADING && isLoaded(search, now)) {
+                submit(level, search);
+            }
+        }
+    }
+
+    public int getActiveCount() {
+        int active = 0;
+        for (Search search : searches.values()) {
+            if (search.state != State.DONE) active++;
+        }
+        return active;
+    }
+
+    public void shutdown() {
+        if (workers != null) {
+            workers.shutdownNow();
+            workers = null;
+        }
+        searches.clear();
+        finished.clear();
+    }
+
+    private Search start(ServerLevel level, SearchKey key, BlockPos center, List<ChunkPos> chunks) {
+        ServerChunkCache chunkSource = level.getChunkSource();
+        for (ChunkPos pos : chunks) {
+            chunkSource.addRegionTicket(SEARCH_TICKET, pos, SEARCH_TICKET_DISTANCE, pos);
+        }
+        Search search = new Search(key, List.copyOf(chunks), level.getServer().getTickCount());
+
+        // On the server thread getChunkFuture waits for the load, from a worker it only queues the request
+        try {
+            workers().execute(() -> search.loads = requestChunks(chunkSource, search.chunks));
+        } catch (RejectedExecutionException e) {
+            // Shutting down, the timeout answers with an empty search
+        }
+
+        Logger.debug(() -> "[Portal Skies] Started background portal search around " + center.getX() + ", " + center.getZ() +
+                " in " + level.dimension().location() + " (radius: " + key.radius() + ", " + chunks.size() + " chunks)");
+        return search;
+    }
+
+    // Worker thread: empty status loads what's saved and makes empty chunks for the rest, like vanilla's POI validation
+    private static List<CompletableFuture<Either<ChunkAccess, ChunkHolder.ChunkLoadingFailure>>> requestChunks(ServerChunkCache chunkSource, List<ChunkPos> chunks) {
+        List<CompletableFuture<Either<ChunkAccess, ChunkHolder.ChunkLoadingFailure>>> loads = new ArrayList<>(chunks.size());
+        for (ChunkPos pos : chunks) {
+            loads.add(chunkSource.getChunkFuture(pos.x, pos.z, ChunkStatus.EMPTY, true));
+        }
+        return loads;
+    }
+
+    private boolean isLoaded(Search search, long now) {
+        List<CompletableFuture<Either<ChunkAccess, ChunkHolder.ChunkLoadingFailure>>> loads = search.loads;
+        if (loads == null) return now - search.startTick > LOAD_TIMEOUT_TICKS;
+        while (search.loadCursor < loads.size()) {
+            if (!loads.get(search.loadCursor).isDone()) {
+                return now - search.startTick > LOAD_TIMEOUT_TICKS;
+            }
+            search.loadCursor++;
+        }
+        return true;
+    }
+
+    private void submit(ServerLevel level, Search search) {
+        PortalSearchSnapshot snapshot = new PortalSearchSnapshot(level.getMinSection());
+        ServerChunkCache chunkSource = level.getChunkSource();
+        List<CompletableFuture<Either<ChunkAccess, ChunkHolder.ChunkLoadingFailure>>> loads = search.loads;
+        for (int i = 0; i < search.chunks.size(); i++) {
+            // Loads finish on the server thread, so a done future's chunk is safe to copy here
+            if (loads != null && loads.get(i).isDone()) {
+                Either<ChunkAccess, ChunkHolder.ChunkLoadingFailure> loaded = loads.get(i).getNow(null);
+                if (loaded != null) loaded.left().ifPresent(snapshot::add);
+            }
+            // The copy is all the worker needs, let the chunk unload again
+            ChunkPos pos = search.chunks.get(i);
+            chunkSource.removeRegionTicket(SEARCH_TICKET, pos, SEARCH_TICKET_DISTANCE, pos);
+        }
+
+        if (search.loadCursor < search.chunks.size()) {
+            Logger.debug(() -> "[Portal Skies] Portal search gave up waiting for " + (search.chunks.size() - search.loadCursor) +
+                    " chunks, searching what loaded");
+        }
+
+        search.state = State.SCANNING;
+        SearchKey key = search.key;
+        BlockPos center = new BlockPos(key.x(), key.y(), key.z());
+        try {
+            workers().execute(() -> finished.add(scan(search, snapshot, center)));
+        } catch (RejectedExecutionException e) {
+            // Shutting down, answer with nothing rather than leaving the ship waiting
+            finished.add(new Outcome(search, Collections.emptyList(), 0, 0));
+        }
+    }
+
+    // Worker thread: only touches the snapshot, no logging, no level access
+    private static Outcome scan(Search search, PortalSearchSnapshot snapshot, BlockPos center) {
+        long started = System.nanoTime();
+        SearchKey key = search.key;
+        PortalColumnScanner scanner = new PortalColumnScanner(snapshot, snapshot.getMinSection(), center, key.radius());
+        List<PortalFrame> measured = new ArrayList<>();
+        long bestDistanceSqr = Long.MAX_VALUE;
+
+        BlockPos pos;
+        while ((pos = scanner.next()) != null) {
+            // Past this ring nothing can beat the nearest big enough frame
+            long ring = scanner.getRing();
+            if (ring * ring > bestDistanceSqr) break;
+            if (isInsideAny(measured, pos)) continue;
+
+            PortalFrame frame = snapshot.measureFrame(pos.getX(), pos.getY(), pos.getZ());
+            if (frame == null) continue;
+
+            measured.add(frame);
+            if (frame.width() >= key.minWidth() && frame.height() >= key.minHeight()) {
+                bestDistanceSqr = Math.min(bestDistanceSqr, frame.distanceSqr(center));
+            }
+        }
+        return new Outcome(search, measured, scanner.getBlocksRead(), System.nanoTime() - started);
+    }
+
+    private void complete(ServerLevel level, Outcome outcome, long now) {
+        Search search = outcome.search();
+        SearchKey key = search.key;
+        PortalRegistry registry = PortalRegistry.get(level);
+
+        // The level moved on while the worker ran, only frames that still match count
+        BlockPos center = new BlockPos(key.x(), key.y(), key.z());
+        long bestDistanceSqr = Long.MAX_VALUE;
+        int stale = 0;
+        for (PortalFrame frame : outcome.measured()) {
+            if (!isIntact.test(level, frame)) {
+                stale++;
+                continue;
+            }
+            registry.register(frame);
+            // Measured in scan order, so ties go to the frame the scan reached first
+            if (frame.width() >= key.minWidth() && frame.height() >= key.minHeight() && frame.distanceSqr(center) < bestDistanceSqr) {
+                search.result = frame;
+                bestDistanceSqr = frame.distanceSqr(center);
+            }
+        }
+
+        search.state = State.DONE;
+        search.doneTick = now;
+        PortalMetrics.blockReads(outcome.blocksRead());
+
+        int changed = stale;
+        Logger.debug(() -> "[Portal Skies] Background portal search around " + key.x() + ", " + key.z() + " finished in " +
+                (now - search.startTick) + " ticks (" + outcome.blocksRead() + " blocks read in " + outcome.nanos() / 1000 + " µs, " +
+                outcome.measured().size() + " frames, " + changed + " changed since): " +
+                (search.result == null ? "no usable portal" : "found " + search.result.width() + "x" + search.result.height() +
+                        " at " + search.result.minX() + ", " + search.result.minY() + ", " + search.result.minZ()));
+    }
+
+    private ExecutorService workers() {
+        if (workers == null) {
+            AtomicInteger count = new AtomicInteger();
+            workers = Executors.newFixedThreadPool(Math.max(1, Config.PORTAL_SEARCH_THREADS), runnable -> {
+                Thread thread = new Thread(runnable, "Portal Skies search #" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return workers;
+    }
+
+    private static boolean isInsideAny(List<PortalFrame> frames, BlockPos pos) {
+        for (PortalFrame frame : frames) {
+            if (frame.contains(pos.getX(), pos.getY(), pos.getZ())) return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,103 @@
+package Portal.code;
+
+import Portal.code.PortalRegistry.PortalFrame;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.NetherPortalBlock;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.PalettedContainer;
+
+/**
+ * Copies of the block states of every section that may hold portal blocks in a search area.
+ * Filled on the server thread, then only read, so a worker can scan and measure portals in it
+ * while the level keeps changing. Sections the palette ruled out aren't copied at all.
+ */
+public class PortalSearchSnapshot implements PortalColumnScanner.SectionSource {
+
+    private final Long2ObjectMap<PalettedContainer<BlockState>[]> sections = new Long2ObjectOpenHashMap<>();
+    private final int minSection;
+    private final long[] sectionsSkipped = new long[1];
+    private int sectionsCopied = 0;
+
+    public PortalSearchSnapshot(int minSection) {
+        this.minSection = minSection;
+    }
+
+    // Server thread only, any chunk status with blocks in it will do
+    public void add(ChunkAccess chunk) {
+        PalettedContainer<BlockState>[] live = PortalColumnScanner.filterSections(chunk.getSections(), sectionsSkipped);
+        PalettedContainer<BlockState>[] copies = PortalColumnScanner.NO_SECTIONS;
+
+        if (live != PortalColumnScanner.NO_SECTIONS) {
+            copies = PortalColumnScanner.newSectionArray(live.length);
+            for (int i = 0; i < live.length; i++) {
+                if (live[i] != null) {
+                    copies[i] = live[i].copy();
+                    sectionsCopied++;
+                }
+            }
+        }
+        sections.put(ChunkPos.asLong(chunk.getPos().x, chunk.getPos().z), copies);
+    }
+
+    public int getMinSection() {
+        return minSection;
+    }
+
+    public long getSectionsSkipped() {
+        return sectionsSkipped[0];
+    }
+
+    public int getSectionsCopied() {
+        return sectionsCopied;
+    }
+
+    @Override
+    public PalettedContainer<BlockState>[] candidateSections(int chunkX, int chunkZ) {
+        // Chunks that never loaded are searched as empty
+        PalettedContainer<BlockState>[] chunkSections = sections.get(ChunkPos.asLong(chunkX, chunkZ));
+        return chunkSections == null ? PortalColumnScanner.NO_SECTIONS : chunkSections;
+    }
+
+    /**
+     * Measures the frame around a portal block the same way the live measurement does:
+     * width along the block's row, height along its column.
+     */
+    public PortalFrame measureFrame(int x, int y, int z) {
+        BlockState state = getBlockState(x, y, z);
+        if (state == null || !PortalColumnScanner.isPortal(state)) return null;
+
+        Direction.Axis axis = state.getValue(NetherPortalBlock.AXIS);
+        int stepX = axis == Direction.Axis.X ? 1 : 0;
+        int stepZ = axis == Direction.Axis.Z ? 1 : 0;
+
+        int before = 0;
+        while (isPortalWithAxis(x - stepX * (before + 1), y, z - stepZ * (before + 1), axis)) before++;
+        int after = 0;
+        while (isPortalWithAxis(x + stepX * (after + 1), y, z + stepZ * (after + 1), axis)) after++;
+        int below = 0;
+        while (isPortalWithAxis(x, y - below - 1, z, axis)) below++;
+        int above = 0;
+        while (isPortalWithAxis(x, y + above + 1, z, axis)) above++;
+
+        return new PortalFrame(x - stepX * before, y - below, z - stepZ * before, axis, before + after + 1, below + above + 1);
+    }
+
+    private boolean isPortalWithAxis(int x, int y, int z, Direction.Axis axis) {
+        BlockState state = getBlockState(x, y, z);
+        return state != null && PortalColumnScanner.isPortal(state) && state.getValue(NetherPortalBlock.AXIS) == axis;
+    }
+
+    // Null for anything outside the copied sections, which can't be a portal block
+    private BlockState getBlockState(int x, int y, int z) {
+        PalettedContainer<BlockState>[] chunkSections = sections.get(ChunkPos.asLong(x >> 4, z >> 4));
+        if (chunkSections == null) return null;
+
+        int index = (y >> 4) - minSection;
+        if (index < 0 || index >= chunkSections.length || chunkSections[index] == null) return null;
+        return chunkSections[index].get(x & 15, y & 15, z & 15);
+    }
+}
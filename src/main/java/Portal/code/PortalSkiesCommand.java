@@ -0,0 +1,36 @@
+package Portal.code;
+
+import com.mojang.brigadier.CommandDispatcher;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+
+/**
+ * /portalskies stats prints how long each teleport phase took since the last reset,
+ * /portalskies stats reset starts over. Operators only.
+ */
+public class PortalSkiesCommand {
+
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+        dispatcher.register(Commands.literal("portalskies")
+                .requires(source -> source.hasPermission(2))
+                .then(Commands.literal("stats")
+                        .executes(context -> showStats(context.getSource()))
+                        .then(Commands.literal("reset")
+                                .executes(context -> resetStats(context.getSource())))));
+    }
+
+    private static int showStats(CommandSourceStack source) {
+        source.sendSuccess(() -> Component.literal("[Portal Skies] Teleport phase timings (count, p50, p99, max):"), false);
+        for (String line : PhaseStats.describe()) {
+            source.sendSuccess(() -> Component.literal("  " + line), false);
+        }
+        return 1;
+    }
+
+    private static int resetStats(CommandSourceStack source) {
+        PhaseStats.reset();
+        source.sendSuccess(() -> Component.literal("[Portal Skies] Teleport phase timings reset"), true);
+        return 1;
+    }
+}
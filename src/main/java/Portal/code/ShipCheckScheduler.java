@@ -0,0 +1,117 @@
+package Portal.code;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.PriorityQueue;
+
+/**
+ * Keeps every known ship in a queue ordered by the server tick of its next portal check.
+ * Ships that aren't due cost nothing per tick. Rescheduling a ship leaves its old queue
+ * entry behind, and that entry is skipped when it reaches the front.
+ */
+public class ShipCheckScheduler {
+
+    private final PriorityQueue<ScheduledCheck> queue = new PriorityQueue<>();
+    private final Long2ObjectMap<ScheduledCheck> current = new Long2ObjectOpenHashMap<>();
+    private long nextSequence = 0;
+    private long lastPolledTick = -1;
+
+    private static final class ScheduledCheck implements Comparable<ScheduledCheck> {
+        final long shipId;
+        final long tick;
+        // Keeps ships due on the same tick in the order they were scheduled
+        final long sequence;
+
+        ScheduledCheck(long shipId, long tick, long sequence) {
+            this.shipId = shipId;
+            this.tick = tick;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(ScheduledCheck other) {
+            int byTick = Long.compare(tick, other.tick);
+            return byTick != 0 ? byTick : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    public void schedule(long shipId, long tick) {
+        ScheduledCheck check = new ScheduledCheck(shipId, tick, nextSequence++);
+        current.put(shipId, check);
+        queue.add(check);
+    }
+
+    public boolean isScheduled(long shipId) {
+        return current.containsKey(shipId);
+    }
+
+    public void remove(long shipId) {
+        current.remove(shipId);
+    }
+
+    /**
+     * Takes the next ship due at or before this tick off the queue, or returns -1 when none is.
+     * The ship is no longer scheduled afterwards, callers reschedule it once it's checked.
+     */
+    public long pollDue(long tick) {
+        while (!queue.isEmpty()) {
+            ScheduledCheck head = queue.peek();
+            if (current.get(head.shipId) != head) {
+                queue.poll(); // rescheduled or removed since
+                continue;
+            }
+            if (head.tick > tick) return -1;
+
+            queue.poll();
+            current.remove(head.shipId);
+            lastPolledTick = head.tick;
+            return head.shipId;
+        }
+        return -1;
+    }
+
+    /**
+     * Tick the last ship handed out by pollDue was due, to tell how late its check ran.
+     */
+    public long getLastPolledTick() {
+        return lastPolledTick;
+    }
+
+    public boolean hasDue(long tick) {
+        while (!queue.isEmpty()) {
+            ScheduledCheck head = queue.peek();
+            if (current.get(head.shipId) == head) return head.tick <= tick;
+            queue.poll();
+        }
+        return false;
+    }
+
+    /**
+     * Ships due at or before this tick. Walks the whole queue, so only meant for reporting.
+     */
+    public int countDue(long tick) {
+        int due = 0;
+        for (ScheduledCheck check : queue) {
+            if (check.tick <= tick && current.get(check.shipId) == check) due++;
+        }
+        return due;
+    }
+
+    /**
+     * Tick the given ship is due, or -1 if it isn't scheduled.
+     */
+    public long getScheduledTick(long shipId) {
+        ScheduledCheck check = current.get(shipId);
+        return check == null ? -1 : check.tick;
+    }
+
+    public int size() {
+        return current.size();
+    }
+
+    public void clear() {
+        queue.clear();
+        current.clear();
+    }
+}
@@ -0,0 +1,148 @@
+package Portal.code;
+
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import org.joml.primitives.AABBic;
+import org.valkyrienskies.core.api.ships.Ship;
+import org.valkyrienskies.mod.common.VSGameUtilsKt;
+
+/**
+ * Shipyard positions of every helm on each ship, so remounting players can go straight to one.
+ * A ship's helms are found with one palette-filtered pass over its shipyard the first time they're
+ * asked for, after that block updates keep the entry current.
+ */
+public class ShipHelmIndex {
+
+    private static final Long2ObjectMap<LongSet> HELMS = new Long2ObjectOpenHashMap<>();
+    // Helm position -> ship, so block updates that remove a helm are a single lookup
+    private static final Long2LongMap OWNERS = new Long2LongOpenHashMap();
+
+    /**
+     * Nearest helm of the ship within {@code radius} blocks (per axis) of the position,
+     * or null if there's none. Entries that stopped being helms are dropped on the way.
+     */
+    public static BlockPos findNearest(ServerLevel level, Ship ship, BlockPos near, int radius) {
+        LongSet helms = get(level, ship);
+
+        BlockPos best = null;
+        long bestDistance = Long.MAX_VALUE;
+        LongIterator iterator = helms.iterator();
+        while (iterator.hasNext()) {
+            long packed = iterator.nextLong();
+            int dx = BlockPos.getX(packed) - near.getX();
+            int dy = BlockPos.getY(packed) - near.getY();
+            int dz = BlockPos.getZ(packed) - near.getZ();
+            if (Math.abs(dx) > radius || Math.abs(dy) > radius || Math.abs(dz) > radius) continue;
+
+            BlockPos pos = BlockPos.of(packed);
+            if (!BlockClassification.isHelm(level.getBlockState(pos))) {
+                // Changed without a block update
+                iterator.remove();
+                OWNERS.remove(packed);
+                continue;
+            }
+
+            long distance = (long) dx * dx + (long) dy * dy + (long) dz * dz;
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = pos;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Keeps indexed ships current. Cheap for the common case: blocks that neither are nor were helms.
+     */
+    public static void onBlockChanged(ServerLevel level, BlockPos pos, BlockState state) {
+        long packed = pos.asLong();
+        if (BlockClassification.isHelm(state)) {
+            Ship ship = VSGameUtilsKt.getShipManagingPos(level, pos);
+            // Ships not indexed yet pick the helm up when they are
+            LongSet helms = ship == null ? null : HELMS.get(ship.getId());
+            if (helms != null && helms.add(packed)) {
+                OWNERS.put(packed, ship.getId());
+            }
+        } else if (OWNERS.containsKey(packed)) {
+            LongSet helms = HELMS.get(OWNERS.remove(packed));
+            if (helms != null) helms.remove(packed);
+        }
+    }
+
+    public static void remove(long shipId) {
+        LongSet helms = HELMS.remove(shipId);
+        if (helms == null) return;
+        LongIterator iterator = helms.iterator();
+        while (iterator.hasNext()) {
+            OWNERS.remove(iterator.nextLong());
+        }
+    }
+
+    // Ships whose helms are indexed
+    public static int size() {
+        return HELMS.size();
+    }
+
+    public static void clearAll() {
+        HELMS.clear();
+        OWNERS.clear();
+    }
+
+    private static LongSet get(ServerLevel level, Ship ship) {
+        LongSet helms = HELMS.get(ship.getId());
+        if (helms == null) {
+            helms = scan(level, ship);
+            HELMS.put(ship.getId(), helms);
+            LongIterator iterator = helms.iterator();
+            while (iterator.hasNext()) {
+                OWNERS.put(iterator.nextLong(), ship.getId());
+            }
+            LongSet indexed = helms;
+            Logger.debug(() -> "[Portal Skies] Indexed " + indexed.size() + " helms on ship " + ship.getId());
+        }
+        return helms;
+    }
+
+    private static LongSet scan(ServerLevel level, Ship ship) {
+        LongSet helms = new LongOpenHashSet();
+        AABBic yard = ship.getShipAABB();
+        if (yard == null) return helms;
+
+        int minSection = level.getMinSection();
+        for (int chunkX = yard.minX() >> 4; chunkX <= yard.maxX() >> 4; chunkX++) {
+            for (int chunkZ = yard.minZ() >> 4; chunkZ <= yard.maxZ() >> 4; chunkZ++) {
+                LevelChunkSection[] sections = level.getChunk(chunkX, chunkZ).getSections();
+                int fromIndex = Math.max(0, (yard.minY() >> 4) - minSection);
+                int toIndex = Math.min(sections.length - 1, (yard.maxY() >> 4) - minSection);
+
+                for (int index = fromIndex; index <= toIndex; index++) {
+                    LevelChunkSection section = sections[index];
+                    if (section == null || section.hasOnlyAir() || !section.maybeHas(BlockClassification::isHelm)) continue;
+
+                    PalettedContainer<BlockState> states = section.getStates();
+                    int baseY = (minSection + index) << 4;
+                    for (int y = 0; y < 16; y++) {
+                        for (int z = 0; z < 16; z++) {
+                            for (int x = 0; x < 16; x++) {
+                                if (BlockClassification.isHelm(states.get(x, y, z))) {
+                                    helms.add(BlockPos.asLong((chunkX << 4) + x, baseY + y, (chunkZ << 4) + z));
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return helms;
+    }
+}
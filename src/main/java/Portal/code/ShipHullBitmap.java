@@ -0,0 +1,220 @@
+package Portal.code;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.PalettedContainer;
+import org.joml.Matrix3d;
+import org.joml.Quaterniondc;
+import org.joml.Vector3dc;
+import org.joml.primitives.AABBic;
+import org.valkyrienskies.core.api.ships.Ship;
+
+import java.util.function.Predicate;
+
+/**
+ * One bit per world block: the blocks a ship's hull would occupy at a target position and rotation.
+ * Built from the ship's real blocks in its shipyard, then ANDed a word at a time against the solid
+ * blocks of the destination, so only actual hull blocks collide rather than the ship's whole
+ * rotated bounding box.
+ */
+public class ShipHullBitmap {
+
+    // Hulls whose rotated bounds hold more voxels than this are left to the bounding box check
+    private static final long MAX_VOXELS = 1L << 24;
+    private static final double AXIS_EPSILON = 1.0e-6;
+    // Corners of a block turned off-axis, pulled in a little so neighbours don't bleed over
+    private static final double CORNER_INSET = 0.45;
+
+    private final int originX, originY, originZ;
+    private final int sizeX, sizeY, sizeZ;
+    private final long[] words;
+    private int hullBlocks = 0;
+    private long sectionsScanned = 0;
+    // Shipyard blocks read to build the hull plus destination blocks read to test it
+    private long blocksRead = 0;
+
+    private ShipHullBitmap(int originX, int originY, int originZ, int sizeX, int sizeY, int sizeZ) {
+        this.originX = originX;
+        this.originY = originY;
+        this.originZ = originZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.words = new long[(int) ((((long) sizeX * sizeY * sizeZ) + 63) >> 6)];
+    }
+
+    /**
+     * Bitmap of the ship's blocks moved so its shipyard pivot sits at targetPos with the given
+     * rotation. Returns null when the ship has no bounds or is too big to map.
+     */
+    public static ShipHullBitmap build(ServerLevel shipLevel, Ship ship, Quaterniondc targetRotation, Vector3dc targetPos) {
+        AABBic yard = ship.getShipAABB();
+        if (yard == null) return null;
+
+        Vector3dc pivot = ship.getTransform().getPositionInShip();
+        Matrix3d rotation = new Matrix3d().set(targetRotation);
+
+        // World bounds of the rotated shipyard box, one block of slack for rounding
+        double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE, minZ = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE, maxZ = -Double.MAX_VALUE;
+        for (int corner = 0; corner < 8; corner++) {
+            double dx = ((corner & 1) == 0 ? yard.minX() : yard.maxX() + 1) - pivot.x();
+            double dy = ((corner & 2) == 0 ? yard.minY() : yard.maxY() + 1) - pivot.y();
+            double dz = ((corner & 4) == 0 ? yard.minZ() : yard.maxZ() + 1) - pivot.z();
+            double x = rotation.m00() * dx + rotation.m10() * dy + rotation.m20() * dz + targetPos.x();
+            double y = rotation.m01() * dx + rotation.m11() * dy + rotation.m21() * dz + targetPos.y();
+            double z = rotation.m02() * dx + rotation.m12() * dy + rotation.m22() * dz + targetPos.z();
+            minX = Math.min(minX, x); maxX = Math.max(maxX, x);
+            minY = Math.min(minY, y); maxY = Math.max(maxY, y);
+            minZ = Math.min(minZ, z); maxZ = Math.max(maxZ, z);
+        }
+
+        int originX = (int) Math.floor(minX) - 1, originY = (int) Math.floor(minY) - 1, originZ = (int) Math.floor(minZ) - 1;
+        int sizeX = (int) Math.floor(maxX) + 2 - originX;
+        int sizeY = (int) Math.floor(maxY) + 2 - originY;
+        int sizeZ = (int) Math.floor(maxZ) + 2 - originZ;
+        if ((long) sizeX * sizeY * sizeZ > MAX_VOXELS) return null;
+
+        ShipHullBitmap hull = new ShipHullBitmap(originX, originY, originZ, sizeX, sizeY, sizeZ);
+        hull.fill(shipLevel, yard, pivot, rotation, targetPos);
+        return hull;
+    }
+
+    /**
+     * A destination block that is solid where the hull would be, or null when the hull fits.
+     * Only blocks under set hull bits are read, rows of the bitmap without any are skipped a word at a time.
+     */
+    public BlockPos findCollision(BlockBoxScanner.ChunkLookup chunks, int minSection, Predicate<BlockState> isSolid) {
+        int maxX = originX + sizeX - 1, maxY = originY + sizeY - 1, maxZ = originZ + sizeZ - 1;
+
+        for (int chunkX = originX >> 4; chunkX <= maxX >> 4; chunkX++) {
+            for (int chunkZ = originZ >> 4; chunkZ <= maxZ >> 4; chunkZ++) {
+                LevelChunkSection[] sections = chunks.get(chunkX, chunkZ).getSections();
+                int fromIndex = Math.max(0, (originY >> 4) - minSection);
+                int toIndex = Math.min(sections.length - 1, (maxY >> 4) - minSection);
+
+                for (int index = fromIndex; index <= toIndex; index++) {
+                    LevelChunkSection section = sections[index];
+                    if (section == null || section.hasOnlyAir() || !section.maybeHas(isSolid)) continue;
+                    sectionsScanned++;
+
+                    PalettedContainer<BlockState> states = section.getStates();
+                    int baseY = (minSection + index) << 4;
+                    int fromY = Math.max(originY, baseY), toY = Math.min(maxY, baseY + 15);
+                    int fromZ = Math.max(originZ, chunkZ << 4), toZ = Math.min(maxZ, (chunkZ << 4) + 15);
+                    int fromX = Math.max(originX, chunkX << 4), toX = Math.min(maxX, (chunkX << 4) + 15);
+                    for (int y = fromY; y <= toY; y++) {
+                        for (int z = fromZ; z <= toZ; z++) {
+                            // X runs along the bits, so this row's stretch of the section is one bit range
+                            long rowStart = ((long) (y - originY) * sizeZ + (z - originZ)) * sizeX;
+                            long first = rowStart + fromX - originX, last = rowStart + toX - originX;
+                            for (int word = (int) (first >> 6); word <= (int) (last >> 6); word++) {
+                                long bits = words[word];
+                                if (bits == 0) continue;
+                                if (word == (int) (first >> 6)) bits &= -1L << first;
+                                if (word == (int) (last >> 6)) bits &= -1L >>> (63 - (last & 63));
+
+                                while (bits != 0) {
+                                    int x = (int) (((long) word << 6) + Long.numberOfTrailingZeros(bits) - rowStart) + originX;
+                                    bits &= bits - 1;
+                                    blocksRead++;
+                                    if (isSolid.test(states.get(x & 15, y & 15, z & 15))) {
+                                        return new BlockPos(x, y, z);
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    public int getHullBlocks() {
+        return hullBlocks;
+    }
+
+    public long getSectionsScanned() {
+        return sectionsScanned;
+    }
+
+    public long getBlocksRead() {
+        return blocksRead;
+    }
+
+    public long getVolume() {
+        return (long) sizeX * sizeY * sizeZ;
+    }
+
+    private void fill(ServerLevel shipLevel, AABBic yard, Vector3dc pivot, Matrix3d rotation, Vector3dc targetPos) {
+        // Under quarter turns blocks stay parallel to the grid, the voxel holding a block's center is the one it covers most
+        boolean axisAligned = isAxisAligned(rotation);
+        int minSection = shipLevel.getMinSection();
+
+        for (int chunkX = yard.minX() >> 4; chunkX <= yard.maxX() >> 4; chunkX++) {
+            for (int chunkZ = yard.minZ() >> 4; chunkZ <= yard.maxZ() >> 4; chunkZ++) {
+                LevelChunkSection[] sections = shipLevel.getChunk(chunkX, chunkZ).getSections();
+                int fromIndex = Math.max(0, (yard.minY() >> 4) - minSection);
+                int toIndex = Math.min(sections.length - 1, (yard.maxY() >> 4) - minSection);
+
+                for (int index = fromIndex; index <= toIndex; index++) {
+                    LevelChunkSection section = sections[index];
+                    if (section == null || section.hasOnlyAir()) continue;
+
+                    PalettedContainer<BlockState> states = section.getStates();
+                    int baseY = (minSection + index) << 4;
+                    int fromY = Math.max(yard.minY(), baseY), toY = Math.min(yard.maxY(), baseY + 15);
+                    int fromZ = Math.max(yard.minZ(), chunkZ << 4), toZ = Math.min(yard.maxZ(), (chunkZ << 4) + 15);
+                    int fromX = Math.max(yard.minX(), chunkX << 4), toX = Math.min(yard.maxX(), (chunkX << 4) + 15);
+                    for (int y = fromY; y <= toY; y++) {
+                        for (int z = fromZ; z <= toZ; z++) {
+                            for (int x = fromX; x <= toX; x++) {
+                                blocksRead++;
+                                if (states.get(x & 15, y & 15, z & 15).isAir()) continue;
+                                hullBlocks++;
+
+                                double dx = x + 0.5 - pivot.x(), dy = y + 0.5 - pivot.y(), dz = z + 0.5 - pivot.z();
+                                if (axisAligned) {
+                                    mark(rotation, targetPos, dx, dy, dz);
+                                } else {
+                                    for (int corner = 0; corner < 8; corner++) {
+                                        mark(rotation, targetPos,
+                                                dx + ((corner & 1) == 0 ? -CORNER_INSET : CORNER_INSET),
+                                                dy + ((corner & 2) == 0 ? -CORNER_INSET : CORNER_INSET),
+                                                dz + ((corner & 4) == 0 ? -CORNER_INSET : CORNER_INSET));
+                                    }
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void mark(Matrix3d rotation, Vector3dc targetPos, double dx, double dy, double dz) {
+        int x = (int) Math.floor(rotation.m00() * dx + rotation.m10() * dy + rotation.m20() * dz + targetPos.x());
+        int y = (int) Math.floor(rotation.m01() * dx + rotation.m11() * dy + rotation.m21() * dz + targetPos.y());
+        int z = (int) Math.floor(rotation.m02() * dx + rotation.m12() * dy + rotation.m22() * dz + targetPos.z());
+        set(words, x, y, z);
+    }
+
+    private void set(long[] bits, int x, int y, int z) {
+        int localX = x - originX, localY = y - originY, localZ = z - originZ;
+        if (localX < 0 || localY < 0 || localZ < 0 || localX >= sizeX || localY >= sizeY || localZ >= sizeZ) return;
+        long bit = ((long) localY * sizeZ + localZ) * sizeX + localX;
+        bits[(int) (bit >> 6)] |= 1L << bit;
+    }
+
+    private static boolean isAxisAligned(Matrix3d m) {
+        double[] entries = {m.m00(), m.m01(), m.m02(), m.m10(), m.m11(), m.m12(), m.m20(), m.m21(), m.m22()};
+        for (double entry : entries) {
+            double magnitude = Math.abs(entry);
+            if (magnitude > AXIS_EPSILON && Math.abs(magnitude - 1.0) > AXIS_EPSILON) return false;
+        }
+        return true;
+    }
+}
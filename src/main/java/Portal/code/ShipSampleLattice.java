@@ -0,0 +1,137 @@
+package Portal.code;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import org.joml.primitives.AABBic;
+
+/**
+ * Ship-local portal sampling points, cached per ship as packed x, y, z doubles.
+ * A lattice is only rebuilt when the ship's shipyard bounds or the sampling config change,
+ * so the per-check path doesn't allocate anything.
+ */
+public class ShipSampleLattice {
+
+    // Lattices not used for this long belong to ships that unloaded or got deleted
+    private static final long UNUSED_TICKS = 6000;
+
+    private final Long2ObjectMap<Entry> lattices = new Long2ObjectOpenHashMap<>();
+    private long nextPruneTick = 0;
+
+    private static class Entry {
+        int minX, minY, minZ, maxX, maxY, maxZ;
+        int samples, skipInterval;
+        boolean frontBack;
+        double[] points;
+        long lastUsedTick;
+
+        boolean matches(AABBic aabb) {
+            return minX == aabb.minX() && minY == aabb.minY() && minZ == aabb.minZ()
+                    && maxX == aabb.maxX() && maxY == aabb.maxY() && maxZ == aabb.maxZ()
+                    && samples == Config.PORTAL_SAMPLES_PER_FACE
+                    && skipInterval == Config.PORTAL_FACE_SKIP_INTERVAL
+                    && frontBack == Config.PORTAL_ALWAYS_CHECK_FRONT_BACK;
+        }
+    }
+
+    /**
+     * Packed points (x0, y0, z0, x1, ...) for this ship's current bounds. The array is shared,
+     * callers must not modify it.
+     */
+    public double[] get(long shipId, AABBic shipAABB, long tick) {
+        Entry entry = lattices.get(shipId);
+        if (entry == null) {
+            entry = new Entry();
+            lattices.put(shipId, entry);
+        }
+        boolean reusable = entry.points != null && entry.matches(shipAABB);
+        PortalMetrics.cacheLookup(PortalMetrics.Cache.SAMPLE_LATTICE, reusable);
+        if (!reusable) {
+            rebuild(entry, shipAABB);
+            Entry built = entry;
+            Logger.debug(() -> "[Portal Skies] DEBUG: Generated " + built.points.length / 3 + " sampling points for ship " + shipId +
+                    " (samples: " + built.samples + ", skip: " + built.skipInterval + ")");
+        }
+        entry.lastUsedTick = tick;
+        return entry.points;
+    }
+
+    public void remove(long shipId) {
+        lattices.remove(shipId);
+    }
+
+    public int size() {
+        return lattices.size();
+    }
+
+    public void clear() {
+        lattices.clear();
+    }
+
+    public void prune(long tick) {
+        if (tick < nextPruneTick) return;
+        nextPruneTick = tick + UNUSED_TICKS;
+        lattices.values().removeIf(entry -> tick - entry.lastUsedTick > UNUSED_TICKS);
+    }
+
+    private static void rebuild(Entry entry, AABBic aabb) {
+        entry.minX = aabb.minX();
+        entry.minY = aabb.minY();
+        entry.minZ = aabb.minZ();
+        entry.maxX = aabb.maxX();
+        entry.maxY = aabb.maxY();
+        entry.maxZ = aabb.maxZ();
+        entry.samples = Config.PORTAL_SAMPLES_PER_FACE;
+        entry.skipInterval = Config.PORTAL_FACE_SKIP_INTERVAL;
+        entry.frontBack = Config.PORTAL_ALWAYS_CHECK_FRONT_BACK;
+
+        int minX = entry.minX, minY = entry.minY, minZ = entry.minZ;
+        int maxX = entry.maxX, maxY = entry.maxY, maxZ = entry.maxZ;
+        int samples = Math.max(0, entry.samples);
+        int skipInterval = entry.skipInterval;
+
+        // Faces as {minX, maxX, minY, maxY, minZ, maxZ}: front, back, right, left, top, bottom
+        int[][] faces = {
+                {minX, maxX, minY, maxY, maxZ, maxZ},  // Z max
+                {minX, maxX, minY, maxY, minZ, minZ},  // Z min
+                {maxX, maxX, minY, maxY, minZ, maxZ},  // X max
+                {minX, minX, minY, maxY, minZ, maxZ},  // X min
+                {minX, maxX, maxY, maxY, minZ, maxZ},  // Y max
+                {minX, maxX, minY, minY, minZ, maxZ}   // Y min
+        };
+
+        boolean[] useFace = new boolean[faces.length];
+        useFace[0] = useFace[1] = entry.frontBack;
+        int faceCount = entry.frontBack ? 2 : 0;
+        for (int i = 2; i < faces.length; i++) {
+            if (skipInterval == 0 || i % (skipInterval + 1) == 0) {
+                useFace[i] = true;
+                faceCount++;
+            }
+        }
+
+        double[] points = new double[(faceCount * samples * samples + 3) * 3];
+        int index = 0;
+        for (int i = 0; i < faces.length; i++) {
+            if (!useFace[i]) continue;
+            int[] face = faces[i];
+            for (int row = 0; row < samples; row++) {
+                for (int col = 0; col < samples; col++) {
+                    points[index++] = face[0] + (face[1] - face[0]) * (col + 0.5) / samples;
+                    points[index++] = face[2] + (face[3] - face[2]) * (row + 0.5) / samples;
+                    points[index++] = face[4] + (face[5] - face[4]) * 0.5; // Use face Z coordinate
+                }
+            }
+        }
+
+        double centerX = (minX + maxX) / 2.0;
+        double centerY = (minY + maxY) / 2.0;
+        double centerZ = (minZ + maxZ) / 2.0;
+
+        // Always add center points: front center, back center, ship center
+        points[index++] = centerX; points[index++] = centerY; points[index++] = maxZ;
+        points[index++] = centerX; points[index++] = centerY; points[index++] = minZ;
+        points[index++] = centerX; points[index++] = centerY; points[index] = centerZ;
+
+        entry.points = points;
+    }
+}
@@ -0,0 +1,186 @@
+package Portal.code;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import org.joml.primitives.AABBdc;
+import org.valkyrienskies.core.api.ships.Ship;
+import org.valkyrienskies.core.apigame.world.ServerShipWorldCore;
+import org.valkyrienskies.mod.common.VSGameUtilsKt;
+
+import java.util.*;
+
+/**
+ * Uniform XZ grid of ship world bounds, one per dimension, shared by every "which ships are near
+ * this box" query. The grids are brought up to date at most once per tick, the first time
+ * something asks, and only ships that crossed into other cells are moved.
+ */
+public class ShipSpatialIndex {
+
+    // 64 block cells
+    private static final int CELL_SHIFT = 6;
+    // Ships spanning more cells than this per side go in a list every query checks instead
+    private static final int MAX_CELL_SPAN = 32;
+
+    private static final Map<String, ShipSpatialIndex> INDICES = new HashMap<>();
+    private static final Long2ObjectMap<Entry> ENTRIES = new Long2ObjectOpenHashMap<>();
+    private static long refreshedTick = Long.MIN_VALUE;
+    private static boolean dirty = true;
+    private static int refreshStamp = 0;
+    private static int queryStamp = 0;
+
+    private final Long2ObjectMap<List<Entry>> cells = new Long2ObjectOpenHashMap<>();
+    private final List<Entry> oversized = new ArrayList<>();
+
+    private static final class Entry {
+        Ship ship;
+        ShipSpatialIndex index;
+        int minCellX, minCellZ, maxCellX, maxCellZ;
+        boolean isOversized;
+        int seenStamp;
+        int resultStamp;
+    }
+
+    /**
+     * Ships in this level whose world bounds intersect the box.
+     */
+    public static List<Ship> query(ServerLevel level, AABBdc box) {
+        return query(level, box.minX(), box.minY(), box.minZ(), box.maxX(), box.maxY(), box.maxZ());
+    }
+
+    public static List<Ship> query(ServerLevel level, double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        refresh(level);
+        ShipSpatialIndex index = INDICES.get(VSGameUtilsKt.getDimensionId(level));
+        if (index == null) return Collections.emptyList();
+
+        int stamp = ++queryStamp;
+        List<Ship> result = new ArrayList<>();
+
+        int minCellX = cell(minX), maxCellX = cell(maxX);
+        int minCellZ = cell(minZ), maxCellZ = cell(maxZ);
+        for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+            for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                List<Entry> list = index.cells.get(ChunkPos.asLong(cellX, cellZ));
+                if (list == null) continue;
+                for (Entry entry : list) {
+                    collect(entry, stamp, minX, minY, minZ, maxX, maxY, maxZ, result);
+                }
+            }
+        }
+        for (Entry entry : index.oversized) {
+            collect(entry, stamp, minX, minY, minZ, maxX, maxY, maxZ, result);
+        }
+        return result;
+    }
+
+    /**
+     * Forces the next query to re-read ship positions, for use right after ships were teleported.
+     */
+    public static void markDirty() {
+        dirty = true;
+    }
+
+    public static void clearAll() {
+        INDICES.clear();
+        ENTRIES.clear();
+        refreshedTick = Long.MIN_VALUE;
+        dirty = true;
+    }
+
+    private static void collect(Entry entry, int stamp, double minX, double minY, double minZ,
+                                double maxX, double maxY, double maxZ, List<Ship> result) {
+        // Ships spanning several cells are listed in each of them
+        if (entry.resultStamp == stamp) return;
+        entry.resultStamp = stamp;
+
+        AABBdc box = entry.ship.getWorldAABB();
+        if (box == null) return;
+        if (box.maxX() < minX || box.minX() > maxX || box.maxY() < minY || box.minY() > maxY
+                || box.maxZ() < minZ || box.minZ() > maxZ) return;
+
+        result.add(entry.ship);
+    }
+
+    private static void refresh(ServerLevel level) {
+        long tick = level.getServer().getTickCount();
+        if (!dirty && tick == refreshedTick) return;
+
+        ServerShipWorldCore shipWorld = VSGameUtilsKt.getShipObjectWorld(level);
+        if (shipWorld == null) return;
+
+        refreshedTick = tick;
+        dirty = false;
+        int stamp = ++refreshStamp;
+
+        // One pass covers every dimension, VS hands out all ships together
+        for (Ship ship : shipWorld.getAllShips()) {
+            AABBdc box = ship.getWorldAABB();
+            if (box == null) continue;
+
+            ShipSpatialIndex index = INDICES.computeIfAbsent(ship.getChunkClaimDimension(), k -> new ShipSpatialIndex());
+            Entry entry = ENTRIES.get(ship.getId());
+            if (entry == null) {
+                entry = new Entry();
+                ENTRIES.put(ship.getId(), entry);
+            }
+            entry.ship = ship;
+            entry.seenStamp = stamp;
+
+            int minCellX = cell(box.minX()), maxCellX = cell(box.maxX());
+            int minCellZ = cell(box.minZ()), maxCellZ = cell(box.maxZ());
+            if (entry.index == index && entry.minCellX == minCellX && entry.maxCellX == maxCellX
+                    && entry.minCellZ == minCellZ && entry.maxCellZ == maxCellZ) continue;
+
+            if (entry.index != null) entry.index.unlink(entry);
+            entry.index = index;
+            entry.minCellX = minCellX;
+            entry.maxCellX = maxCellX;
+            entry.minCellZ = minCellZ;
+            entry.maxCellZ = maxCellZ;
+            index.link(entry);
+        }
+
+        // Ships that were deleted, or lost their bounds
+        Iterator<Entry> iterator = ENTRIES.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (entry.seenStamp == stamp) continue;
+            if (entry.index != null) entry.index.unlink(entry);
+            iterator.remove();
+        }
+    }
+
+    private void link(Entry entry) {
+        entry.isOversized = entry.maxCellX - entry.minCellX >= MAX_CELL_SPAN || entry.maxCellZ - entry.minCellZ >= MAX_CELL_SPAN;
+        if (entry.isOversized) {
+            oversized.add(entry);
+            return;
+        }
+        for (int cellX = entry.minCellX; cellX <= entry.maxCellX; cellX++) {
+            for (int cellZ = entry.minCellZ; cellZ <= entry.maxCellZ; cellZ++) {
+                cells.computeIfAbsent(ChunkPos.asLong(cellX, cellZ), k -> new ArrayList<>()).add(entry);
+            }
+        }
+    }
+
+    private void unlink(Entry entry) {
+        if (entry.isOversized) {
+            oversized.remove(entry);
+            return;
+        }
+        for (int cellX = entry.minCellX; cellX <= entry.maxCellX; cellX++) {
+            for (int cellZ = entry.minCellZ; cellZ <= entry.maxCellZ; cellZ++) {
+                long key = ChunkPos.asLong(cellX, cellZ);
+                List<Entry> list = cells.get(key);
+                if (list == null) continue;
+                list.remove(entry);
+                if (list.isEmpty()) cells.remove(key);
+            }
+        }
+    }
+
+    private static int cell(double coordinate) {
+        return (int) Math.floor(coordinate) >> CELL_SHIFT;
+    }
+}
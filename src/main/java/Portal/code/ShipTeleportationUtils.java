@@ -1,7 +1,10 @@
 package Portal.code;
 
 import io.netty.util.internal.EmptyPriorityQueue;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
@@ -9,14 +12,19 @@ import net.minecraft.world.InteractionHand;
 import net.minecraft.world.InteractionResult;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.monster.Zombie;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.phys.AABB;
 import net.minecraft.world.phys.BlockHitResult;
 import net.minecraft.world.phys.Vec3;
 import org.jline.utils.Log;
 import org.joml.Quaterniond;
 import org.joml.Vector3d;
+import org.joml.Vector3dc;
+import org.joml.Vector3i;
 import org.joml.primitives.AABBd;
 import org.joml.primitives.AABBdc;
 import org.valkyrienskies.core.api.ships.LoadedServerShip;
@@ -36,6 +44,8 @@ public class ShipTeleportationUtils {
     public record BlockSnapshot(BlockPos pos, BlockState state) {}
     private record TeleportData(Vector3d newPos, Quaterniond rotation, Vector3d velocity, Vector3d omega) {}
     private record MountingData(Entity vehicle, Vec3 relativeMountPos, float yawOffset) {}
+    // Where a player stood in shipyard coordinates, so later syncs follow the ship as it keeps moving
+    private record ShipAnchor(long shipId, Vector3dc shipyardPos) {}
 
     private static final double ENTITY_COLLECT_RANGE = .5;
     private static final double SHIP_COLLECT_RANGE = .5;
@@ -44,9 +54,49 @@ public class ShipTeleportationUtils {
     private final Map<Entity, Vec3> entityToPos = new ConcurrentHashMap<>();
     private final Map<Entity, Entity> oldToNewEntity = new ConcurrentHashMap<>();
     private final Map<Entity, MountingData> entityMountingData = new ConcurrentHashMap<>();
+    private final Map<Entity, ShipAnchor> playerAnchors = new HashMap<>();
     private ServerLevel oldLevel;
     private ServerLevel newLevel;
 
+    // Target chunks read by this handler's collision checks, shared by all ships of a batch
+    private final Long2ObjectMap<LevelChunk> targetChunks = new Long2ObjectOpenHashMap<>();
+    private final BlockBoxScanner blockScanner = new BlockBoxScanner(BlockClassification::isSolid);
+
+    // Teleport requests of the current tick, by source and target dimension
+    private record BatchKey(ResourceKey<Level> source, ResourceKey<Level> target) {}
+    private record TeleportRequest(ServerShip ship, Vector3d targetPos, float rotationAngle, TeleportJournal.Record journal) {}
+
+    private static final class TeleportBatch {
+        final ServerLevel source;
+        final ServerLevel target;
+        final List<TeleportRequest> requests = new ArrayList<>();
+
+        TeleportBatch(ServerLevel source, ServerLevel target) {
+            this.source = source;
+            this.target = target;
+        }
+    }
+
+    private static final Map<BatchKey, TeleportBatch> PENDING_BATCHES = new LinkedHashMap<>();
+
+    // Teleports in flight, advanced once per server tick by tickTeleports
+    private static final List<ShipTeleportationUtils> ACTIVE_TELEPORTS = new ArrayList<>();
+    // Ticks standing in for the old 300 ms sleeps between player syncs
+    private static final int PLAYER_SYNC_TICKS = 6;
+    private static final int PLAYER_SYNC_PASSES = 3;
+
+    // Ejecting, moving the ships and moving the entities share one tick, passengers never wait behind in the old dimension
+    private enum Stage { TRANSFER, PLAYER_SYNC, REMOUNT, HELM_INTERACT, DONE }
+    private record HelmInteraction(ServerPlayer player, BlockPos helmPos) {}
+
+    private Stage stage = Stage.TRANSFER;
+    private long resumeTick = 0;
+    private int playerSyncPasses = 0;
+    // Server thread time spent in the stages so far
+    private long transferNanos = 0;
+    private final Map<ServerPlayer, Vec3> playersToSync = new HashMap<>();
+    private final List<HelmInteraction> helmInteractions = new ArrayList<>();
+
     public void reset(final ServerLevel oldLevel, final ServerLevel newLevel) {
         this.oldLevel = oldLevel;
         this.newLevel = newLevel;
@@ -54,18 +104,79 @@ public class ShipTeleportationUtils {
         this.entityToPos.clear();
         this.oldToNewEntity.clear();
         this.entityMountingData.clear();
+        this.playerAnchors.clear();
+        this.stage = Stage.TRANSFER;
+        this.resumeTick = 0;
+        this.playerSyncPasses = 0;
+        this.transferNanos = 0;
+        this.playersToSync.clear();
+        this.helmInteractions.clear();
+        this.targetChunks.clear();
+    }
+
+    /**
+     * Queues a ship for teleport. Everything queued in a tick goes out together per source and
+     * target dimension when the tick ends, see {@link #flushTeleportBatches}.
+     */
+    public static void teleportShipWithFallback(Ship ship, ServerLevel currentWorld, ServerLevel targetWorld, Vector3d exactTargetPos, float rotationAngle,
+                                                TeleportJournal.Record journal) {
+        BatchKey key = new BatchKey(currentWorld.dimension(), targetWorld.dimension());
+        TeleportBatch batch = PENDING_BATCHES.computeIfAbsent(key, k -> new TeleportBatch(currentWorld, targetWorld));
+        batch.requests.add(new TeleportRequest((ServerShip) ship, new Vector3d(exactTargetPos), rotationAngle, journal));
+
+        Logger.debug(() -> "[Portal Skies] Queued ship " + ship.getId() + " for the " + currentWorld.dimension().location() +
+                " -> " + targetWorld.dimension().location() + " teleport batch (" + batch.requests.size() + " queued)");
+    }
+
+    /**
+     * Sends out every batch queued this tick. Each batch shares one handler, so target chunks are
+     * fetched once, ships collected by an earlier request aren't checked again, and all accepted
+     * ships move in the same stage of a single teleport job. Requests whose target box overlaps
+     * one already accepted in the batch are refused like any other collision.
+     */
+    public static void flushTeleportBatches() {
+        if (PENDING_BATCHES.isEmpty()) return;
+
+        List<TeleportBatch> batches = new ArrayList<>(PENDING_BATCHES.values());
+        PENDING_BATCHES.clear();
+
+        for (TeleportBatch batch : batches) {
+            ShipTeleportationUtils handler = new ShipTeleportationUtils();
+            handler.reset(batch.source, batch.target);
+
+            List<AABBd> claimed = new ArrayList<>();
+            int accepted = 0;
+            for (TeleportRequest request : batch.requests) {
+                if (handler.ships.containsKey(request.ship().getId())) {
+                    Logger.debug(() -> "[Portal Skies] Ship " + request.ship().getId() + " already travels with another ship in this batch");
+                    handler.journal(TeleportJournal.Event.SAFETY, TeleportJournal.Outcome.ALREADY_MOVING, request.journal());
+                    continue;
+                }
+                if (handler.addRequest(request, claimed)) {
+                    accepted++;
+                }
+            }
+
+            int acceptedCount = accepted;
+            Logger.info(() -> "[Portal Skies] Teleport batch " + batch.source.dimension().location() + " -> " + batch.target.dimension().location() +
+                    ": " + acceptedCount + " of " + batch.requests.size() + " ships accepted, " + handler.ships.size() + " ships moving");
+            if (accepted > 0) {
+                handler.start();
+            }
+        }
     }
 
-    public static void teleportShipWithFallback(Ship ship, ServerLevel currentWorld, ServerLevel targetWorld, Vector3d exactTargetPos, float rotationAngle) {
-        ShipTeleportationUtils handler = new ShipTeleportationUtils();
-        handler.reset(currentWorld, targetWorld);
+    private boolean addRequest(TeleportRequest request, List<AABBd> claimed) {
+        ServerShip ship = request.ship();
+        Vector3d exactTargetPos = request.targetPos();
+        float rotationAngle = request.rotationAngle();
 
         var currentPos = ship.getTransform().getPositionInWorld();
 
-        Logger.sendMessage("[Portal Skies] Teleporting ship from " +
+        Logger.info(() -> "[Portal Skies] Teleporting ship from " +
                 String.format("%.2f, %.2f, %.2f", currentPos.x(), currentPos.y(), currentPos.z()) +
                 " to exact position " +
-                String.format("%.2f, %.2f, %.2f", exactTargetPos.x, exactTargetPos.y, exactTargetPos.z), true);
+                String.format("%.2f, %.2f, %.2f", exactTargetPos.x, exactTargetPos.y, exactTargetPos.z));
 
         double nudgeY = 0.1;
         Vector3d targetPosition = new Vector3d(exactTargetPos.x, exactTargetPos.y + nudgeY, exactTargetPos.z);
@@ -74,36 +185,97 @@ public class ShipTeleportationUtils {
         Quaterniond additionalRotation = new Quaterniond();
 
         if (rotationAngle != 0.0f) {
-            Logger.sendMessage("[Portal Skies] Applying " + rotationAngle + "° rotation to ship", true);
+            Logger.info(() -> "[Portal Skies] Applying " + rotationAngle + "° rotation to ship");
             additionalRotation = new Quaterniond().rotateY(Math.toRadians(rotationAngle));
             newRotation = newRotation.mul(additionalRotation);
-            Logger.sendMessage("[Portal Skies] DEBUG: New combined rotation: " + newRotation, false);
+            Logger.debug("[Portal Skies] DEBUG: New combined rotation: %s", newRotation);
         }
 
-        if (!handler.isTeleportLocationSafe((ServerShip) ship, targetPosition, newRotation, targetWorld, currentWorld)) {
-            Logger.sendMessage("Teleportation cancelled due to collision risk", true);
-            return;
+        TeleportJournal.Record journal = request.journal();
+        long safetyStart = System.nanoTime();
+        Vector3d safePosition = findSafeTeleportPosition(ship, targetPosition, newRotation, newLevel, oldLevel, claimed);
+        journal.safetyNanos = System.nanoTime() - safetyStart;
+        PhaseStats.record(PhaseStats.Phase.SAFETY_CHECK, journal.safetyNanos);
+        Vector3d journalTarget = safePosition != null ? safePosition : targetPosition;
+        journal.targetX = journalTarget.x;
+        journal.targetY = journalTarget.y;
+        journal.targetZ = journalTarget.z;
+        if (safePosition == null) {
+            journal(TeleportJournal.Event.SAFETY, TeleportJournal.Outcome.BLOCKED, journal);
+            Logger.info("Teleportation cancelled due to collision risk");
+            return false;
+        }
+
+        // Ships parked alongside travel too, their arrivals can't overlap another ship's in this batch either
+        List<AABBd> companionBoxes = companionArrivalBoxes(ship, safePosition, additionalRotation);
+        for (AABBd box : companionBoxes) {
+            if (isClaimed(box, claimed)) {
+                claimed.remove(claimed.size() - 1);
+                journal(TeleportJournal.Event.SAFETY, TeleportJournal.Outcome.BLOCKED, journal);
+                Logger.info("Teleportation cancelled, a ship travelling along would collide with another arrival");
+                return false;
+            }
         }
+        claimed.addAll(companionBoxes);
+        journal(TeleportJournal.Event.SAFETY, safePosition.equals(targetPosition) ?
+                TeleportJournal.Outcome.OK : TeleportJournal.Outcome.MOVED, journal);
 
         Vector3d velocity = new Vector3d(ship.getVelocity());
         Vector3d omega = new Vector3d(ship.getOmega());
 
-        Logger.sendMessage("Starting ship teleport from " + currentWorld.dimension().location() +
-                " to " + targetWorld.dimension().location(), true);
+        Logger.info(() -> "Starting ship teleport from " + oldLevel.dimension().location() +
+                " to " + newLevel.dimension().location());
 
-        handler.addShip((ServerShip) ship, targetPosition, newRotation, velocity, omega, additionalRotation, rotationAngle);
-        handler.finalizeTeleport();
+        long collectStart = System.nanoTime();
+        addShip(ship, safePosition, newRotation, velocity, omega, additionalRotation, rotationAngle);
+        PhaseStats.record(PhaseStats.Phase.ENTITY_COLLECTION, System.nanoTime() - collectStart);
+        journal(TeleportJournal.Event.TELEPORT, TeleportJournal.Outcome.OK, journal);
+        return true;
+    }
 
-        // Create new log file for next teleport attempt
+    private void journal(TeleportJournal.Event event, TeleportJournal.Outcome outcome, TeleportJournal.Record record) {
+        TeleportJournal.append(event, outcome, oldLevel.getServer().getTickCount(), record);
+    }
 
+    /**
+     * Advances every teleport in flight by one stage where it's due. Called once per server tick.
+     */
+    public static void tickTeleports() {
+        if (ACTIVE_TELEPORTS.isEmpty()) return;
+
+        // Copy, a stage can start another teleport
+        for (ShipTeleportationUtils teleport : new ArrayList<>(ACTIVE_TELEPORTS)) {
+            boolean done;
+            try {
+                done = teleport.advance();
+            } catch (Exception e) {
+                // Through the logger, not stderr, this runs on the server tick
+                Logger.warn(() -> "[Portal Skies] Teleport failed in stage " + teleport.stage + ": " + e +
+                        (e.getStackTrace().length > 0 ? " at " + e.getStackTrace()[0] : ""));
+                done = true;
+            }
+            if (done) {
+                ACTIVE_TELEPORTS.remove(teleport);
+            }
+        }
+    }
+
+    public static int getActiveTeleportCount() {
+        return ACTIVE_TELEPORTS.size();
     }
-    private boolean isTeleportLocationSafe(final ServerShip ship, final Vector3d targetPos, final Quaterniond targetRotation, final ServerLevel targetWorld, final ServerLevel currentWorld) {
+
+    public static void clearTeleports() {
+        PENDING_BATCHES.clear();
+        ACTIVE_TELEPORTS.clear();
+    }
+    // Where the ship can safely arrive: a copy of targetPos, the nearest clear spot when that's blocked, or null for nowhere
+    private Vector3d findSafeTeleportPosition(final ServerShip ship, final Vector3d targetPos, final Quaterniond targetRotation, final ServerLevel targetWorld, final ServerLevel currentWorld, final List<AABBd> claimed) {
         try {
             // Get ship's local AABB for dimensions (in ship-local coordinates)
             var shipAABB = ship.getShipAABB();
             if (shipAABB == null) {
-                Logger.sendMessage("Cannot check collision: Ship local AABB is null", true);
-                return false;
+                Logger.info("Cannot check collision: Ship local AABB is null");
+                return null;
             }
 
             // Get ship dimensions from local AABB
@@ -111,8 +283,8 @@ public class ShipTeleportationUtils {
             double shipHeight = shipAABB.maxY() - shipAABB.minY();
             double shipLength = shipAABB.maxZ() - shipAABB.minZ();
 
-            Logger.sendMessage("[Portal Skies] Ship dimensions (local): " +
-                    String.format("%.1fx%.1fx%.1f", shipWidth, shipHeight, shipLength), false);
+            Logger.debug(() -> "[Portal Skies] Ship dimensions (local): " +
+                    String.format("%.1fx%.1fx%.1f", shipWidth, shipHeight, shipLength));
 
             // Calculate half-dimensions (offsets from center to edges)
             double halfWidth = shipWidth / 2.0;
@@ -126,41 +298,52 @@ public class ShipTeleportationUtils {
                     halfWidth, halfHeight, halfLength
             );
 
-            Logger.sendMessage("[Portal Skies] Local AABB centered at origin:", false);
-            Logger.sendMessage("[Portal Skies] - Min: " +
-                    String.format("%.1f, %.1f, %.1f", localAABB.minX, localAABB.minY, localAABB.minZ), false);
-            Logger.sendMessage("[Portal Skies] - Max: " +
-                    String.format("%.1f, %.1f, %.1f", localAABB.maxX, localAABB.maxY, localAABB.maxZ), false);
+            Logger.debug("[Portal Skies] Local AABB centered at origin:");
+            Logger.debug(() -> "[Portal Skies] - Min: " +
+                    String.format("%.1f, %.1f, %.1f", localAABB.minX, localAABB.minY, localAABB.minZ));
+            Logger.debug(() -> "[Portal Skies] - Max: " +
+                    String.format("%.1f, %.1f, %.1f", localAABB.maxX, localAABB.maxY, localAABB.maxZ));
 
             // SIMPLIFIED: Use only the target rotation since we're checking collision at destination
             // The ship's current rotation doesn't matter for collision detection at target location
             AABBd targetWorldAABB = transformCenteredLocalAABBToWorld(localAABB, targetRotation, targetPos);
 
-            Logger.sendMessage("[Portal Skies] Collision check:", false);
-            Logger.sendMessage("[Portal Skies] - Target pos: " +
-                    String.format("%.1f, %.1f, %.1f", targetPos.x, targetPos.y, targetPos.z), false);
-            Logger.sendMessage("[Portal Skies] - Target AABB min: " +
-                    String.format("%.1f, %.1f, %.1f", targetWorldAABB.minX, targetWorldAABB.minY, targetWorldAABB.minZ), false);
-            Logger.sendMessage("[Portal Skies] - Target AABB max: " +
-                    String.format("%.1f, %.1f, %.1f", targetWorldAABB.maxX, targetWorldAABB.maxY, targetWorldAABB.maxZ), false);
-
-            // Check for block collisions in the target world
-            if (checkBlockCollision(targetWorldAABB, targetWorld, currentWorld)) {
-                return false;
+            Logger.debug("[Portal Skies] Collision check:");
+            Logger.debug(() -> "[Portal Skies] - Target pos: " +
+                    String.format("%.1f, %.1f, %.1f", targetPos.x, targetPos.y, targetPos.z));
+            Logger.debug(() -> "[Portal Skies] - Target AABB min: " +
+                    String.format("%.1f, %.1f, %.1f", targetWorldAABB.minX, targetWorldAABB.minY, targetWorldAABB.minZ));
+            Logger.debug(() -> "[Portal Skies] - Target AABB max: " +
+                    String.format("%.1f, %.1f, %.1f", targetWorldAABB.maxX, targetWorldAABB.maxY, targetWorldAABB.maxZ));
+
+            // Check for block collisions in the target world, against the real hull when it can be mapped
+            ShipHullBitmap hull = Config.HULL_ACCURATE_COLLISION ? ShipHullBitmap.build(currentWorld, ship, targetRotation, targetPos) : null;
+            boolean blocked = hull != null ? checkHullCollision(hull, targetWorld) : checkBlockCollision(targetWorldAABB, targetWorld, currentWorld);
+
+            // Check for ship collisions in the target world, and against ships arriving in the same batch
+            if (!blocked && (checkShipCollision(ship.getId(), targetWorldAABB, targetWorld, currentWorld) || isClaimed(targetWorldAABB, claimed))) {
+                blocked = true;
             }
 
-            // Check for ship collisions in the target world
-            if (checkShipCollision(ship.getId(), targetWorldAABB, targetWorld, currentWorld)) {
-                return false;
+            Vector3d safePos = new Vector3d(targetPos);
+            if (blocked) {
+                // Move over to the nearest clear spot rather than failing again on every check
+                Vector3i offset = Config.SAFE_EXIT_SEARCH ? findClearOffset(ship.getId(), targetWorldAABB, targetWorld, claimed) : null;
+                if (offset == null) {
+                    return null;
+                }
+                safePos.add(offset.x, offset.y, offset.z);
+                targetWorldAABB.translate(offset.x, offset.y, offset.z);
+                Logger.info(() -> "Exit blocked, moved the ship by " + offset.x + ", " + offset.y + ", " + offset.z + " to a clear spot");
             }
+            claimed.add(targetWorldAABB);
 
-            Logger.sendMessage("Teleport location is safe - no collisions detected", true);
-            return true;
+            Logger.info("Teleport location is safe - no collisions detected");
+            return safePos;
 
         } catch (Exception e) {
-            Logger.sendMessage("Error checking teleport safety: " + e.getMessage(), true);
-            e.printStackTrace();
-            return false;
+            Logger.warn(() -> "Error checking teleport safety: " + e);
+            return null;
         }
     }
 
@@ -224,11 +407,11 @@ public class ShipTeleportationUtils {
                 worldAABB.maxX, worldAABB.maxY, worldAABB.maxZ
         );
 
-        Logger.sendMessage("[Portal Skies] Scanning ALL blocks in ship AABB:", false);
-        Logger.sendMessage("[Portal Skies] - Min: " +
-                String.format("%.1f, %.1f, %.1f", minecraftAABB.minX, minecraftAABB.minY, minecraftAABB.minZ), false);
-        Logger.sendMessage("[Portal Skies] - Max: " +
-                String.format("%.1f, %.1f, %.1f", minecraftAABB.maxX, minecraftAABB.maxY, minecraftAABB.maxZ), false);
+        Logger.debug("[Portal Skies] Scanning blocks in ship AABB by section:");
+        Logger.debug(() -> "[Portal Skies] - Min: " +
+                String.format("%.1f, %.1f, %.1f", minecraftAABB.minX, minecraftAABB.minY, minecraftAABB.minZ));
+        Logger.debug(() -> "[Portal Skies] - Max: " +
+                String.format("%.1f, %.1f, %.1f", minecraftAABB.maxX, minecraftAABB.maxY, minecraftAABB.maxZ));
 
         int minX = (int) Math.floor(minecraftAABB.minX);
         int maxX = (int) Math.floor(minecraftAABB.maxX);
@@ -237,75 +420,141 @@ public class ShipTeleportationUtils {
         int minZ = (int) Math.floor(minecraftAABB.minZ);
         int maxZ = (int) Math.floor(minecraftAABB.maxZ);
 
-        Logger.sendMessage("[Portal Skies] Checking blocks from " +
-                minX + "," + minY + "," + minZ + " to " + maxX + "," + maxY + "," + maxZ, false);
+        Logger.debug(() -> "[Portal Skies] Checking blocks from " +
+                minX + "," + minY + "," + minZ + " to " + maxX + "," + maxY + "," + maxZ);
 
-        for (int x = minX; x <= maxX; x++) {
-            for (int y = minY; y <= maxY; y++) {
-                for (int z = minZ; z <= maxZ; z++) {
-                    BlockPos pos = new BlockPos(x, y, z);
-                    BlockState state = targetWorld.getBlockState(pos);
+        // Chunks and block classifications are shared by every ship in the batch
+        long visitedBefore = blockScanner.getSectionsVisited();
+        long skippedBefore = blockScanner.getSectionsSkipped();
+        long readBefore = blockScanner.getBlocksRead();
+        BlockPos solid = blockScanner.findFirst((chunkX, chunkZ) -> getTargetChunk(targetWorld, chunkX, chunkZ),
+                targetWorld.getMinSection(), minX, minY, minZ, maxX, maxY, maxZ);
 
-                    if (isBlockTrulySolid(state)) {
-                        Logger.sendMessage("FOUND SOLID BLOCK: " + state.getBlock() + " at " + pos, true);
-                        Logger.sendMessage("Cancelling teleport - solid block detected", true);
-                        return true;
-                    }
-                }
-            }
+        PortalMetrics.blockReads(blockScanner.getBlocksRead() - readBefore);
+        Logger.debug(() -> "[Portal Skies] Scanned " + (blockScanner.getSectionsVisited() - visitedBefore) + " sections (" +
+                (blockScanner.getSectionsSkipped() - skippedBefore) + " skipped by palette, " +
+                (blockScanner.getBlocksRead() - readBefore) + " blocks read)");
+
+        if (solid != null) {
+            Logger.info(() -> "FOUND SOLID BLOCK: " + targetWorld.getBlockState(solid).getBlock() + " at " + solid);
+            Logger.info("Cancelling teleport - solid block detected");
+            return true;
         }
 
-        Logger.sendMessage("No solid blocks found", false);
+        Logger.debug("No solid blocks found");
         return false;
     }
 
-    private boolean isBlockTrulySolid(BlockState state) {
-        if (state.isAir()) {
-            return false;
+    private boolean isClaimed(final AABBd worldAABB, final List<AABBd> claimed) {
+        for (AABBd other : claimed) {
+            if (other.intersectsAABB(worldAABB)) {
+                Logger.info("Ship would collide with a ship arriving in the same batch");
+                return true;
+            }
         }
+        return false;
+    }
 
-        boolean isSolid = state.isSolid();
-        boolean blocksMotion = state.blocksMotion();
-
-        if (isSolid && blocksMotion) {
-            String blockName = state.getBlock().getDescriptionId().toLowerCase();
-
-            if (blockName.contains("leaves") ||
-                    blockName.contains("slab") ||
-                    blockName.contains("stairs") ||
-                    blockName.contains("fence") ||
-                    blockName.contains("wall") ||
-                    blockName.contains("pane") ||
-                    blockName.contains("chain") ||
-                    blockName.contains("iron_bars") ||
-                    blockName.contains("sign") ||
-                    blockName.contains("banner") ||
-                    blockName.contains("torch") ||
-                    blockName.contains("carpet") ||
-                    blockName.contains("pressure_plate") ||
-                    blockName.contains("button") ||
-                    blockName.contains("flower") ||
-                    blockName.contains("grass") ||
-                    blockName.contains("vine") ||
-                    blockName.contains("snow")) {
-                return false;
+    /**
+     * Nearest whole-block offset within safeExitSearchRadius at which the ship's box is free of
+     * solid blocks, other ships and this batch's arrivals, or null if there is none. Only chunks
+     * that are already loaded are searched, and ships too big for a clearance table aren't moved.
+     */
+    private Vector3i findClearOffset(final long shipId, final AABBd worldAABB, final ServerLevel targetWorld, final List<AABBd> claimed) {
+        int radius = Math.max(0, Config.SAFE_EXIT_SEARCH_RADIUS);
+        int minX = (int) Math.floor(worldAABB.minX), maxX = (int) Math.floor(worldAABB.maxX);
+        int minY = (int) Math.floor(worldAABB.minY), maxY = (int) Math.floor(worldAABB.maxY);
+        int minZ = (int) Math.floor(worldAABB.minZ), maxZ = (int) Math.floor(worldAABB.maxZ);
+
+        // The padding around the ship would otherwise load chunks on the server thread, unloaded ones count as blocked
+        ExitClearanceTable table = ExitClearanceTable.build((chunkX, chunkZ) -> getLoadedTargetChunk(targetWorld, chunkX, chunkZ),
+                targetWorld.getMinSection(), BlockClassification::isSolid,
+                minX - radius, minY - radius, minZ - radius, maxX + radius, maxY + radius, maxZ + radius);
+        if (table == null) {
+            // Offset by offset it's one box scan each, thousands of them for the default radius
+            Logger.info("[Portal Skies] Ship too large to search for a clear exit");
+            return null;
+        }
+
+        int minBuildY = targetWorld.getMinBuildHeight();
+        int maxBuildY = minBuildY + targetWorld.getHeight() - 1;
+        int[] offsets = ExitClearanceTable.offsetsWithin(radius);
+        int tried = 0;
+        AABBd candidate = new AABBd();
+        for (int i = 0; i < offsets.length; i += 3) {
+            int dx = offsets[i], dy = offsets[i + 1], dz = offsets[i + 2];
+            if (minY + dy < minBuildY || maxY + dy > maxBuildY) continue;
+            tried++;
+            if (table.countSolid(minX + dx, minY + dy, minZ + dz, maxX + dx, maxY + dy, maxZ + dz) != 0) continue;
+
+            candidate.set(worldAABB).translate(dx, dy, dz);
+            if (isShipInTheWay(shipId, candidate, targetWorld) || isClaimed(candidate, claimed)) continue;
+
+            int triedOffsets = tried;
+            Logger.debug(() -> "[Portal Skies] Clear exit found after " + triedOffsets + " of " + offsets.length / 3 + " offsets");
+            return new Vector3i(dx, dy, dz);
+        }
+
+        int triedOffsets = tried;
+        Logger.info(() -> "[Portal Skies] No clear exit within " + radius + " blocks (" + triedOffsets + " offsets tried)");
+        return null;
+    }
+
+    // checkShipCollision without the logging, for trying many placements
+    private boolean isShipInTheWay(final long shipId, final AABBd worldAABB, final ServerLevel targetWorld) {
+        for (final Ship otherShip : ShipSpatialIndex.query(targetWorld, worldAABB)) {
+            if (otherShip.getId() != shipId) {
+                AABBdc otherAABB = otherShip.getWorldAABB();
+                if (otherAABB != null && otherAABB.intersectsAABB(worldAABB)) return true;
             }
+        }
+        return false;
+    }
+
+    private boolean checkHullCollision(final ShipHullBitmap hull, final ServerLevel targetWorld) {
+        BlockPos solid = hull.findCollision((chunkX, chunkZ) -> getTargetChunk(targetWorld, chunkX, chunkZ),
+                targetWorld.getMinSection(), BlockClassification::isSolid);
 
+        PortalMetrics.blockReads(hull.getBlocksRead());
+        Logger.debug(() -> "[Portal Skies] Hull check: " + hull.getHullBlocks() + " ship blocks in " + hull.getVolume() +
+                " voxels, " + hull.getSectionsScanned() + " target sections, " + hull.getBlocksRead() + " blocks read");
+
+        if (solid != null) {
+            Logger.info(() -> "FOUND SOLID BLOCK: " + targetWorld.getBlockState(solid).getBlock() + " at " + solid + " inside the ship's hull");
+            Logger.info("Cancelling teleport - solid block detected");
             return true;
         }
 
+        Logger.debug("No solid blocks in the ship's hull");
         return false;
     }
 
-    private boolean checkShipCollision(final long currentShipId, final AABBd worldAABB, final ServerLevel targetWorld, final ServerLevel currentWorld) {
-        var shipWorld = VSGameUtilsKt.getShipObjectWorld(targetWorld);
-        if (shipWorld == null) {
-            return false;
+    private LevelChunk getTargetChunk(ServerLevel targetWorld, int chunkX, int chunkZ) {
+        long key = ChunkPos.asLong(chunkX, chunkZ);
+        LevelChunk chunk = targetChunks.get(key);
+        PortalMetrics.cacheLookup(PortalMetrics.Cache.TARGET_CHUNKS, chunk != null);
+        if (chunk == null) {
+            chunk = targetWorld.getChunk(chunkX, chunkZ);
+            targetChunks.put(key, chunk);
         }
+        return chunk;
+    }
 
+    // getTargetChunk without the load, null for chunks that aren't in memory
+    private LevelChunk getLoadedTargetChunk(ServerLevel targetWorld, int chunkX, int chunkZ) {
+        long key = ChunkPos.asLong(chunkX, chunkZ);
+        LevelChunk chunk = targetChunks.get(key);
+        if (chunk == null) {
+            chunk = targetWorld.getChunkSource().getChunkNow(chunkX, chunkZ);
+            if (chunk != null) targetChunks.put(key, chunk);
+        }
+        return chunk;
+    }
+
+    private boolean checkShipCollision(final long currentShipId, final AABBd worldAABB, final ServerLevel targetWorld, final ServerLevel currentWorld) {
         int collisionCount = 0;
 
-        for (final Ship otherShip : shipWorld.getAllShips()) {
+        for (final Ship otherShip : ShipSpatialIndex.query(targetWorld, worldAABB)) {
             if (otherShip.getId() == currentShipId) {
                 continue;
             }
@@ -313,7 +562,7 @@ public class ShipTeleportationUtils {
             AABBdc otherAABB = otherShip.getWorldAABB();
             if (otherAABB != null && otherAABB.intersectsAABB(worldAABB)) {
                 collisionCount++;
-                Logger.sendMessage("Ship would collide with ship ID: " + otherShip.getId(), true);
+                Logger.info(() -> "Ship would collide with ship ID: " + otherShip.getId());
 
                 if (collisionCount > 1) {
                     return true;
@@ -368,8 +617,8 @@ public class ShipTeleportationUtils {
                 )
         );
 
-        Logger.sendMessage("Preparing to teleport MAIN ship ID: " + shipId + " to " +
-                String.format("%.2f, %.2f, %.2f", finalPos.x, finalPos.y, finalPos.z), false);
+        Logger.debug(() -> "Preparing to teleport MAIN ship ID: " + shipId + " to " +
+                String.format("%.2f, %.2f, %.2f", finalPos.x, finalPos.y, finalPos.z));
     }
 
     private void collectShipAndConnected(
@@ -423,28 +672,49 @@ public class ShipTeleportationUtils {
     }
 
     private void collectNearbyShips(final List<ServerShip> collected, final Vector3d origin, final Vector3d newPos, final Quaterniond additionalRotation, final float rotationAngle) {
-        var shipWorld = VSGameUtilsKt.getShipObjectWorld(oldLevel);
-        if (shipWorld == null) return;
+        for (final ServerShip nearbyShip : findNearbyShips(collected)) {
+            this.collectShipAndConnected(nearbyShip.getId(), origin, newPos, additionalRotation,
+                    new Vector3d(nearbyShip.getVelocity()),
+                    new Vector3d(nearbyShip.getOmega()),
+                    collected, rotationAngle);
+        }
+    }
 
-        for (int i = 0; i < collected.size(); i++) {
-            final AABBdc shipBox = collected.get(i).getWorldAABB();
+    // Ships within reach of the given ones, and of those in turn, that aren't moving yet. Doesn't collect anything
+    private List<ServerShip> findNearbyShips(final List<ServerShip> from) {
+        final List<ServerShip> group = new ArrayList<>(from);
+        final List<ServerShip> found = new ArrayList<>();
+        for (int i = 0; i < group.size(); i++) {
+            final AABBdc shipBox = group.get(i).getWorldAABB();
             if (shipBox == null) continue;
 
             final AABBd box = new AABBd(
                     shipBox.minX() - SHIP_COLLECT_RANGE, shipBox.minY() - SHIP_COLLECT_RANGE, shipBox.minZ() - SHIP_COLLECT_RANGE,
                     shipBox.maxX() + SHIP_COLLECT_RANGE, shipBox.maxY() + SHIP_COLLECT_RANGE, shipBox.maxZ() + SHIP_COLLECT_RANGE);
 
-            for (final Ship nearbyShip : shipWorld.getAllShips()) {
+            for (final Ship nearbyShip : ShipSpatialIndex.query(oldLevel, box)) {
                 if (nearbyShip.getWorldAABB() != null && nearbyShip.getWorldAABB().intersectsAABB(box)) {
-                    if (!this.ships.containsKey(nearbyShip.getId()) && nearbyShip instanceof ServerShip serverShip) {
-                        this.collectShipAndConnected(serverShip.getId(), origin, newPos, additionalRotation,
-                                new Vector3d(nearbyShip.getVelocity()),
-                                new Vector3d(nearbyShip.getOmega()),
-                                collected, rotationAngle);
+                    if (!this.ships.containsKey(nearbyShip.getId()) && nearbyShip instanceof ServerShip serverShip && !group.contains(serverShip)) {
+                        group.add(serverShip);
+                        found.add(serverShip);
                     }
                 }
             }
         }
+        return found;
+    }
+
+    // Where the ships travelling along with this one end up: their world boxes, turned and moved the way collectShipAndConnected moves them
+    private List<AABBd> companionArrivalBoxes(final ServerShip ship, final Vector3d newPos, final Quaterniond additionalRotation) {
+        final Vector3dc origin = ship.getTransform().getPositionInWorld();
+        final List<AABBd> boxes = new ArrayList<>();
+        for (final ServerShip companion : findNearbyShips(List.of(ship))) {
+            final AABBdc worldBox = companion.getWorldAABB();
+            if (worldBox == null) continue;
+            final AABBd relative = new AABBd(worldBox).translate(-origin.x(), -origin.y(), -origin.z());
+            boxes.add(transformCenteredLocalAABBToWorld(relative, additionalRotation, newPos));
+        }
+        return boxes;
     }
 
     private void collectNearbyEntities(final List<ServerShip> collected, final Vector3d origin, final Vector3d newPos, final Quaterniond additionalRotation) {
@@ -462,7 +732,7 @@ public class ShipTeleportationUtils {
         );
 
         List<Entity> foundEntities = this.oldLevel.getEntities((Entity) null, collectionBox,
-                (entity) -> !this.entityToPos.containsKey(entity) && shouldTeleportEntity(entity));
+                (entity) -> !this.entityToPos.containsKey(entity) && EntityClassification.shouldTeleport(entity));
 
         Set<Entity> allEntitiesToTeleport = new HashSet<>();
 
@@ -472,6 +742,10 @@ public class ShipTeleportationUtils {
 
         for (final Entity entity : allEntitiesToTeleport) {
             this.collectEntityDirectly(entity, origin, newPos, additionalRotation);
+            if (EntityClassification.isPlayer(entity)) {
+                Vector3dc shipyardPos = convertWorldToShipyardCoordinates(entity.position(), ship);
+                this.playerAnchors.put(entity, new ShipAnchor(ship.getId(), shipyardPos));
+            }
         }
     }
 
@@ -480,7 +754,7 @@ public class ShipTeleportationUtils {
             return;
         }
 
-        if (!shouldTeleportEntity(entity)) {
+        if (!EntityClassification.shouldTeleport(entity)) {
             return;
         }
 
@@ -492,9 +766,9 @@ public class ShipTeleportationUtils {
             float yawOffset = entity.getYRot() - vehicle.getYRot();
             entityMountingData.put(entity, new MountingData(vehicle, relativePos, yawOffset));
 
-            Logger.sendMessage("[Portal Skies] Tracked mounting: " + entity.getType() +
+            Logger.debug(() -> "[Portal Skies] Tracked mounting: " + entity.getType() +
                   " relative pos: " + String.format("%.2f, %.2f, %.2f", relativePos.x, relativePos.y, relativePos.z) +
-                " yaw offset: " + yawOffset, false);
+                " yaw offset: " + yawOffset);
         }
 
         for (Entity passenger : entity.getPassengers()) {
@@ -557,14 +831,15 @@ public class ShipTeleportationUtils {
     // IMPROVED: Force helm block interaction with detailed debugging
 
     // IMPROVED: Force block interaction with detailed debugging
+    // Moves the player onto the block now, the interaction itself runs a tick later in interactWithHelm
     private void forceBlockInteraction(ServerPlayer player, BlockPos blockPos) {
         try {
-             Logger.sendMessage("[Portal Skies] >>> Starting block interaction debug", false);
-            Logger.sendMessage("[Portal Skies] Target block position: " + blockPos, false);
+             Logger.debug("[Portal Skies] >>> Starting block interaction debug");
+            Logger.debug(() -> "[Portal Skies] Target block position: " + blockPos);
 
             BlockState blockState = newLevel.getBlockState(blockPos);
-            Logger.sendMessage("[Portal Skies] Block state: " + blockState, false);
-            Logger.sendMessage("[Portal Skies] Block is air: " + blockState.isAir(), false);
+            Logger.debug(() -> "[Portal Skies] Block state: " + blockState);
+            Logger.debug(() -> "[Portal Skies] Block is air: " + blockState.isAir());
 
             // Calculate positions
             Vec3 hitVec = new Vec3(
@@ -579,10 +854,10 @@ public class ShipTeleportationUtils {
                     blockPos.getZ() + 0.5
             );
 
-            Logger.sendMessage("[Portal Skies] Player teleport position: " +
-            String.format("%.2f, %.2f, %.2f", playerPos.x, playerPos.y, playerPos.z), false);
-            Logger.sendMessage("[Portal Skies] Hit vector: " +
-            String.format("%.2f, %.2f, %.2f", hitVec.x, hitVec.y, hitVec.z), false);
+            Logger.debug(() -> "[Portal Skies] Player teleport position: " +
+            String.format("%.2f, %.2f, %.2f", playerPos.x, playerPos.y, playerPos.z));
+            Logger.debug(() -> "[Portal Skies] Hit vector: " +
+            String.format("%.2f, %.2f, %.2f", hitVec.x, hitVec.y, hitVec.z));
 
             // Create hit result
             BlockHitResult hitResult = new BlockHitResult(
@@ -592,70 +867,82 @@ public class ShipTeleportationUtils {
                     false
             );
 
-            Logger.sendMessage("[Portal Skies] Hit result direction: " + hitResult.getDirection(), false);
+            Logger.debug(() -> "[Portal Skies] Hit result direction: " + hitResult.getDirection());
 
             // Teleport player
-            Logger.sendMessage("[Portal Skies] Teleporting player to block...", false);
+            Logger.debug("[Portal Skies] Teleporting player to block...");
             player.teleportTo(newLevel, playerPos.x, playerPos.y, playerPos.z, player.getYRot(), player.getXRot());
             player.connection.resetPosition();
 
-            Logger.sendMessage("[Portal Skies] Player actual position after teleport: " +
-             String.format("%.2f, %.2f, %.2f", player.getX(), player.getY(), player.getZ()), false);
+            Logger.debug(() -> "[Portal Skies] Player actual position after teleport: " +
+             String.format("%.2f, %.2f, %.2f", player.getX(), player.getY(), player.getZ()));
+
+            Logger.debug("[Portal Skies] Waiting for client sync...");
+            this.helmInteractions.add(new HelmInteraction(player, blockPos.immutable()));
+
+        } catch (Exception e) {
+            Logger.debug(() -> "ERROR during block interaction: " + e);
+        }
+    }
+
+    private void interactWithHelm(ServerPlayer player, BlockPos blockPos) {
+        try {
+            if (player.isRemoved() || player.isPassenger()) return;
 
-            // Small delay
-            Logger.sendMessage("[Portal Skies] Waiting for client sync...", false);
-            try { Thread.sleep(50); } catch (InterruptedException e) {}
+            BlockHitResult hitResult = new BlockHitResult(
+                    new Vec3(blockPos.getX() + 0.5, blockPos.getY() + 1.0, blockPos.getZ() + 0.5),
+                    net.minecraft.core.Direction.UP,
+                    blockPos,
+                    false
+            );
 
             // Attempt interaction
-            Logger.sendMessage("[Portal Skies] Attempting main hand interaction...", false);
+            Logger.debug("[Portal Skies] Attempting main hand interaction...");
             var interactionManager = player.gameMode;
             InteractionResult result = interactionManager.useItemOn(player, newLevel, player.getMainHandItem(),
                     InteractionHand.MAIN_HAND, hitResult);
 
-              Logger.sendMessage("[Portal Skies] Main hand interaction result: " + result, false);
-             Logger.sendMessage("[Portal Skies] Consumes action: " + result.consumesAction(), false);
-            Logger.sendMessage("[Portal Skies] Should swing arm: " + result.shouldSwing(), false);
-            Logger.sendMessage("[Portal Skies] Is success: " + (result == InteractionResult.SUCCESS), false);
-            Logger.sendMessage("[Portal Skies] Is consumable: " + (result == InteractionResult.CONSUME), false);
+              Logger.debug("[Portal Skies] Main hand interaction result: %s", result);
+             Logger.debug("[Portal Skies] Consumes action: %s", result.consumesAction());
+            Logger.debug("[Portal Skies] Should swing arm: %s", result.shouldSwing());
+            Logger.debug("[Portal Skies] Is success: %s", result == InteractionResult.SUCCESS);
+            Logger.debug("[Portal Skies] Is consumable: %s", result == InteractionResult.CONSUME);
 
             if (result.consumesAction()) {
-                  Logger.sendMessage("✓ Main hand interaction successful - player should be mounted", false);
+                  Logger.debug("✓ Main hand interaction successful - player should be mounted");
             } else {
-                Logger.sendMessage("[Portal Skies] Attempting off-hand interaction...", false);
+                Logger.debug("[Portal Skies] Attempting off-hand interaction...");
                 result = interactionManager.useItemOn(player, newLevel, player.getOffhandItem(),
                         InteractionHand.OFF_HAND, hitResult);
 
-                  Logger.sendMessage("[Portal Skies] Off-hand interaction result: " + result, false);
+                  Logger.debug("[Portal Skies] Off-hand interaction result: %s", result);
 
                 if (result.consumesAction()) {
-                    Logger.sendMessage("✓ Off-hand interaction successful", false);
+                    Logger.debug("✓ Off-hand interaction successful");
                 } else {
-                    Logger.sendMessage("✗ Both interaction attempts failed", false);
+                    Logger.debug("✗ Both interaction attempts failed");
                 }
             }
 
             // Check if player is mounted after interaction
-            Logger.sendMessage("[Portal Skies] Player mounting status after interaction:", false);
-            Logger.sendMessage("[Portal Skies] - Is passenger: " + player.isPassenger(), false);
-            Logger.sendMessage("[Portal Skies] - Has vehicle: " + (player.getVehicle() != null), false);
+            Logger.debug("[Portal Skies] Player mounting status after interaction:");
+            Logger.debug(() -> "[Portal Skies] - Is passenger: " + player.isPassenger());
+            Logger.debug(() -> "[Portal Skies] - Has vehicle: " + (player.getVehicle() != null));
             if (player.getVehicle() != null) {
-                  Logger.sendMessage("[Portal Skies] - Vehicle type: " + player.getVehicle().getType(), false);
+                  Logger.debug(() -> "[Portal Skies] - Vehicle type: " + player.getVehicle().getType());
             }
 
-            //Logger.sendMessage("[Portal Skies] <<< End block interaction debug", false);
+            //Logger.debug("[Portal Skies] <<< End block interaction debug");
 
         } catch (Exception e) {
-            Logger.sendMessage("ERROR during block interaction: " + e.getMessage(), false);
-            e.printStackTrace();
+            Logger.debug(() -> "ERROR during block interaction: " + e);
         }
     }
 
     // Find ship for entity
     private ServerShip findShipForEntity(Entity entity) {
-        var shipWorld = VSGameUtilsKt.getShipObjectWorld(newLevel);
-        if (shipWorld == null) return null;
-
-        for (Ship ship : shipWorld.getAllShips()) {
+        double x = entity.getX(), y = entity.getY(), z = entity.getZ();
+        for (Ship ship : ShipSpatialIndex.query(newLevel, x, y, z, x, y, z)) {
             if (ship instanceof ServerShip serverShip) {
                 AABBdc shipAABB = ship.getWorldAABB();
                 if (shipAABB != null && shipAABB.containsPoint(entity.getX(), entity.getY(), entity.getZ())) {
@@ -672,8 +959,8 @@ public class ShipTeleportationUtils {
         int playerRemounts = 0;
         int entityRemounts = 0;
 
-        // Logger.sendMessage("[Portal Skies] === START REMOUNT DEBUG ===", false);
-        Logger.sendMessage("[Portal Skies] Total mounting entries: " + entityMountingData.size(), false);
+        // Logger.debug("[Portal Skies] === START REMOUNT DEBUG ===");
+        Logger.debug(() -> "[Portal Skies] Total mounting entries: " + entityMountingData.size());
 
         for (Map.Entry<Entity, MountingData> entry : entityMountingData.entrySet()) {
             Entity oldPassenger = entry.getKey();
@@ -682,22 +969,22 @@ public class ShipTeleportationUtils {
             Entity newPassenger = oldToNewEntity.get(oldPassenger);
             Entity newVehicle = oldToNewEntity.get(mountData.vehicle());
 
-              Logger.sendMessage("[Portal Skies] Processing mount: " +
-                   oldPassenger.getType() + " -> " + mountData.vehicle().getType(), false);
-             Logger.sendMessage("[Portal Skies] - New passenger found: " + (newPassenger != null), false);
-            Logger.sendMessage("[Portal Skies] - New vehicle found: " + (newVehicle != null), false);
-            Logger.sendMessage("[Portal Skies] - Already passenger: " + (newPassenger != null && newPassenger.isPassenger()), false);
-            Logger.sendMessage("[Portal Skies] - Original vehicle was ShipMountingEntity: " + (mountData.vehicle() instanceof ShipMountingEntity), false);
+              Logger.debug(() -> "[Portal Skies] Processing mount: " +
+                   oldPassenger.getType() + " -> " + mountData.vehicle().getType());
+             Logger.debug(() -> "[Portal Skies] - New passenger found: " + (newPassenger != null));
+            Logger.debug(() -> "[Portal Skies] - New vehicle found: " + (newVehicle != null));
+            Logger.debug(() -> "[Portal Skies] - Already passenger: " + (newPassenger != null && newPassenger.isPassenger()));
+            Logger.debug(() -> "[Portal Skies] - Original vehicle was ShipMountingEntity: " + (mountData.vehicle() instanceof ShipMountingEntity));
 
             if (newPassenger != null && !newPassenger.isPassenger()) {
                 // Check if the original vehicle was a ShipMountingEntity
                 if (mountData.vehicle() instanceof ShipMountingEntity && newPassenger instanceof ServerPlayer) {
-                        Logger.sendMessage("[Portal Skies] Original was ShipMountingEntity - finding helm block for player...", false);
+                        Logger.debug("[Portal Skies] Original was ShipMountingEntity - finding helm block for player...");
 
                     // Find the ship that should contain the helm block
                     ServerShip ship = findShipForEntity(newPassenger);
                     if (ship != null) {
-                              Logger.sendMessage("[Portal Skies] Found ship for player: " + ship.getId(), false);
+                              Logger.debug(() -> "[Portal Skies] Found ship for player: " + ship.getId());
 
                         // Convert the original mounting entity position to find the helm block
                         Vec3 originalMountPos = mountData.vehicle().position();
@@ -709,32 +996,32 @@ public class ShipTeleportationUtils {
                                 (int) Math.floor(shipyardPos.z)
                         );
 
-                          Logger.sendMessage("[Portal Skies] Original mount world pos: " +
-                                String.format("%.2f, %.2f, %.2f", originalMountPos.x, originalMountPos.y, originalMountPos.z), false);
-                        Logger.sendMessage("[Portal Skies] Converted shipyard pos: " +
-                              String.format("%.2f, %.2f, %.2f", shipyardPos.x, shipyardPos.y, shipyardPos.z), false);
-                        Logger.sendMessage("[Portal Skies] Calculated helm block: " + helmBlockPos, false);
+                          Logger.debug(() -> "[Portal Skies] Original mount world pos: " +
+                                String.format("%.2f, %.2f, %.2f", originalMountPos.x, originalMountPos.y, originalMountPos.z));
+                        Logger.debug(() -> "[Portal Skies] Converted shipyard pos: " +
+                              String.format("%.2f, %.2f, %.2f", shipyardPos.x, shipyardPos.y, shipyardPos.z));
+                        Logger.debug(() -> "[Portal Skies] Calculated helm block: " + helmBlockPos);
 
-                        // Try to find the actual helm block by scanning nearby
+                        // Look up the ship's nearest helm
                         BlockPos actualHelmBlock = findActualHelmBlock(ship, helmBlockPos);
                         if (actualHelmBlock != null) {
-                              Logger.sendMessage("Found actual helm block at: " + actualHelmBlock, false);
+                              Logger.debug(() -> "Found actual helm block at: " + actualHelmBlock);
                             forceBlockInteraction((ServerPlayer) newPassenger, actualHelmBlock);
                             playerRemounts++;
                         } else {
-                                Logger.sendMessage("No helm block found, using calculated position", false);
+                                Logger.debug("No helm block found, using calculated position");
                             forceBlockInteraction((ServerPlayer) newPassenger, helmBlockPos);
                             playerRemounts++;
                         }
                     } else {
-                         Logger.sendMessage("Could not find ship for player", false);
+                         Logger.debug("Could not find ship for player");
                     }
                 }
                 // For regular entity mounts (non-ShipMountingEntity)
                 else if (newVehicle != null) {
-                    Logger.sendMessage("[Portal Skies] Attempting direct entity mount...", false);
+                    Logger.debug("[Portal Skies] Attempting direct entity mount...");
                     boolean success = newPassenger.startRiding(newVehicle, true);
-                    Logger.sendMessage("[Portal Skies] - Direct mount result: " + success, false);
+                    Logger.debug(() -> "[Portal Skies] - Direct mount result: " + success);
                     if (success) {
                         if (newPassenger instanceof ServerPlayer) {
                             playerRemounts++;
@@ -744,88 +1031,128 @@ public class ShipTeleportationUtils {
                     }
                 }
 
-                // Check if remount was successful
-                if (newPassenger.isPassenger()) {
+                // Check if remount was successful, helm seats only get used next tick
+                if (mountData.vehicle() instanceof ShipMountingEntity && newPassenger instanceof ServerPlayer) {
+                    Logger.debug("[Portal Skies] Helm interaction queued for next tick");
+                } else if (newPassenger.isPassenger()) {
                     remountedCount++;
-                    Logger.sendMessage("✓ Successfully remounted", false);
+                    Logger.debug("✓ Successfully remounted");
                     if (newPassenger.getVehicle() != null) {
-                        Logger.sendMessage("[Portal Skies] Now riding: " + newPassenger.getVehicle().getType(), false);
+                        Logger.debug(() -> "[Portal Skies] Now riding: " + newPassenger.getVehicle().getType());
                     }
                 } else {
-                    Logger.sendMessage("✗ Failed to remount", false);
+                    Logger.debug("✗ Failed to remount");
                 }
             } else {
-                Logger.sendMessage("[Portal Skies] Skipping - passenger null or already mounted", false);
+                Logger.debug("[Portal Skies] Skipping - passenger null or already mounted");
             }
-            Logger.sendMessage("[Portal Skies] ---", false);
+            Logger.debug("[Portal Skies] ---");
         }
 
-        Logger.sendMessage("[Portal Skies] === END REMOUNT DEBUG ===", false);
-        Logger.sendMessage("[Portal Skies] Remounted " + remountedCount + " entities total", false);
-        Logger.sendMessage("[Portal Skies] - Players (helm interaction): " + playerRemounts, false);
-        Logger.sendMessage("[Portal Skies] - Other entities: " + entityRemounts, false);
+        Logger.debug("[Portal Skies] === END REMOUNT DEBUG ===");
+        if (Logger.isEnabled(Logger.Level.DEBUG)) {
+            Logger.debug("[Portal Skies] Remounted " + remountedCount + " entities total");
+            Logger.debug("[Portal Skies] - Players (helm interaction): " + playerRemounts);
+            Logger.debug("[Portal Skies] - Other entities: " + entityRemounts);
+        }
     }
 
     // NEW: Helper method to find the actual helm block by scanning nearby blocks
     private BlockPos findActualHelmBlock(ServerShip ship, BlockPos searchCenter) {
-        int searchRadius = 5;
+        return ShipHelmIndex.findNearest(newLevel, ship, searchCenter, 5);
+    }
 
-        for (int x = -searchRadius; x <= searchRadius; x++) {
-            for (int y = -searchRadius; y <= searchRadius; y++) {
-                for (int z = -searchRadius; z <= searchRadius; z++) {
-                    BlockPos checkPos = searchCenter.offset(x, y, z);
-                    BlockState state = newLevel.getBlockState(checkPos);
+    /**
+     * Queues the collected ships and entities for transfer. The first stage runs right away,
+     * the rest follow on later ticks so nothing here ever blocks the server thread.
+     */
+    public void start() {
+        if (this.ships.isEmpty()) {
+            Logger.info("No ships to teleport!");
+            return;
+        }
 
-                    if (isHelmBlock(state)) {
-                        return checkPos;
-                    }
-                }
-            }
+        ACTIVE_TELEPORTS.add(this);
+        if (advance()) {
+            ACTIVE_TELEPORTS.remove(this);
         }
-        return null;
     }
 
-    // NEW: Check if a block is a helm block
-    private boolean isHelmBlock(BlockState state) {
-        if (state.isAir()) return false;
-
-        String blockName = state.getBlock().getDescriptionId().toLowerCase();
-        return blockName.contains("helm") ||
-                blockName.contains("wheel") ||
-                blockName.contains("controller") ||
-                blockName.contains("pilot") ||
-                blockName.contains("ship_helm") ||
-                blockName.contains("ship_pilot");
+    // Runs the current stage if it's due, returns true once the teleport is complete
+    private boolean advance() {
+        long now = this.newLevel.getServer().getTickCount();
+        if (now < this.resumeTick) return false;
+
+        long stageStart = System.nanoTime();
+        boolean done = runStage(now);
+        this.transferNanos += System.nanoTime() - stageStart;
+        // Only the work, not the ticks waited between stages
+        if (done) PhaseStats.record(PhaseStats.Phase.TRANSFER, this.transferNanos);
+        return done;
     }
 
-    public void finalizeTeleport() {
-        final int size = this.ships.size();
-        if (size == 0) {
-            Logger.sendMessage("No ships to teleport!", true);
-            return;
+    private boolean runStage(long now) {
+        switch (this.stage) {
+            case TRANSFER -> {
+                Logger.debug("[DEBUG] Step 1: Ejecting passengers from ship seats...");
+                ejectPassengersFromShipMountingEntities();
+
+                Logger.debug("[DEBUG] Step 2: Teleporting ships via VS API with collision forcing...");
+                this.ships.forEach(this::handleShipTeleport);
+                // Ships just changed dimension, later lookups in this tick must see them in their new place
+                ShipSpatialIndex.markDirty();
+
+                // Same tick as the ships, so the target positions are still where the ships are
+                Logger.debug("[DEBUG] Step 3: Teleporting entities with passengers...");
+                this.teleportEntitiesRecursive();
+                resumeAt(Stage.PLAYER_SYNC, now + PLAYER_SYNC_TICKS);
+            }
+            case PLAYER_SYNC -> {
+                // Players get placed again a few times until the client agrees with the server
+                syncPlayers();
+                if (this.playerSyncPasses < PLAYER_SYNC_PASSES) {
+                    resumeAt(Stage.PLAYER_SYNC, now + PLAYER_SYNC_TICKS);
+                } else {
+                    resumeAt(Stage.REMOUNT, now + 1);
+                }
+            }
+            case REMOUNT -> {
+                Logger.debug("[DEBUG] Step 4: Forcing entity remounting...");
+                this.forceRemountEntities();
+                resumeAt(Stage.HELM_INTERACT, now + 1);
+            }
+            case HELM_INTERACT -> {
+                // A tick after moving players to their helms, so the client has caught up
+                for (HelmInteraction interaction : this.helmInteractions) {
+                    interactWithHelm(interaction.player(), interaction.helmPos());
+                }
+                finish();
+                return true;
+            }
+            case DONE -> {
+                return true;
+            }
         }
+        return false;
+    }
 
-        ejectPassengersFromShipMountingEntities();
-
-        Logger.sendMessage("[DEBUG] Step 2: Teleporting ships via VS API with collision forcing...", false);
-        this.ships.forEach(this::handleShipTeleport);
-
-        try {
-            Thread.sleep(200);
-        } catch (InterruptedException e) {}
-
-        Logger.sendMessage("[DEBUG] Step 3: Teleporting entities with passengers...", false);
-        this.teleportEntitiesRecursive();
-
-        Logger.sendMessage("[DEBUG] Step 4: Forcing entity remounting...", false);
-        this.forceRemountEntities();
+    private void resumeAt(Stage next, long tick) {
+        this.stage = next;
+        this.resumeTick = tick;
+    }
 
+    private void finish() {
+        this.stage = Stage.DONE;
         this.ships.clear();
         this.entityToPos.clear();
         this.oldToNewEntity.clear();
         this.entityMountingData.clear();
+        this.playerAnchors.clear();
+        this.playersToSync.clear();
+        this.helmInteractions.clear();
+        this.targetChunks.clear();
 
-        Logger.sendMessage("[Portal Skies] DEBUG: teleportShipWithFallback completed", false);
+        Logger.debug("[Portal Skies] DEBUG: teleportShipWithFallback completed");
     }
 
     private void ejectPassengersFromShipMountingEntities() {
@@ -834,7 +1161,7 @@ public class ShipTeleportationUtils {
             MountingData mountData = entry.getValue();
 
             if (mountData.vehicle() instanceof ShipMountingEntity) {
-                Logger.sendMessage("[Portal Skies] Ejecting " + passenger.getType() + " from ShipMountingEntity", false);
+                Logger.debug(() -> "[Portal Skies] Ejecting " + passenger.getType() + " from ShipMountingEntity");
                 passenger.stopRiding();
             }
         }
@@ -846,12 +1173,12 @@ public class ShipTeleportationUtils {
         for (Map.Entry<Entity,Vec3> entry:new HashMap <Entity,Vec3>(entitiesToTeleport).entrySet()) {
             Entity entity = entry.getKey();
             Vec3 vec = entry.getValue();
-            if (entity instanceof ServerPlayer) {
+            if (EntityClassification.isPlayer(entity)) {
                 playersToTeleort.put((ServerPlayer) entity,vec);
                 entitiesToTeleport.remove(entity);
                 this.oldToNewEntity.put(entity, entity);
             }
-            if(entity instanceof ShipMountingEntity){
+            if(EntityClassification.isShipMount(entity)){
                 entitiesToTeleport.remove(entity);
                  entity.kill();
 
@@ -859,7 +1186,7 @@ public class ShipTeleportationUtils {
 
             }
         }
-        Logger.sendMessage("Players in players to teleport= "+playersToTeleort.size(), false);
+        Logger.debug(() -> "Players in players to teleport= "+playersToTeleort.size());
 
         for (Map.Entry<Entity, Vec3> entry : entitiesToTeleport.entrySet()) {
             Entity entity = entry.getKey();
@@ -870,7 +1197,7 @@ public class ShipTeleportationUtils {
             }
 
             Entity teleportedEntity;
-              if (isRideableEntity(entity)) {
+              if (EntityClassification.isRideable(entity)) {
                 teleportedEntity = teleportRideableEntityWithReset(entity, newLevel, newPos);
             } else {
                 teleportedEntity = teleportToWithPassengers(entity, newLevel, newPos);
@@ -880,8 +1207,8 @@ public class ShipTeleportationUtils {
                 this.oldToNewEntity.put(entity, teleportedEntity);
             }
         }
-            teleportPlayerWithDoubleTeleport(playersToTeleort,newLevel);
-
+        this.playersToSync.putAll(playersToTeleort);
+        syncPlayers();
     }
 
     private Entity teleportRideableEntityWithReset(final Entity entity, final ServerLevel newLevel, final Vec3 newPos) {
@@ -949,64 +1276,32 @@ public class ShipTeleportationUtils {
         }
     }
 
-    private boolean isRideableEntity(Entity entity) {
-        if (!entity.getPassengers().isEmpty()) {
-            return true;
-        }
-
-        String entityType = entity.getType().toString().toLowerCase();
-        return entityType.contains("boat") ||
-                entityType.contains("minecart") ||
-                entityType.contains("horse") ||
-                entityType.contains("pig") ||
-                entityType.contains("strider") ||
-                entityType.contains("camel") ||
-                entityType.contains("llama") ||
-                entityType.contains("donkey") ||
-                entityType.contains("mule") ;
-    }
-
-    private void teleportPlayerWithDoubleTeleport(final Map<ServerPlayer,Vec3> players, final ServerLevel newLevel) {
-
-        for (Map.Entry<ServerPlayer,Vec3> entry:players.entrySet()){
-            ServerPlayer player = entry.getKey();
-            Vec3 newPos = entry.getValue();
-
-
-        player.teleportTo(newLevel, newPos.x, newPos.y + 1, newPos.z, player.getYRot(), player.getXRot());
-        player.connection.resetPosition();
-        player.setPos(newPos.x, newPos.y + 1, newPos.z);
-        player.connection.teleport(newPos.x, newPos.y + 1, newPos.z, player.getYRot(), player.getXRot());
-    }
-
-
-
-
-        try { Thread.sleep(300); } catch (InterruptedException e) {}
-
-        for (Map.Entry<ServerPlayer,Vec3> entry:players.entrySet()){
+    // One placement pass over the teleported players, PLAYER_SYNC_PASSES of them run PLAYER_SYNC_TICKS apart
+    private void syncPlayers() {
+        for (Map.Entry<ServerPlayer,Vec3> entry : this.playersToSync.entrySet()) {
             ServerPlayer player = entry.getKey();
-            Vec3 newPos = entry.getValue();
-
+            Vec3 newPos = currentShipPosition(player, entry.getValue());
 
             player.teleportTo(newLevel, newPos.x, newPos.y + 1, newPos.z, player.getYRot(), player.getXRot());
             player.connection.resetPosition();
             player.setPos(newPos.x, newPos.y + 1, newPos.z);
             player.connection.teleport(newPos.x, newPos.y + 1, newPos.z, player.getYRot(), player.getXRot());
         }
+        this.playerSyncPasses++;
+    }
 
-        try { Thread.sleep(300); } catch (InterruptedException e) {}
-        for (Map.Entry<ServerPlayer,Vec3> entry:players.entrySet()){
-            ServerPlayer player = entry.getKey();
-            Vec3 newPos = entry.getValue();
-
+    // The ship kept its velocity after the transfer, so later passes place players where it is now.
+    // The first pass runs in the transfer tick itself, where the target is still exactly right
+    private Vec3 currentShipPosition(ServerPlayer player, Vec3 targetPos) {
+        ShipAnchor anchor = this.playerAnchors.get(player);
+        var shipWorld = VSGameUtilsKt.getShipObjectWorld(this.newLevel);
+        if (this.playerSyncPasses == 0 || anchor == null || shipWorld == null) return targetPos;
 
-            player.teleportTo(newLevel, newPos.x, newPos.y + 1, newPos.z, player.getYRot(), player.getXRot());
-            player.connection.resetPosition();
-            player.setPos(newPos.x, newPos.y + 1, newPos.z);
-            player.connection.teleport(newPos.x, newPos.y + 1, newPos.z, player.getYRot(), player.getXRot());
-        }
+        LoadedServerShip ship = shipWorld.getLoadedShips().getById(anchor.shipId());
+        if (ship == null || !VSGameUtilsKt.getDimensionId(this.newLevel).equals(ship.getChunkClaimDimension())) return targetPos;
 
+        Vector3d worldPos = ship.getTransform().getShipToWorld().transformPosition(anchor.shipyardPos(), new Vector3d());
+        return new Vec3(worldPos.x, worldPos.y, worldPos.z);
     }
 
     private void handleShipTeleport(final long id, final TeleportData data) {
@@ -1026,8 +1321,6 @@ public class ShipTeleportationUtils {
             ship.setStatic(false);
             final ShipTeleportData teleportData = new ShipTeleportDataImpl(newPos, rotation, velocity, omega, dimensionId, null);
             targetShipWorld.teleportShip(ship, teleportData);
-
-            try { Thread.sleep(100); } catch (InterruptedException e) {}
         }
     }
 
@@ -1042,13 +1335,4 @@ public class ShipTeleportationUtils {
 
         return (ServerShip) shipWorld.getAllShips().getById(shipId);
     }
-
-    private boolean shouldTeleportEntity(Entity entity) {
-        return entity instanceof ServerPlayer ||
-                entity.isAlive() ||
-                entity.getType().toString().contains("item_frame") ||
-                entity.getType().toString().contains("painting") ||
-                entity.getType().toString().contains("boat") ||
-                entity.getType().toString().contains("minecart");
-    }
-}
\ No newline at end of file
+}
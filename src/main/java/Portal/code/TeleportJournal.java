@@ -0,0 +1,282 @@
+package Portal.code;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.world.level.Level;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Append-only binary journal of teleport events: detections, exit searches, safety decisions and
+ * teleports, one fixed-size record each, written in place through a FileChannel from one reused
+ * direct buffer. Nothing stays mapped, so the file can always be moved to
+ * {@code teleport-journal.1.bin} once it reaches the configured size. Server thread only.
+ * {@link TeleportJournalReader} dumps and summarizes journal files.
+ *
+ * <p>Layout, little endian. The first {@link #RECORD_SIZE} bytes are the header: magic, version,
+ * record size, record count (only records below the count are complete) and creation time.
+ * The count is written every {@link #COUNT_INTERVAL} records and on close, after a crash the
+ * complete records past it are counted back in when the journal is opened again.
+ * Every record after that:
+ * <pre>
+ *   0 long   wall clock millis       56 double x3 target position
+ *   8 long   server tick             80 int x3    source portal center
+ *  16 long   ship id                 92 int x3    target portal center
+ *  24 byte   event                  104 int       detection micros
+ *  25 byte   outcome                108 int       exit search micros
+ *  26 byte   source dimension       112 int       safety check micros
+ *  27 byte   target dimension       116 float     rotation degrees
+ *  28 byte x4 source portal w/h, target portal w/h (unsigned)
+ *  32 double x3 ship position       120 8 bytes   reserved, zero
+ * </pre>
+ * Dimensions are 0 overworld, 1 nether, 2 end, 255 anything else or unknown.
+ */
+public final class TeleportJournal {
+
+    public enum Event { DETECTED, SEARCH, SAFETY, TELEPORT }
+
+    public enum Outcome {
+        OK, INSIDE_OTHER_SHIP, NO_TARGET_DIMENSION, SOURCE_TOO_SMALL, SEARCH_PENDING, NO_PORTAL,
+        TARGET_TOO_SMALL, MOVED, BLOCKED, ALREADY_MOVING, ERROR
+    }
+
+    public static final int MAGIC = 0x5053544A; // "PSTJ"
+    public static final int VERSION = 1;
+    public static final int RECORD_SIZE = 128;
+    public static final int HEADER_COUNT = 8;
+    public static final int HEADER_CREATED = 16;
+    public static final byte UNKNOWN_DIMENSION = (byte) 255;
+    // Records between two header count updates
+    public static final int COUNT_INTERVAL = 64;
+
+    public static final String FILE_NAME = "teleport-journal.bin";
+    public static final String PREVIOUS_FILE_NAME = "teleport-journal.1.bin";
+    private static final String FOLDER = "logs";
+
+    /**
+     * What's known about one ship's pass through a portal. Filled in as the teleport goes along,
+     * every event writes it whole with whatever is set so far.
+     */
+    public static final class Record {
+        public long shipId;
+        public byte sourceDimension = UNKNOWN_DIMENSION, targetDimension = UNKNOWN_DIMENSION;
+        public double x, y, z;
+        public double targetX, targetY, targetZ;
+        public int sourcePortalX, sourcePortalY, sourcePortalZ, sourcePortalWidth, sourcePortalHeight;
+        public int targetPortalX, targetPortalY, targetPortalZ, targetPortalWidth, targetPortalHeight;
+        public long detectNanos, searchNanos, safetyNanos;
+        public float rotation;
+    }
+
+    private static FileChannel channel;
+    // One record (or the header) on its way to the file, reused for every write
+    private static final ByteBuffer RECORD_BUFFER = ByteBuffer.allocateDirect(RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+    private static final ByteBuffer COUNT_BUFFER = ByteBuffer.allocateDirect(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+    private static long count;
+    // What the header on disk says
+    private static long countWritten;
+    // Set after a failed open or write, stays off until the next server start
+    private static boolean failed;
+
+    private TeleportJournal() {
+    }
+
+    public static boolean isEnabled() {
+        return Config.TELEPORT_JOURNAL && !failed;
+    }
+
+    public static byte dimension(ResourceKey<Level> dimension) {
+        if (dimension == Level.OVERWORLD) return 0;
+        if (dimension == Level.NETHER) return 1;
+        if (dimension == Level.END) return 2;
+        return UNKNOWN_DIMENSION;
+    }
+
+    public static void append(Event event, Outcome outcome, long tick, Record record) {
+        // Counted even with the journal off
+        PortalMetrics.teleportEvent(event, outcome);
+        if (!isEnabled()) return;
+        try {
+            if (channel == null) open();
+            long offset = (count + 1) * RECORD_SIZE;
+            if (offset + RECORD_SIZE > (long) Config.TELEPORT_JOURNAL_MAX_MB << 20) {
+                startOver();
+                offset = RECORD_SIZE;
+            }
+
+            RECORD_BUFFER.putLong(0, System.currentTimeMillis());
+            RECORD_BUFFER.putLong(8, tick);
+            RECORD_BUFFER.putLong(16, record.shipId);
+            RECORD_BUFFER.put(24, (byte) event.ordinal());
+            RECORD_BUFFER.put(25, (byte) outcome.ordinal());
+            RECORD_BUFFER.put(26, record.sourceDimension);
+            RECORD_BUFFER.put(27, record.targetDimension);
+            RECORD_BUFFER.put(28, unsignedByte(record.sourcePortalWidth));
+            RECORD_BUFFER.put(29, unsignedByte(record.sourcePortalHeight));
+            RECORD_BUFFER.put(30, unsignedByte(record.targetPortalWidth));
+            RECORD_BUFFER.put(31, unsignedByte(record.targetPortalHeight));
+            RECORD_BUFFER.putDouble(32, record.x);
+            RECORD_BUFFER.putDouble(40, record.y);
+            RECORD_BUFFER.putDouble(48, record.z);
+            RECORD_BUFFER.putDouble(56, record.targetX);
+            RECORD_BUFFER.putDouble(64, record.targetY);
+            RECORD_BUFFER.putDouble(72, record.targetZ);
+            RECORD_BUFFER.putInt(80, record.sourcePortalX);
+            RECORD_BUFFER.putInt(84, record.sourcePortalY);
+            RECORD_BUFFER.putInt(88, record.sourcePortalZ);
+            RECORD_BUFFER.putInt(92, record.targetPortalX);
+            RECORD_BUFFER.putInt(96, record.targetPortalY);
+            RECORD_BUFFER.putInt(100, record.targetPortalZ);
+            RECORD_BUFFER.putInt(104, micros(record.detectNanos));
+            RECORD_BUFFER.putInt(108, micros(record.searchNanos));
+            RECORD_BUFFER.putInt(112, micros(record.safetyNanos));
+            RECORD_BUFFER.putFloat(116, record.rotation);
+            RECORD_BUFFER.putLong(120, 0L);
+            write(RECORD_BUFFER, offset);
+
+            // Count last, a crash mid-record leaves it out
+            count++;
+            if (count - countWritten >= COUNT_INTERVAL) writeCount();
+        } catch (IOException | RuntimeException e) {
+            fail(e);
+        }
+    }
+
+    /**
+     * Flushes the file to disk and releases it. The next event opens it again.
+     */
+    public static void close() {
+        if (channel != null) {
+            try {
+                writeCount();
+                channel.force(false);
+            } catch (IOException ignored) {
+            }
+        }
+        closeChannel();
+        failed = false;
+    }
+
+    private static void open() throws IOException {
+        Path folder = Paths.get(FOLDER);
+        Files.createDirectories(folder);
+        channel = openChannel(folder);
+
+        long size = channel.size();
+        if (size >= RECORD_SIZE) {
+            readHeader();
+            if (RECORD_BUFFER.getInt(0) == MAGIC && RECORD_BUFFER.getShort(6) == RECORD_SIZE) {
+                // Never past the records actually on disk
+                count = Math.min(RECORD_BUFFER.getLong(HEADER_COUNT), size / RECORD_SIZE - 1);
+                countWritten = count;
+                recoverCount(size);
+                return;
+            }
+            // Not ours or from an incompatible version, keep it aside
+            closeChannel();
+            Files.move(folder.resolve(FILE_NAME), folder.resolve(PREVIOUS_FILE_NAME), StandardCopyOption.REPLACE_EXISTING);
+            channel = openChannel(folder);
+        }
+        writeHeader();
+    }
+
+    private static FileChannel openChannel(Path folder) throws IOException {
+        return FileChannel.open(folder.resolve(FILE_NAME),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    // Whole records written after the last count update, a record always starts with its nonzero wall clock time
+    private static void recoverCount(long size) throws IOException {
+        long onDisk = size / RECORD_SIZE - 1;
+        while (count < onDisk) {
+            COUNT_BUFFER.clear();
+            long offset = (count + 1) * RECORD_SIZE;
+            while (COUNT_BUFFER.hasRemaining() && channel.read(COUNT_BUFFER, offset + COUNT_BUFFER.position()) >= 0) {
+                // read until the time is in or the file ends
+            }
+            if (COUNT_BUFFER.hasRemaining() || COUNT_BUFFER.getLong(0) == 0) break;
+            count++;
+        }
+        if (count != countWritten) writeCount();
+    }
+
+    // The file is full, the current one becomes the previous one
+    private static void startOver() throws IOException {
+        writeCount();
+        channel.force(false);
+        closeChannel();
+        Path folder = Paths.get(FOLDER);
+        Files.move(folder.resolve(FILE_NAME), folder.resolve(PREVIOUS_FILE_NAME), StandardCopyOption.REPLACE_EXISTING);
+        open();
+    }
+
+    private static void writeHeader() throws IOException {
+        RECORD_BUFFER.clear();
+        for (int i = 0; i < RECORD_SIZE; i += Long.BYTES) {
+            RECORD_BUFFER.putLong(i, 0L);
+        }
+        RECORD_BUFFER.putInt(0, MAGIC);
+        RECORD_BUFFER.putShort(4, (short) VERSION);
+        RECORD_BUFFER.putShort(6, (short) RECORD_SIZE);
+        RECORD_BUFFER.putLong(HEADER_CREATED, System.currentTimeMillis());
+        write(RECORD_BUFFER, 0);
+        count = 0;
+        countWritten = 0;
+    }
+
+    private static void writeCount() throws IOException {
+        COUNT_BUFFER.putLong(0, count);
+        write(COUNT_BUFFER, HEADER_COUNT);
+        countWritten = count;
+    }
+
+    private static void readHeader() throws IOException {
+        RECORD_BUFFER.clear();
+        while (RECORD_BUFFER.hasRemaining() && channel.read(RECORD_BUFFER, RECORD_BUFFER.position()) >= 0) {
+            // read until the header is in or the file ends
+        }
+    }
+
+    // Positional writes, the whole buffer from its start
+    private static void write(ByteBuffer source, long offset) throws IOException {
+        source.clear();
+        while (source.hasRemaining()) {
+            channel.write(source, offset + source.position());
+        }
+    }
+
+    private static void closeChannel() {
+        count = 0;
+        countWritten = 0;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException ignored) {
+            }
+            channel = null;
+        }
+    }
+
+    private static void fail(Exception e) {
+        failed = true;
+        closeChannel();
+        if (Config.CONSOLE_LOGS) {
+            System.err.println("[Portal Skies] Teleport journal write failed, journal stopped: " + e.getMessage());
+        }
+    }
+
+    private static byte unsignedByte(int value) {
+        return (byte) Math.min(Math.max(value, 0), 255);
+    }
+
+    private static int micros(long nanos) {
+        return (int) Math.min(nanos / 1000, Integer.MAX_VALUE);
+    }
+}
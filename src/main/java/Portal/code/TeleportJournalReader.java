@@ -0,0 +1,165 @@
+package Portal.code;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Offline reader for {@link TeleportJournal} files, needs nothing but the mod jar:
+ * <pre>
+ *   java -cp portal-skies.jar Portal.code.TeleportJournalReader dump logs/teleport-journal.bin
+ *   java -cp portal-skies.jar Portal.code.TeleportJournalReader summary logs/teleport-journal.1.bin logs/teleport-journal.bin
+ * </pre>
+ * dump prints every record as a CSV line, summary counts events by outcome and dimension pair and
+ * averages the phase timings.
+ */
+public final class TeleportJournalReader {
+
+    private static final String[] DIMENSIONS = {"overworld", "nether", "end"};
+
+    private TeleportJournalReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || !(args[0].equals("dump") || args[0].equals("summary"))) {
+            System.err.println("Usage: TeleportJournalReader dump|summary <journal file>...");
+            System.exit(2);
+            return;
+        }
+
+        boolean dump = args[0].equals("dump");
+        Summary summary = new Summary();
+        if (dump) {
+            System.out.println("time,tick,ship,event,outcome,from,to,x,y,z,targetX,targetY,targetZ," +
+                    "sourcePortal,sourceSize,targetPortal,targetSize,detectMicros,searchMicros,safetyMicros,rotation");
+        }
+        for (int i = 1; i < args.length; i++) {
+            ByteBuffer journal = read(Paths.get(args[i]));
+            long count = recordCount(journal);
+            for (long record = 1; record <= count; record++) {
+                int at = (int) (record * TeleportJournal.RECORD_SIZE);
+                if (dump) {
+                    System.out.println(format(journal, at));
+                } else {
+                    summary.add(journal, at);
+                }
+            }
+        }
+        if (!dump) summary.print();
+    }
+
+    private static ByteBuffer read(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer journal = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+            if (channel.size() < TeleportJournal.RECORD_SIZE || journal.getInt(0) != TeleportJournal.MAGIC) {
+                throw new IOException(path + " is not a teleport journal");
+            }
+            if (journal.getShort(6) != TeleportJournal.RECORD_SIZE) {
+                throw new IOException(path + " has " + journal.getShort(6) + " byte records, expected " + TeleportJournal.RECORD_SIZE);
+            }
+            return journal;
+        }
+    }
+
+    // Never past the end, even if the count got ahead of a truncated file
+    private static long recordCount(ByteBuffer journal) {
+        return Math.min(journal.getLong(TeleportJournal.HEADER_COUNT), journal.capacity() / TeleportJournal.RECORD_SIZE - 1);
+    }
+
+    private static String format(ByteBuffer journal, int at) {
+        return String.format(Locale.ROOT, "%s,%d,%d,%s,%s,%s,%s,%.2f,%.2f,%.2f,%.2f,%.2f,%.2f,%d %d %d,%dx%d,%d %d %d,%dx%d,%d,%d,%d,%.1f",
+                Instant.ofEpochMilli(journal.getLong(at)), journal.getLong(at + 8), journal.getLong(at + 16),
+                event(journal, at), outcome(journal, at), dimension(journal.get(at + 26)), dimension(journal.get(at + 27)),
+                journal.getDouble(at + 32), journal.getDouble(at + 40), journal.getDouble(at + 48),
+                journal.getDouble(at + 56), journal.getDouble(at + 64), journal.getDouble(at + 72),
+                journal.getInt(at + 80), journal.getInt(at + 84), journal.getInt(at + 88),
+                journal.get(at + 28) & 0xFF, journal.get(at + 29) & 0xFF,
+                journal.getInt(at + 92), journal.getInt(at + 96), journal.getInt(at + 100),
+                journal.get(at + 30) & 0xFF, journal.get(at + 31) & 0xFF,
+                journal.getInt(at + 104), journal.getInt(at + 108), journal.getInt(at + 112), journal.getFloat(at + 116));
+    }
+
+    private static String event(ByteBuffer journal, int at) {
+        int ordinal = journal.get(at + 24);
+        TeleportJournal.Event[] events = TeleportJournal.Event.values();
+        return ordinal >= 0 && ordinal < events.length ? events[ordinal].name() : "EVENT_" + ordinal;
+    }
+
+    private static String outcome(ByteBuffer journal, int at) {
+        int ordinal = journal.get(at + 25);
+        TeleportJournal.Outcome[] outcomes = TeleportJournal.Outcome.values();
+        return ordinal >= 0 && ordinal < outcomes.length ? outcomes[ordinal].name() : "OUTCOME_" + ordinal;
+    }
+
+    private static String dimension(byte code) {
+        int index = code & 0xFF;
+        return index < DIMENSIONS.length ? DIMENSIONS[index] : "other";
+    }
+
+    private static final class Summary {
+        private long records;
+        private long firstMillis = Long.MAX_VALUE, lastMillis = Long.MIN_VALUE;
+        private final Map<String, Long> byOutcome = new TreeMap<>();
+        private final Map<String, Long> teleportsByRoute = new TreeMap<>();
+        // Sum, count and max of each phase, over the events that measured it
+        private final long[][] phases = new long[3][3];
+
+        void add(ByteBuffer journal, int at) {
+            records++;
+            long millis = journal.getLong(at);
+            firstMillis = Math.min(firstMillis, millis);
+            lastMillis = Math.max(lastMillis, millis);
+
+            String event = event(journal, at);
+            byOutcome.merge(event + " " + outcome(journal, at), 1L, Long::sum);
+            if (event.equals(TeleportJournal.Event.TELEPORT.name())) {
+                teleportsByRoute.merge(dimension(journal.get(at + 26)) + " -> " + dimension(journal.get(at + 27)), 1L, Long::sum);
+            }
+
+            // Each phase once, from the event that finishes it
+            int phase = switch (event) {
+                case "DETECTED" -> 0;
+                case "SEARCH" -> 1;
+                case "SAFETY" -> 2;
+                default -> -1;
+            };
+            if (phase >= 0) {
+                long micros = journal.getInt(at + 104 + phase * 4);
+                phases[phase][0] += micros;
+                phases[phase][1]++;
+                phases[phase][2] = Math.max(phases[phase][2], micros);
+            }
+        }
+
+        void print() {
+            if (records == 0) {
+                System.out.println("No records");
+                return;
+            }
+            System.out.println(records + " records from " + Instant.ofEpochMilli(firstMillis) + " to " + Instant.ofEpochMilli(lastMillis));
+            System.out.println();
+            System.out.println("Events:");
+            byOutcome.forEach((key, value) -> System.out.printf(Locale.ROOT, "  %-40s %d%n", key, value));
+            System.out.println();
+            System.out.println("Teleports:");
+            teleportsByRoute.forEach((key, value) -> System.out.printf(Locale.ROOT, "  %-40s %d%n", key, value));
+            System.out.println();
+            System.out.println("Phase timings (µs):");
+            String[] names = {"detection", "exit search", "safety check"};
+            for (int phase = 0; phase < names.length; phase++) {
+                long[] stats = phases[phase];
+                if (stats[1] == 0) continue;
+                System.out.printf(Locale.ROOT, "  %-14s avg %8.1f  max %8d  (%d measured)%n",
+                        names[phase], (double) stats[0] / stats[1], stats[2], stats[1]);
+            }
+        }
+    }
+}
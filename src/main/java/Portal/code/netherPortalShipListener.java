@@ -12,173 +12,574 @@ import org.joml.Vector3d;
 import org.joml.Vector3dc;
 import org.joml.primitives.AABBd;
 import org.joml.primitives.AABBdc;
-import org.joml.primitives.AABBic;
 import org.valkyrienskies.core.api.ships.LoadedServerShip;
 import org.valkyrienskies.core.api.ships.Ship;
 
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.NetherPortalBlock;
-
+import net.minecraft.world.level.border.WorldBorder;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.entity.ai.village.poi.PoiManager;
+import net.minecraft.world.entity.ai.village.poi.PoiRecord;
+import net.minecraft.world.entity.ai.village.poi.PoiTypes;
+import net.minecraft.resources.ResourceKey;
+import Portal.code.PortalRegistry.PortalFrame;
+
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.event.TagsUpdatedEvent;
 import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.level.BlockEvent;
+import net.minecraftforge.event.level.ChunkEvent;
+import net.minecraftforge.event.server.ServerStoppedEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 import org.valkyrienskies.core.api.ships.properties.ShipTransform;
 import org.valkyrienskies.core.apigame.world.ServerShipWorldCore;
 import org.valkyrienskies.mod.common.VSGameUtilsKt;
 
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.Stream;
 
 @Mod("valkerian_nether_portals")
 public class netherPortalShipListener {
 
-    private final Map<Long, Integer> portalCooldownMap = new HashMap<>();
+    // Next portal check of every loaded ship, by server tick
+    private final ShipCheckScheduler checkScheduler = new ShipCheckScheduler();
+    // VS dimension id -> level, refreshed with the scheduled ships
+    private final Map<String, ServerLevel> shipLevels = new HashMap<>();
+    private ServerShipWorldCore shipObjectWorld;
+    private long nextShipSyncTick = 0;
+    // Backlog stats for the per-tick check budget, reported every BACKLOG_REPORT_TICKS
+    private static final long BACKLOG_REPORT_TICKS = 200;
+    private long nextBacklogReportTick = 0;
+    private int ticksOverBudget = 0;
+    private long maxCheckLateness = 0;
+    // Checks are planned for half the time a ship needs to reach a portal at its current speed
+    private static final double CHECK_SAFETY_FACTOR = 0.5;
     private final Map<Long, BlockPos> lastKnownPositions = new HashMap<>();
-    private final Map<BlockPos, Long> portalCache = new HashMap<>();
-    private long lastCacheClear = System.currentTimeMillis();
+    // World bounds of each ship at its previous portal check, for the swept detection
+    private final Long2ObjectMap<SweptBox> previousShipBoxes = new Long2ObjectOpenHashMap<>();
+    private final ShipSampleLattice sampleLattice = new ShipSampleLattice();
+    private final BlockPos.MutableBlockPos sampleScratchPos = new BlockPos.MutableBlockPos();
+    // Anything further than this between two checks was a teleport, not flight
+    private static final double MAX_SWEEP_DISTANCE = 256.0;
+    // Exit searches running on worker threads, and the portal hits of ships waiting on them
+    private final PortalSearchService portalSearch = new PortalSearchService(this::isFrameIntact);
+    private final Long2ObjectMap<HeldPortalHit> heldPortalHits = new Long2ObjectOpenHashMap<>();
+    // A ship waiting on a background search is looked at again this often, and gives up after HELD_HIT_TICKS
+    private static final int SEARCH_RECHECK_TICKS = 5;
+    private static final long HELD_HIT_TICKS = 300;
+    private static final PortalInfo SEARCH_PENDING = new PortalInfo();
+    // Exit chunks loaded ahead of ships closing in on a portal
+    private final ExitChunkPrewarmer exitPrewarmer = new ExitChunkPrewarmer();
+    // Portals lit since the last tick, measured once their blocks actually exist
+    private final List<PendingPortal> pendingPortalMeasurements = new ArrayList<>();
+    // Chunks loaded since the last tick, used to re-check portal frames read from disk
+    private final Queue<PendingChunk> loadedChunks = new ConcurrentLinkedQueue<>();
 
 
     public netherPortalShipListener() {
         MinecraftForge.EVENT_BUS.register(this);
         Config.load();
 
+        // Portal cooldowns are part of the schedule, a ship on cooldown is just scheduled later
+        PortalMetrics.gauge("scheduledShips", checkScheduler::size);
+        PortalMetrics.gauge("heldPortalHits", heldPortalHits::size);
+        PortalMetrics.gauge("previousShipBoxes", previousShipBoxes::size);
+        PortalMetrics.gauge("lastKnownPositions", lastKnownPositions::size);
+        PortalMetrics.gauge("sampleLattices", sampleLattice::size);
+        PortalMetrics.gauge("pendingPortalMeasurements", pendingPortalMeasurements::size);
+        PortalMetrics.gauge("activePortalSearches", portalSearch::getActiveCount);
+        PortalMetrics.gauge("activeTeleports", ShipTeleportationUtils::getActiveTeleportCount);
+        PortalMetrics.gauge("indexedHelmShips", ShipHelmIndex::size);
+        PortalMetrics.register();
+
+    }
+
+    @SubscribeEvent
+    public void onPortalSpawn(BlockEvent.PortalSpawnEvent event) {
+        // Fired before the portal blocks are placed, so only remember where to look
+        if (event.getLevel() instanceof ServerLevel level) {
+            pendingPortalMeasurements.add(new PendingPortal(level.dimension(), event.getPos().immutable()));
+        }
+    }
+
+    @SubscribeEvent
+    public void onNeighborNotify(BlockEvent.NeighborNotifyEvent event) {
+        // Covers portal blocks collapsing and frame blocks being broken or blown up
+        if (event.getLevel() instanceof ServerLevel level) {
+            PortalRegistry registry = PortalRegistry.peek(level);
+            if (registry != null) {
+                registry.onBlockChanged(event.getPos());
+            }
+            // Helms placed on or removed from ships
+            ShipHelmIndex.onBlockChanged(level, event.getPos(), event.getState());
+        }
+    }
+
+    @SubscribeEvent
+    public void onChunkLoad(ChunkEvent.Load event) {
+        if (event.getLevel() instanceof ServerLevel level && event.getChunk() instanceof LevelChunk chunk) {
+            loadedChunks.add(new PendingChunk(level.dimension(), chunk.getPos().x, chunk.getPos().z));
+        }
+    }
+
+    @SubscribeEvent
+    public void onRegisterCommands(RegisterCommandsEvent event) {
+        PortalSkiesCommand.register(event.getDispatcher());
+    }
+
+    @SubscribeEvent
+    public void onTagsUpdated(TagsUpdatedEvent event) {
+        // Server start and every /reload, the client's copy of the tags doesn't matter here
+        if (event.getUpdateCause() == TagsUpdatedEvent.UpdateCause.SERVER_DATA_LOAD) {
+            BlockClassification.rebuild();
+            EntityClassification.clear();
+        }
+    }
+
+    @SubscribeEvent
+    public void onServerStopped(ServerStoppedEvent event) {
+        PortalRegistry.clearAll();
+        ShipSpatialIndex.clearAll();
+        ShipHelmIndex.clearAll();
+        pendingPortalMeasurements.clear();
+        loadedChunks.clear();
+        previousShipBoxes.clear();
+        sampleLattice.clear();
+        checkScheduler.clear();
+        portalSearch.shutdown();
+        ShipTeleportationUtils.clearTeleports();
+        heldPortalHits.clear();
+        exitPrewarmer.clear();
+        shipLevels.clear();
+        shipObjectWorld = null;
+        nextShipSyncTick = 0;
+        nextBacklogReportTick = 0;
+        ticksOverBudget = 0;
+        maxCheckLateness = 0;
+        TeleportJournal.close();
+        PhaseStats.reset();
+        // Writes out the queued log lines
+        Logger.close();
     }
-    private static int tickcount = 1;
 
     @SubscribeEvent
     public void onServerTick(TickEvent.ServerTickEvent event) {
        // if (event.phase != TickEvent.Phase.END) return;
 
-        // Reduce check frequency using config value
         var server = net.minecraftforge.server.ServerLifecycleHooks.getCurrentServer();
-        if ( tickcount% Config.CHECK_INTERVAL_TICKS != 0){tickcount++;Logger.sendMessage("returning due to not time yet "+tickcount+" server ticks= "+server.getTickCount(),false); return;}
-        tickcount=1;
-        Logger.sendMessage("------time to check do the checks now-----",false);
-        // Clear cache periodically using config value
-        long currentTime = System.currentTimeMillis();
-        if (currentTime - lastCacheClear > Config.CACHE_CLEAR_INTERVAL) {
-            portalCache.clear();
+        measurePendingPortals(server);
+        verifyLoadedChunks(server);
+        // The budget is per server tick, so only drain the queue once
+        if (event.phase != TickEvent.Phase.END) return;
+        portalSearch.tick(server);
+        ShipTeleportationUtils.tickTeleports();
+
+        long now = server.getTickCount();
+        // Pick up newly loaded ships once per check interval, everything else comes off the queue
+        if (now >= nextShipSyncTick) {
+            nextShipSyncTick = now + Math.max(1, Config.CHECK_INTERVAL_TICKS);
+            syncScheduledShips(server, now);
+            sampleLattice.prune(now);
+            exitPrewarmer.prune(now);
+        }
 
-            lastCacheClear = currentTime;
+        // The queue is the cursor: whatever doesn't fit the budget stays due, oldest first
+        long budgetNanos = Config.SHIP_CHECK_BUDGET_MICROS * 1000L;
+        long started = System.nanoTime();
+        int checked = 0;
+        long shipId;
+        while ((checked == 0 || budgetNanos <= 0 || System.nanoTime() - started < budgetNanos)
+                && (shipId = checkScheduler.pollDue(now)) != -1) {
+            checked++;
+            maxCheckLateness = Math.max(maxCheckLateness, now - checkScheduler.getLastPolledTick());
+
+            Ship ship = shipObjectWorld == null ? null : shipObjectWorld.getLoadedShips().getById(shipId);
+            ServerLevel world = ship == null ? null : shipLevels.get(ship.getChunkClaimDimension());
+            if (world == null) {
+                // Unloaded, deleted or in a dimension without nether portals
+                forgetShip(shipId);
+                continue;
+            }
+
+            // Every check of every ship, don't even box the id unless it's going somewhere
+            if (Logger.isEnabled(Logger.Level.TRACE)) {
+                Logger.trace("checking ship is in portal: id =%d", shipId);
+            }
+            if (!checkShipForPortal(server, ship, world)) {
+                checkScheduler.schedule(shipId, now + nextCheckDelay(ship, world));
+            }
         }
 
+        PortalMetrics.shipChecks(checked);
+
+        // Ships that hit portals this tick leave together, per target dimension
+        ShipTeleportationUtils.flushTeleportBatches();
+
+        if (checkScheduler.hasDue(now)) {
+            ticksOverBudget++;
+        }
+        reportCheckBacklog(now);
+    }
+
+    // Logs how far behind the budgeted checks are, once per report window and only when they were behind
+    private void reportCheckBacklog(long now) {
+        if (now < nextBacklogReportTick) return;
+        nextBacklogReportTick = now + BACKLOG_REPORT_TICKS;
+
+        if (ticksOverBudget > 0) {
+            Logger.debug(() -> "[Portal Skies] Ship checks over budget on " + ticksOverBudget + " of the last " + BACKLOG_REPORT_TICKS +
+                    " ticks: " + checkScheduler.countDue(now) + " ships waiting, worst check ran " + maxCheckLateness + " ticks late");
+        }
+        ticksOverBudget = 0;
+        maxCheckLateness = 0;
+    }
+
+    // Schedules ships that loaded since the last pass and refreshes which level each dimension id belongs to
+    private void syncScheduledShips(net.minecraft.server.MinecraftServer server, long now) {
+        shipLevels.clear();
+        shipObjectWorld = null;
         for (ServerLevel world : server.getAllLevels()) {
-           if(world.dimension()!=Level.OVERWORLD&&world.dimension()!=Level.NETHER){
-               continue;
+            if (world.dimension() != Level.OVERWORLD && world.dimension() != Level.NETHER) {
+                continue;
             }
             ServerShipWorldCore shipWorld = VSGameUtilsKt.getShipObjectWorld(world);
             if (shipWorld == null) continue;
 
-            // RESTORED: Original ship copying method
-            List<Ship> shipsCopy = new ArrayList<>();
-            Logger.sendMessage("ships in dimension "+world.dimension().toString()+"\n"+shipWorld.getLoadedShips().size(),false);
-            for (Ship ship : shipWorld.getLoadedShips()) {
-                shipsCopy.add(ship);
-            }
+            // Ships report their dimension by VS dimension id, not by level
+            shipLevels.put(VSGameUtilsKt.getDimensionId(world), world);
+            shipObjectWorld = shipWorld;
+        }
+        if (shipObjectWorld == null) return;
+
+        int added = 0;
+        for (Ship ship : shipObjectWorld.getLoadedShips()) {
+            if (checkScheduler.isScheduled(ship.getId()) || !shipLevels.containsKey(ship.getChunkClaimDimension())) continue;
+            checkScheduler.schedule(ship.getId(), now);
+            added++;
+        }
+        if (added > 0) {
+            int scheduled = added;
+            Logger.debug(() -> "[Portal Skies] Scheduled " + scheduled + " new ships, " + checkScheduler.size() + " ships tracked");
+        }
+    }
 
-            for (Ship ship : shipsCopy) {
-                long shipId = ship.getId();
+    /**
+     * Ticks until this ship could first reach a known portal, with a safety margin. Ships touching
+     * a portal's surroundings get checked every tick; ships with no known portal in reach wait the
+     * full check interval. Parked ships wait the parked interval unless they're inside a portal.
+     * Moving ships about to reach a portal also get its exit chunks loaded.
+     */
+    private long nextCheckDelay(Ship ship, ServerLevel world) {
+        int maxDelay = Math.max(1, Config.CHECK_INTERVAL_TICKS);
+        AABBdc box = ship.getWorldAABB();
+        if (box == null) return maxDelay;
 
-               // if(!isShipInLoadedChunks(ship, world)) {
-               //     continue;
-               // }
-                // Skip ships on cooldown using config value
-                int cooldown = portalCooldownMap.getOrDefault(shipId, 0);
-                Logger.sendMessage("checking ship is in portal: id ="+shipId+" Cool down= "+cooldown ,true);
+        // Velocity is in blocks per second, the threshold in blocks per tick
+        Vector3dc velocity = ship.getVelocity();
+        double blocksPerTick = velocity.length() / 20.0;
+        boolean parked = blocksPerTick < Config.MIN_MOVEMENT_THRESHOLD;
+        long parkedDelay = Math.max(maxDelay, Config.PARKED_CHECK_INTERVAL_TICKS);
+        double assumedSpeed = Math.max(blocksPerTick, Math.max(Config.MIN_MOVEMENT_THRESHOLD, 0.01));
+
+        double reach = assumedSpeed * maxDelay / CHECK_SAFETY_FACTOR + 1.0;
+        if (Config.PREWARM_EXIT_CHUNKS && !parked) reach = Math.max(reach, Config.PREWARM_DISTANCE);
+        NearestPortal nearest = distanceToNearestPortal(world, box, Math.min(reach, MAX_SWEEP_DISTANCE));
+        if (nearest == null) {
+            return parked ? parkedDelay : maxDelay;
+        }
 
-                if (cooldown > 0) {
-                    portalCooldownMap.put(shipId, portalCooldownMap.get(shipId) - Config.CHECK_INTERVAL_TICKS);
-                    continue;
-                }
+        // Parked next to a portal is still parked, only a ship already inside one needs the quick recheck
+        double distance = nearest.distance();
+        if (parked && distance > 0) return parkedDelay;
+
+        if (Config.PREWARM_EXIT_CHUNKS && !parked && distance <= Config.PREWARM_DISTANCE
+                && distance / blocksPerTick <= Config.PREWARM_LEAD_TICKS) {
+            exitPrewarmer.prewarm(world, nearest.frame(), world.getServer().getTickCount());
+        }
 
+        long ticks = (long) Math.floor(distance / assumedSpeed * CHECK_SAFETY_FACTOR);
+        return Math.max(1, Math.min(ticks, maxDelay));
+    }
 
+    // Closest registered portal within reach and the gap between it and the ship's world box, or null
+    private NearestPortal distanceToNearestPortal(ServerLevel world, AABBdc box, double reach) {
+        List<PortalFrame> frames = PortalRegistry.get(world).findInBox(
+                (int) Math.floor(box.minX() - reach), (int) Math.floor(box.minY() - reach), (int) Math.floor(box.minZ() - reach),
+                (int) Math.floor(box.maxX() + reach), (int) Math.floor(box.maxY() + reach), (int) Math.floor(box.maxZ() + reach));
+
+        double best = Double.MAX_VALUE;
+        PortalFrame nearest = null;
+        for (PortalFrame frame : frames) {
+            double gapX = Math.max(0, Math.max(frame.minX() - box.maxX(), box.minX() - (frame.maxX() + 1)));
+            double gapY = Math.max(0, Math.max(frame.minY() - box.maxY(), box.minY() - (frame.maxY() + 1)));
+            double gapZ = Math.max(0, Math.max(frame.minZ() - box.maxZ(), box.minZ() - (frame.maxZ() + 1)));
+            double distance = Math.sqrt(gapX * gapX + gapY * gapY + gapZ * gapZ);
+            if (distance < best) {
+                best = distance;
+                nearest = frame;
+            }
+        }
+        return nearest == null ? null : new NearestPortal(best, nearest);
+    }
 
-                PortalCheckResult portalResult = isShipInPortalWithThreshold(ship, world);
-                if (portalResult.isInPortal) {
-                    // SIMPLE CHECK: Skip if this ship is inside any other ship in the same dimension
-                    if (checkIfShipIsInBiggerShip(ship, shipWorld, world)) {
-                        Logger.sendMessage("[Portal Skies] Skipping ship " + shipId + " - it's inside a larger ship", false);
-                        continue;
-                    }
+    private void forgetShip(long shipId) {
+        checkScheduler.remove(shipId);
+        previousShipBoxes.remove(shipId);
+        sampleLattice.remove(shipId);
+        lastKnownPositions.remove(shipId);
+        heldPortalHits.remove(shipId);
+        ShipHelmIndex.remove(shipId);
+    }
 
-                    // Proceed with teleportation...
-                    double scale = 1.0;
-                    ServerLevel targetWorld = null;
+    /**
+     * Runs the portal check for one ship and teleports it when it's in a usable portal.
+     * Returns true when the ship was teleported, its next check is already scheduled then.
+     */
+    private boolean checkShipForPortal(net.minecraft.server.MinecraftServer server, Ship ship, ServerLevel world) {
+        long shipId = ship.getId();
+        ServerShipWorldCore shipWorld = shipObjectWorld;
+        long now = server.getTickCount();
+
+        // A ship waiting on a background exit search keeps the hit that started it
+        HeldPortalHit held = heldPortalHits.remove(shipId);
+        if (held != null && (held.dimension() != world.dimension() || now - held.tick() > HELD_HIT_TICKS)) {
+            held = null;
+        }
+        long detectStart = System.nanoTime();
+        PortalCheckResult portalResult = held != null ? held.result() : isShipInPortalWithThreshold(ship, world);
+        long detectNanos = System.nanoTime() - detectStart;
+        if (held == null) PhaseStats.record(PhaseStats.Phase.DETECTION, detectNanos);
+        if (portalResult.isInPortal) {
+            // Filled in as we go and written at every decision, handed on with the teleport request
+            TeleportJournal.Record journal = new TeleportJournal.Record();
+            journal.shipId = shipId;
+            journal.sourceDimension = TeleportJournal.dimension(world.dimension());
+            var shipPos = ship.getTransform().getPositionInWorld();
+            journal.x = shipPos.x();
+            journal.y = shipPos.y();
+            journal.z = shipPos.z();
+            // A held hit was already detected and written when the search started
+            boolean detected = held == null;
+            journal.detectNanos = detected ? detectNanos : 0;
+
+            // SIMPLE CHECK: Skip if this ship is inside any other ship in the same dimension
+            if (checkIfShipIsInBiggerShip(ship, shipWorld, world)) {
+                Logger.debug(() -> "[Portal Skies] Skipping ship " + shipId + " - it's inside a larger ship");
+                TeleportJournal.append(TeleportJournal.Event.DETECTED, TeleportJournal.Outcome.INSIDE_OTHER_SHIP, now, journal);
+                return retryLater(server, shipId);
+            }
 
-                    var currentDim = world.dimension().location().toString();
+            // Proceed with teleportation...
+            double scale = 1.0;
+            ServerLevel targetWorld = null;
 
-                    if (currentDim.equals("minecraft:the_nether")) {
-                        targetWorld = server.getLevel(Level.OVERWORLD);
-                        scale = 8.0;
-                        Logger.sendMessage("[Portal Skies] Ship detected in Nether portal - preparing to teleport to Overworld!", true);
-                    } else if (currentDim.equals("minecraft:overworld")) {
-                        targetWorld = server.getLevel(Level.NETHER);
-                        scale = 0.125;
-                        Logger.sendMessage("[Portal Skies] Ship detected in Nether portal - preparing to teleport to Nether!", true);
-                    } else {
-                        continue;
+            var currentDim = world.dimension().location().toString();
+
+            if (currentDim.equals("minecraft:the_nether")) {
+                targetWorld = server.getLevel(Level.OVERWORLD);
+                scale = 8.0;
+                Logger.info("[Portal Skies] Ship detected in Nether portal - preparing to teleport to Overworld!");
+            } else if (currentDim.equals("minecraft:overworld")) {
+                targetWorld = server.getLevel(Level.NETHER);
+                scale = 0.125;
+                Logger.info("[Portal Skies] Ship detected in Nether portal - preparing to teleport to Nether!");
+            } else {
+                TeleportJournal.append(TeleportJournal.Event.DETECTED, TeleportJournal.Outcome.NO_TARGET_DIMENSION, now, journal);
+                return retryLater(server, shipId);
+            }
+            journal.targetDimension = TeleportJournal.dimension(targetWorld.dimension());
+
+            PortalInfo portalInfo = analyzePortalSize(world, portalResult.portalCenter);
+            registerPortal(world, portalInfo);
+            Vector3d portalCentVect = calculateExactPortalCenter(portalInfo, world);
+            BlockPos portalCenter = getBlockPositionFromWorldPos(portalCentVect);
+
+            long validateStart = System.nanoTime();
+            PortalInfo currentWorldPortal = validatePortalForShip(portalInfo, ship, world, portalCenter);
+            PhaseStats.record(PhaseStats.Phase.SOURCE_VALIDATION, System.nanoTime() - validateStart);
+            journal.sourcePortalX = portalCenter.getX();
+            journal.sourcePortalY = portalCenter.getY();
+            journal.sourcePortalZ = portalCenter.getZ();
+            journal.sourcePortalWidth = portalInfo.actualWidth;
+            journal.sourcePortalHeight = portalInfo.actualHeight;
+            if (detected) {
+                TeleportJournal.append(TeleportJournal.Event.DETECTED,
+                        currentWorldPortal.isValid ? TeleportJournal.Outcome.OK : TeleportJournal.Outcome.SOURCE_TOO_SMALL, now, journal);
+            }
+
+
+            if (targetWorld != null && currentWorldPortal.isValid) {
+                try {
+                    // A held hit is the same search still going
+                    if (detected) PortalMetrics.searchStarted();
+                    long searchStart = System.nanoTime();
+                    PortalInfo targetPortalInfo = findAndValidatePortal(portalInfo,portalCenter, world, targetWorld, scale, ship);
+                    if (targetPortalInfo != SEARCH_PENDING) {
+                        PortalMetrics.searchFinished(targetPortalInfo != null && targetPortalInfo.isValid);
                     }
+                    journal.searchNanos = System.nanoTime() - searchStart;
+                    PhaseStats.record(PhaseStats.Phase.DESTINATION_SEARCH, journal.searchNanos);
+                    if (targetPortalInfo != null && targetPortalInfo != SEARCH_PENDING && targetPortalInfo.portalCenter != null) {
+                        journal.targetPortalX = targetPortalInfo.portalCenter.getX();
+                        journal.targetPortalY = targetPortalInfo.portalCenter.getY();
+                        journal.targetPortalZ = targetPortalInfo.portalCenter.getZ();
+                        journal.targetPortalWidth = targetPortalInfo.actualWidth;
+                        journal.targetPortalHeight = targetPortalInfo.actualHeight;
+                    }
+                    if (targetPortalInfo == SEARCH_PENDING) {
+                        TeleportJournal.append(TeleportJournal.Event.SEARCH, TeleportJournal.Outcome.SEARCH_PENDING, now, journal);
+                        heldPortalHits.put(shipId, new HeldPortalHit(world.dimension(), portalResult, held != null ? held.tick() : now));
+                        checkScheduler.schedule(shipId, now + SEARCH_RECHECK_TICKS);
+                        return true;
+                    }
+                    targetPortalInfo.shipLength=currentWorldPortal.shipLength;
+                    targetPortalInfo.shipWidth=currentWorldPortal.shipWidth;
+                    if (targetPortalInfo != null && targetPortalInfo.isValid) {
+                        TeleportPositionResult positionResult = calculateTeleportPosition(targetPortalInfo, ship, portalResult.contactPosition, currentWorldPortal.portalCenter, world, targetWorld);
+
+                        String targetDim = targetWorld.dimension().location().toString();
+                        Logger.info(() -> "[Portal Skies] Teleporting ship " + shipId + " from " + getDimensionDisplayName(currentDim) +
+                                " to " + getDimensionDisplayName(targetDim));
+
+                        Logger.info(() -> "[Portal Skies] Teleporting to exact position: " +
+                                String.format("%.2f, %.2f, %.2f",
+                                        positionResult.exactTeleportPos.x,
+                                        positionResult.exactTeleportPos.y,
+                                        positionResult.exactTeleportPos.z) +
+                                " (facing: " + positionResult.exitDirection + ")");
+
+                        Direction.Axis sourceAxis = getPortalAxisAt(world, portalResult.portalCenter);
+                        Direction.Axis targetAxis = targetPortalInfo.axis;
+
+                        float rotationAngle = calculateOptimalRotation(ship, sourceAxis, targetAxis, positionResult.exitDirection);
+                        journal.targetX = positionResult.exactTeleportPos.x;
+                        journal.targetY = positionResult.exactTeleportPos.y;
+                        journal.targetZ = positionResult.exactTeleportPos.z;
+                        journal.rotation = rotationAngle;
+                        TeleportJournal.append(TeleportJournal.Event.SEARCH, TeleportJournal.Outcome.OK, now, journal);
+
+                        Logger.info(() -> "[Portal Skies] - Target portal axis: " + targetAxis);
+                        Logger.info(() -> "[Portal Skies] - Applying rotation: " + rotationAngle + "°");
+
+                        ShipTeleportationUtils.teleportShipWithFallback(ship, world, targetWorld, positionResult.exactTeleportPos, rotationAngle, journal);
+
+                        Logger.info(() -> "[Portal Skies] DEBUG: Calling teleportShipWithFallback with rotation: " + rotationAngle + "°");
+                        Logger.info("[Portal Skies] DEBUG: teleport queued, leaves with this tick's batch");
+                        // The cooldown is simply the ship's next check
+                        checkScheduler.schedule(shipId, server.getTickCount() + Math.max(1, Config.PORTAL_COOLDOWN_TICKS));
+                        // Don't sweep from the exit portal back into it on the first check after arriving
+                        SweptBox arrived = new SweptBox();
+                        arrived.dimension = targetWorld.dimension();
+                        previousShipBoxes.put(shipId, arrived);
+                        return true;
 
-                    PortalInfo portalInfo = analyzePortalSize(world, portalResult.portalCenter);
-                    Vector3d portalCentVect = calculateExactPortalCenter(portalInfo, world);
-                    BlockPos portalCenter = getBlockPositionFromWorldPos(portalCentVect);
-
-                    PortalInfo currentWorldPortal = validatePortalForShip(portalInfo, ship, world, portalCenter);
-
-
-                    if (targetWorld != null && currentWorldPortal.isValid) {
-                        try {
-                            PortalInfo targetPortalInfo = findAndValidatePortal(portalInfo,portalCenter, world, targetWorld, scale, ship);
-                            targetPortalInfo.shipLength=currentWorldPortal.shipLength;
-                            targetPortalInfo.shipWidth=currentWorldPortal.shipWidth;
-                            if (targetPortalInfo != null && targetPortalInfo.isValid) {
-                                TeleportPositionResult positionResult = calculateTeleportPosition(targetPortalInfo, ship, currentWorldPortal.portalCenter, world, targetWorld);
-
-                                Logger.sendMessage("[Portal Skies] Teleporting ship " + shipId + " from " + getDimensionDisplayName(currentDim) +
-                                        " to " + getDimensionDisplayName(targetWorld.dimension().location().toString()), true);
-
-                                Logger.sendMessage("[Portal Skies] Teleporting to exact position: " +
-                                        String.format("%.2f, %.2f, %.2f",
-                                                positionResult.exactTeleportPos.x,
-                                                positionResult.exactTeleportPos.y,
-                                                positionResult.exactTeleportPos.z) +
-                                        " (facing: " + positionResult.exitDirection + ")", true);
-
-                                Direction.Axis sourceAxis = getPortalAxisAt(world, portalResult.portalCenter);
-                                Direction.Axis targetAxis = targetPortalInfo.axis;
-
-                                float rotationAngle = calculateOptimalRotation(ship, sourceAxis, targetAxis, positionResult.exitDirection);
-
-                                Logger.sendMessage("[Portal Skies] - Target portal axis: " + targetAxis, true);
-                                Logger.sendMessage("[Portal Skies] - Applying rotation: " + rotationAngle + "°", true);
-
-                                ShipTeleportationUtils.teleportShipWithFallback(ship, world, targetWorld, positionResult.exactTeleportPos, rotationAngle);
-
-                                Logger.sendMessage("[Portal Skies] DEBUG: Calling teleportShipWithFallback with rotation: " + rotationAngle + "°", true);
-                                Logger.sendMessage("[Portal Skies] DEBUG: teleportShipWithFallback completed", true);
-                                portalCooldownMap.put(shipId, Config.PORTAL_COOLDOWN_TICKS);
-                                Logger.startNewLogFile();
-
-                            } else {
-                                if (targetPortalInfo == null) {
-                                    Logger.sendMessage("[Portal Skies] No suitable portal found for ship " + shipId, true);
-                                } else {
-                                    Logger.sendMessage("[Portal Skies] Target portal too small for ship " + shipId +
-                                            " (needs " + targetPortalInfo.requiredWidth + "x" + targetPortalInfo.requiredHeight + ", has " +
-                                            targetPortalInfo.actualWidth + "x" + targetPortalInfo.actualHeight + ")", true);
-                                }
-                            }
-                        } catch (Exception e) {
-                            Logger.sendMessage("[Portal Skies] Error during portal processing: " + e.getMessage(), true);
-                            e.printStackTrace();
+                    } else {
+                        TeleportJournal.append(TeleportJournal.Event.SEARCH, targetPortalInfo == null ?
+                                TeleportJournal.Outcome.NO_PORTAL : TeleportJournal.Outcome.TARGET_TOO_SMALL, now, journal);
+                        if (targetPortalInfo == null) {
+                            Logger.info(() -> "[Portal Skies] No suitable portal found for ship " + shipId);
+                        } else {
+                            Logger.info(() -> "[Portal Skies] Target portal too small for ship " + shipId +
+                                    " (needs " + targetPortalInfo.requiredWidth + "x" + targetPortalInfo.requiredHeight + ", has " +
+                                    targetPortalInfo.actualWidth + "x" + targetPortalInfo.actualHeight + ")");
                         }
                     }
+                } catch (Exception e) {
+                    TeleportJournal.append(TeleportJournal.Event.SEARCH, TeleportJournal.Outcome.ERROR, now, journal);
+                    Logger.warn(() -> "[Portal Skies] Error during portal processing: " + e.getMessage());
+                    e.printStackTrace();
                 }
             }
+            // In a portal but not going anywhere, no point checking it every tick
+            return retryLater(server, shipId);
+        }
+        return false;
+    }
+
+    private boolean retryLater(net.minecraft.server.MinecraftServer server, long shipId) {
+        checkScheduler.schedule(shipId, server.getTickCount() + Math.max(1, Config.CHECK_INTERVAL_TICKS));
+        return true;
+    }
+
+    private void measurePendingPortals(net.minecraft.server.MinecraftServer server) {
+        if (pendingPortalMeasurements.isEmpty()) return;
+
+        for (PendingPortal pending : pendingPortalMeasurements) {
+            ServerLevel level = server.getLevel(pending.dimension());
+            if (level == null || !isPortalBlockFast(level, pending.pos())) continue;
+
+            registerPortal(level, analyzePortalSize(level, pending.pos()));
+        }
+        pendingPortalMeasurements.clear();
+    }
+
+    private void verifyLoadedChunks(net.minecraft.server.MinecraftServer server) {
+        PendingChunk pending;
+        while ((pending = loadedChunks.poll()) != null) {
+            ServerLevel level = server.getLevel(pending.dimension());
+            if (level == null) continue;
+
+            // Registries load lazily, chunks loaded before the first lookup get checked on use instead
+            PortalRegistry registry = PortalRegistry.peek(level);
+            if (registry == null || !registry.needsChunkChecks()) continue;
+
+            registry.verifyChunk(level, pending.chunkX(), pending.chunkZ(), frame -> isFrameIntact(level, frame));
         }
     }
+
+    private void registerPortal(ServerLevel world, PortalInfo info) {
+        if (info == null || !info.isValid) return;
+
+        PortalRegistry.get(world).register(toPortalFrame(info));
+        Logger.debug(() -> "[Portal Skies] Registered portal " + info.actualWidth + "x" + info.actualHeight +
+                " at " + info.minX + ", " + info.minY + ", " + info.minZ + " in " + world.dimension().location());
+    }
+
+    private static PortalFrame toPortalFrame(PortalInfo info) {
+        return new PortalFrame(info.minX, info.minY, info.minZ, info.axis, info.actualWidth, info.actualHeight);
+    }
+
+    private static PortalInfo toPortalInfo(PortalFrame frame) {
+        PortalInfo info = new PortalInfo();
+        info.portalCenter = frame.center();
+        info.axis = frame.axis();
+        info.minX = frame.minX();
+        info.maxX = frame.maxX();
+        info.minY = frame.minY();
+        info.maxY = frame.maxY();
+        info.minZ = frame.minZ();
+        info.maxZ = frame.maxZ();
+        info.actualWidth = frame.width();
+        info.actualHeight = frame.height();
+        info.isValid = true;
+        return info;
+    }
+
+    // Cheap check that a registered frame still has the same portal blocks and hasn't grown
+    private boolean isFrameIntact(ServerLevel world, PortalFrame frame) {
+        Direction.Axis axis = frame.axis();
+        int stepX = axis == Direction.Axis.X ? 1 : 0;
+        int stepZ = axis == Direction.Axis.Z ? 1 : 0;
+
+        return isPortalBlockWithAxis(world, frame.center(), axis) &&
+                isPortalBlockWithAxis(world, new BlockPos(frame.minX(), frame.minY(), frame.minZ()), axis) &&
+                isPortalBlockWithAxis(world, new BlockPos(frame.maxX(), frame.maxY(), frame.maxZ()), axis) &&
+                !isPortalBlockWithAxis(world, new BlockPos(frame.minX() - stepX, frame.minY(), frame.minZ() - stepZ), axis) &&
+                !isPortalBlockWithAxis(world, new BlockPos(frame.maxX() + stepX, frame.maxY(), frame.maxZ() + stepZ), axis) &&
+                !isPortalBlockWithAxis(world, new BlockPos(frame.minX(), frame.minY() - 1, frame.minZ()), axis) &&
+                !isPortalBlockWithAxis(world, new BlockPos(frame.maxX(), frame.maxY() + 1, frame.maxZ()), axis);
+    }
+
     private boolean isShipInLoadedChunks(Ship ship, ServerLevel level) {
         try {
             // VS2 tracks which chunks ships are in - use their system
@@ -189,7 +590,7 @@ public class netherPortalShipListener {
             return true;
 
         } catch (Exception e) {
-            Logger.sendMessage("[Portal Skies] Error checking VS2 chunk loading: " + e.getMessage(), false);
+            Logger.debug(() -> "[Portal Skies] Error checking VS2 chunk loading: " + e.getMessage());
             return false;
         }
     }
@@ -198,8 +599,9 @@ public class netherPortalShipListener {
         Vector3dc velocity = ship.getVelocity();
         double speedSquared = velocity.x() * velocity.x() + velocity.y() * velocity.y() + velocity.z() * velocity.z();
 
-        // Skip ships moving very slowly using config value
-        if (speedSquared < Config.MIN_MOVEMENT_THRESHOLD * Config.MIN_MOVEMENT_THRESHOLD) {
+        // Skip ships moving very slowly using config value (blocks/tick, velocity is blocks/second)
+        double minSpeed = Config.MIN_MOVEMENT_THRESHOLD * 20.0;
+        if (speedSquared < minSpeed * minSpeed) {
             return false;
         }
 
@@ -223,10 +625,8 @@ public class netherPortalShipListener {
             AABBdc currentShipAABB = currentShip.getWorldAABB();
             if (currentShipAABB == null) return false;
 
-            // Get all ships in the same dimension
-            Collection<LoadedServerShip> allShipsInDimension = shipWorld.getLoadedShips();
-
-            for (Ship otherShip : allShipsInDimension) {
+            // Only ships overlapping this one can contain it
+            for (Ship otherShip : ShipSpatialIndex.query(world, currentShipAABB)) {
                 if (otherShip.getId() == currentShip.getId()) continue;
 
                 AABBdc otherShipAABB = otherShip.getWorldAABB();
@@ -234,14 +634,14 @@ public class netherPortalShipListener {
 
                 // Check if current ship is completely inside this other ship
                 if (isAABBCompletelyInside(currentShipAABB, otherShipAABB)) {
-                    Logger.sendMessage("[Portal Skies] Ship " + currentShip.getId() + " is inside ship " + otherShip.getId(), false);
+                    Logger.debug(() -> "[Portal Skies] Ship " + currentShip.getId() + " is inside ship " + otherShip.getId());
                     return true;
                 }
             }
 
             return false;
         } catch (Exception e) {
-            Logger.sendMessage("[Portal Skies] Error checking ship containment: " + e.getMessage(), false);
+            Logger.debug(() -> "[Portal Skies] Error checking ship containment: " + e.getMessage());
             return false;
         }
     }
@@ -262,15 +662,15 @@ public class netherPortalShipListener {
 
     // Calculate rotation DELTA values based on portal axis and exit direction
     private float calculateOptimalRotation(Ship ship, Direction.Axis sourceAxis, Direction.Axis targetAxis, Direction exitDirection) {
-        Logger.sendMessage("[Portal Skies] === ROTATION DELTA CALCULATION ===", true);
-        Logger.sendMessage("[Portal Skies] Source axis: " + sourceAxis + ", Target axis: " + targetAxis + ", Exit direction: " + exitDirection, true);
+        Logger.info("[Portal Skies] === ROTATION DELTA CALCULATION ===");
+        Logger.info(() -> "[Portal Skies] Source axis: " + sourceAxis + ", Target axis: " + targetAxis + ", Exit direction: " + exitDirection);
 
         float rotationDelta = 0.0f;
 
         if (sourceAxis == targetAxis) {
             // Same axis - no rotation needed
             rotationDelta = 0.0f;
-            Logger.sendMessage("[Portal Skies] Same axis - no rotation needed", true);
+            Logger.info("[Portal Skies] Same axis - no rotation needed");
         } else {
             // Different axis - always rotate 90° but direction depends on exit
             if (sourceAxis == Direction.Axis.X && targetAxis == Direction.Axis.Z) {
@@ -298,10 +698,12 @@ public class netherPortalShipListener {
                         break;
                 }
             }
-            Logger.sendMessage("[Portal Skies] " + sourceAxis + "→" + targetAxis + " exit " + exitDirection + " = " + rotationDelta + "°", true);
+            float delta = rotationDelta;
+            Logger.info(() -> "[Portal Skies] " + sourceAxis + "→" + targetAxis + " exit " + exitDirection + " = " + delta + "°");
         }
 
-        Logger.sendMessage("[Portal Skies] Rotation delta to apply: " + rotationDelta + "°", true);
+        float appliedDelta = rotationDelta;
+        Logger.info(() -> "[Portal Skies] Rotation delta to apply: " + appliedDelta + "°");
         return rotationDelta;
     }
 
@@ -330,29 +732,29 @@ public class netherPortalShipListener {
         double angleToPortal = Math.toDegrees(Math.acos(isWidthParallel ? rightDot : forwardDot));
 
         // ADDED DEBUG LOGS
-        Logger.sendMessage("[Portal Skies] === ORIENTATION DEBUG ===", true);
-        Logger.sendMessage("[Portal Skies] - Dimension: " + world.dimension().location().toString(), true);
-        Logger.sendMessage("[Portal Skies] - Portal Axis: " + portalAxis, true);
-        Logger.sendMessage("[Portal Skies] - Portal Position: " + portalPos.getX() + ", " + portalPos.getY() + ", " + portalPos.getZ(), true);
-        Logger.sendMessage("[Portal Skies] - Ship Forward (world): " +
-                String.format("%.3f, %.3f, %.3f", shipForward.x, shipForward.y, shipForward.z), true);
-        Logger.sendMessage("[Portal Skies] - Ship Right (world): " +
-                String.format("%.3f, %.3f, %.3f", shipRight.x, shipRight.y, shipRight.z), true);
-        Logger.sendMessage("[Portal Skies] - Portal Normal: " +
-                String.format("%.3f, %.3f, %.3f", portalNormal.x, portalNormal.y, portalNormal.z), true);
-        Logger.sendMessage("[Portal Skies] - Forward Dot: " + String.format("%.6f", forwardDot), true);
-        Logger.sendMessage("[Portal Skies] - Right Dot: " + String.format("%.6f", rightDot), true);
-        Logger.sendMessage("[Portal Skies] - Dot Difference: " + String.format("%.6f", Math.abs(forwardDot - rightDot)), true);
-        Logger.sendMessage("[Portal Skies] - Width Parallel: " + isWidthParallel, true);
-        Logger.sendMessage("[Portal Skies] - Angle to Portal: " + String.format("%.1f°", angleToPortal), true);
+        Logger.info("[Portal Skies] === ORIENTATION DEBUG ===");
+        Logger.info(() -> "[Portal Skies] - Dimension: " + world.dimension().location().toString());
+        Logger.info(() -> "[Portal Skies] - Portal Axis: " + portalAxis);
+        Logger.info(() -> "[Portal Skies] - Portal Position: " + portalPos.getX() + ", " + portalPos.getY() + ", " + portalPos.getZ());
+        Logger.info(() -> "[Portal Skies] - Ship Forward (world): " +
+                String.format("%.3f, %.3f, %.3f", shipForward.x, shipForward.y, shipForward.z));
+        Logger.info(() -> "[Portal Skies] - Ship Right (world): " +
+                String.format("%.3f, %.3f, %.3f", shipRight.x, shipRight.y, shipRight.z));
+        Logger.info(() -> "[Portal Skies] - Portal Normal: " +
+                String.format("%.3f, %.3f, %.3f", portalNormal.x, portalNormal.y, portalNormal.z));
+        Logger.info(() -> "[Portal Skies] - Forward Dot: " + String.format("%.6f", forwardDot));
+        Logger.info(() -> "[Portal Skies] - Right Dot: " + String.format("%.6f", rightDot));
+        Logger.info(() -> "[Portal Skies] - Dot Difference: " + String.format("%.6f", Math.abs(forwardDot - rightDot)));
+        Logger.info(() -> "[Portal Skies] - Width Parallel: " + isWidthParallel);
+        Logger.info(() -> "[Portal Skies] - Angle to Portal: " + String.format("%.1f°", angleToPortal));
 
         // Log which side is parallel
         if (isWidthParallel) {
-            Logger.sendMessage("[Portal Skies] - RESULT: WIDTH (X) parallel to portal", true);
+            Logger.info("[Portal Skies] - RESULT: WIDTH (X) parallel to portal");
         } else {
-            Logger.sendMessage("[Portal Skies] - RESULT: LENGTH (Z) parallel to portal", true);
+            Logger.info("[Portal Skies] - RESULT: LENGTH (Z) parallel to portal");
         }
-        Logger.sendMessage("[Portal Skies] === END ORIENTATION DEBUG ===", true);
+        Logger.info("[Portal Skies] === END ORIENTATION DEBUG ===");
 
         return new ShipOrientation(
                 isWidthParallel ? "WIDTH" : "LENGTH",
@@ -363,21 +765,21 @@ public class netherPortalShipListener {
 
     private Direction.Axis getPortalAxisAt(ServerLevel world, BlockPos portalPos) {
 
-        Logger.sendMessage("[Portal Skies] === PORTAL AXIS DEBUG block pos === "+portalPos.getX()+","+portalPos.getY()+","+portalPos.getZ(), false);
+        Logger.debug(() -> "[Portal Skies] === PORTAL AXIS DEBUG block pos === "+portalPos.getX()+","+portalPos.getY()+","+portalPos.getZ());
         if(isPortalBlockFast( world,new BlockPos(portalPos.getX(),portalPos.getY(),portalPos.getZ()+1))||isPortalBlockFast( world,new BlockPos(portalPos.getX(),portalPos.getY(),portalPos.getZ()-1))){
-            Logger.sendMessage("[Portal Skies] === AXIS DEBUG in getportalAxisAt: returning z axis", false);
+            Logger.debug("[Portal Skies] === AXIS DEBUG in getportalAxisAt: returning z axis");
             return Direction.Axis.Z;
         } else if (isPortalBlockFast( world,new BlockPos(portalPos.getX()+1,portalPos.getY(),portalPos.getZ()))||isPortalBlockFast( world,new BlockPos(portalPos.getX()-1,portalPos.getY(),portalPos.getZ()))) {
-            Logger.sendMessage("[Portal Skies] === AXIS DEBUG in getportalAxisAt: returning x axis", false);
+            Logger.debug("[Portal Skies] === AXIS DEBUG in getportalAxisAt: returning x axis");
 
             return  Direction.Axis.X;
         }
-        Logger.sendMessage("[Portal Skies] === AXIS DEBUG in getportalAxisAt: returning defualt axis", false);
+        Logger.debug("[Portal Skies] === AXIS DEBUG in getportalAxisAt: returning defualt axis");
 
         return Direction.Axis.X;
     }
 
-    private TeleportPositionResult calculateTeleportPosition(PortalInfo portalInfo, Ship ship, BlockPos sourcePortalPos, ServerLevel sourceWorld, ServerLevel targetWorld) {
+    private TeleportPositionResult calculateTeleportPosition(PortalInfo portalInfo, Ship ship, Vector3dc contactPosition, BlockPos sourcePortalPos, ServerLevel sourceWorld, ServerLevel targetWorld) {
         TeleportPositionResult result = new TeleportPositionResult();
 
         try {
@@ -393,25 +795,25 @@ public class netherPortalShipListener {
             double shipLength = shipAABB.maxZ() - shipAABB.minZ();
             double shipLongestDimension = (double) Math.max(portalInfo.shipWidth, portalInfo.shipLength);
 
-            Logger.sendMessage("[Portal Skies] Ship dimensions (local): " +
+            Logger.debug(() -> "[Portal Skies] Ship dimensions (local): " +
                     portalInfo.shipWidth +","+shipHeight+","+ portalInfo.shipLength+" " +
-                    " (longest: " + shipLongestDimension + ")", false);
+                    " (longest: " + shipLongestDimension + ")");
             Direction.Axis sourceAxis = getPortalAxisAt(sourceWorld, sourcePortalPos);
 
-            Direction approachDirection =  calculateShipApproachDirection(ship, sourcePortalPos, portalInfo.axis, sourceWorld, sourceAxis);
+            Direction approachDirection =  calculateShipApproachDirection(ship, contactPosition, sourcePortalPos, portalInfo.axis, sourceWorld, sourceAxis);
             result.approachDirection = approachDirection;
 
-            Logger.sendMessage("[Portal Skies] Ship approaching from: " + approachDirection, false);
+            Logger.debug(() -> "[Portal Skies] Ship approaching from: " + approachDirection);
 
             Vector3d exactPortalCenter = calculateExactPortalCenter(portalInfo, sourceWorld);
 
             // Get source portal axis
             Direction adjustedExitDirection = approachDirection;
             if (sourceAxis != portalInfo.axis && approachDirection == Direction.WEST) {
-                Logger.sendMessage("[Portal Skies] - Adjusting exit direction: " + adjustedExitDirection, false);
+                Logger.debug(() -> "[Portal Skies] - Adjusting exit direction: " + adjustedExitDirection);
             }
             if (sourceAxis != portalInfo.axis && approachDirection == Direction.SOUTH) {
-                Logger.sendMessage("[Portal Skies] - Adjusting exit direction: " + adjustedExitDirection, false);
+                Logger.debug(() -> "[Portal Skies] - Adjusting exit direction: " + adjustedExitDirection);
             }
 
             Vector3d exactExitPosition = calculateExactExitPosition(exactPortalCenter, adjustedExitDirection, ship, portalInfo, sourceWorld, sourceAxis, portalInfo.axis);
@@ -422,24 +824,24 @@ public class netherPortalShipListener {
                     (int) Math.floor(exactExitPosition.z)
             );
 
-            Logger.sendMessage("[Portal Skies] Exact exit position: " +
-                    String.format("%.2f, %.2f, %.2f", exactExitPosition.x, exactExitPosition.y, exactExitPosition.z), false);
+            Logger.debug(() -> "[Portal Skies] Exact exit position: " +
+                    String.format("%.2f, %.2f, %.2f", exactExitPosition.x, exactExitPosition.y, exactExitPosition.z));
 
             result.teleportPos = exitPosition;
             result.exactTeleportPos = exactExitPosition;
             result.exitDirection = adjustedExitDirection;
 
-            Logger.sendMessage("[Portal Skies] Final position calculation:", false);
-            Logger.sendMessage("[Portal Skies] - Portal center: " +
-                    String.format("%.2f, %.2f, %.2f", exactPortalCenter.x, exactPortalCenter.y, exactPortalCenter.z), false);
-            Logger.sendMessage("[Portal Skies] - Exit direction: " + adjustedExitDirection, false);
-            Logger.sendMessage("[Portal Skies] - Final block position: " + exitPosition, false);
-            Logger.sendMessage("[Portal Skies] - Exact final position: " +
-                    String.format("%.2f, %.2f, %.2f", exactExitPosition.x, exactExitPosition.y, exactExitPosition.z), false);
-            Logger.sendMessage("[Portal Skies] - Enough space: " + result.hasEnoughSpace, false);
+            Logger.debug("[Portal Skies] Final position calculation:");
+            Logger.debug(() -> "[Portal Skies] - Portal center: " +
+                    String.format("%.2f, %.2f, %.2f", exactPortalCenter.x, exactPortalCenter.y, exactPortalCenter.z));
+            Logger.debug(() -> "[Portal Skies] - Exit direction: " + adjustedExitDirection);
+            Logger.debug(() -> "[Portal Skies] - Final block position: " + exitPosition);
+            Logger.debug(() -> "[Portal Skies] - Exact final position: " +
+                    String.format("%.2f, %.2f, %.2f", exactExitPosition.x, exactExitPosition.y, exactExitPosition.z));
+            Logger.debug(() -> "[Portal Skies] - Enough space: " + result.hasEnoughSpace);
 
         } catch (Exception e) {
-            Logger.sendMessage("[Portal Skies] Error calculating teleport position: " + e.getMessage(), false);
+            Logger.debug(() -> "[Portal Skies] Error calculating teleport position: " + e.getMessage());
         }
 
         return result;
@@ -459,16 +861,16 @@ public class netherPortalShipListener {
                 centerZ = portalInfo.minZ + (portalInfo.actualWidth / 2.0);
             }
 
-            Logger.sendMessage("[Portal Skies] Portal bounds - X:" + portalInfo.minX + "-" + portalInfo.maxX +
-                    " Y:" + portalInfo.minY + "-" + portalInfo.maxY + " Z:" + portalInfo.minZ + "-" + portalInfo.maxZ, false);
-            Logger.sendMessage("[Portal Skies] Portal dimensions: " + portalInfo.actualWidth + "x" + portalInfo.actualHeight, false);
-            Logger.sendMessage("[Portal Skies] World coordinate center: " +
-                    String.format("%.2f, %.2f, %.2f", centerX, centerY, centerZ), false);
+            Logger.debug(() -> "[Portal Skies] Portal bounds - X:" + portalInfo.minX + "-" + portalInfo.maxX +
+                    " Y:" + portalInfo.minY + "-" + portalInfo.maxY + " Z:" + portalInfo.minZ + "-" + portalInfo.maxZ);
+            Logger.debug(() -> "[Portal Skies] Portal dimensions: " + portalInfo.actualWidth + "x" + portalInfo.actualHeight);
+            Logger.debug(() -> "[Portal Skies] World coordinate center: " +
+                    String.format("%.2f, %.2f, %.2f", centerX, centerY, centerZ));
 
             return new Vector3d(centerX, centerY, centerZ);
 
         } catch (Exception e) {
-            Logger.sendMessage("[Portal Skies] Error calculating exact portal center: " + e.getMessage(), false);
+            Logger.debug(() -> "[Portal Skies] Error calculating exact portal center: " + e.getMessage());
             return new Vector3d(
                     portalInfo.portalCenter.getX() + 0.5,
                     portalInfo.portalCenter.getY() + 0.5,
@@ -485,13 +887,13 @@ public class netherPortalShipListener {
 
         double requiredClearance = (portalInfo.shipLength / 2.0) + 2.0;
 
-        Logger.sendMessage("[Portal Skies] Ship dimensions:", false);
-        Logger.sendMessage("[Portal Skies] - Length: " + portalInfo.shipLength, false);
-        Logger.sendMessage("[Portal Skies] - Width: " + portalInfo.shipWidth, false);
-        Logger.sendMessage("[Portal Skies] - Height: " + shipHeight, false);
-        Logger.sendMessage("[Portal Skies] - Required clearance: " + requiredClearance, false);
-        Logger.sendMessage("[Portal Skies] - Exit direction: " + exitDirection, false);
-        Logger.sendMessage("[Portal Skies] - Portal axis: " + sourceAxis + " → " + targetAxis, false);
+        Logger.debug("[Portal Skies] Ship dimensions:");
+        Logger.debug(() -> "[Portal Skies] - Length: " + portalInfo.shipLength);
+        Logger.debug(() -> "[Portal Skies] - Width: " + portalInfo.shipWidth);
+        Logger.debug(() -> "[Portal Skies] - Height: " + shipHeight);
+        Logger.debug(() -> "[Portal Skies] - Required clearance: " + requiredClearance);
+        Logger.debug(() -> "[Portal Skies] - Exit direction: " + exitDirection);
+        Logger.debug(() -> "[Portal Skies] - Portal axis: " + sourceAxis + " → " + targetAxis);
 
         Vector3d exitPosition = new Vector3d(portalCenter);
 
@@ -510,10 +912,10 @@ public class netherPortalShipListener {
         // Position ship so its center is at portal center Y
         exitPosition.y = portalCenter.y;
 
-        Logger.sendMessage("[Portal Skies] Vertical alignment:", false);
-        Logger.sendMessage("[Portal Skies] - Portal center Y: " + portalCenter.y, false);
-        Logger.sendMessage("[Portal Skies] - Ship height: " + shipHeight, false);
-        Logger.sendMessage("[Portal Skies] - Ship bottom offset: " + shipBottomOffset, false);
+        Logger.debug("[Portal Skies] Vertical alignment:");
+        Logger.debug(() -> "[Portal Skies] - Portal center Y: " + portalCenter.y);
+        Logger.debug(() -> "[Portal Skies] - Ship height: " + shipHeight);
+        Logger.debug(() -> "[Portal Skies] - Ship bottom offset: " + shipBottomOffset);
 
         // Apply clearance in exit direction
         switch (exitDirection) {
@@ -533,22 +935,23 @@ public class netherPortalShipListener {
                 exitPosition.z += requiredClearance;
         }
 
-        Logger.sendMessage("[Portal Skies] Final exit position: " +
-                String.format("%.2f, %.2f, %.2f", exitPosition.x, exitPosition.y, exitPosition.z), false);
+        Logger.debug(() -> "[Portal Skies] Final exit position: " +
+                String.format("%.2f, %.2f, %.2f", exitPosition.x, exitPosition.y, exitPosition.z));
 
         return exitPosition;
     }
 
-    private Direction calculateShipApproachDirection(Ship ship, BlockPos sourcePortalPos, Direction.Axis portalAxis, ServerLevel sourceWorld, Direction.Axis sourceAxis) {
-        Vector3d shipPos = (Vector3d) ship.getTransform().getPositionInWorld();
+    private Direction calculateShipApproachDirection(Ship ship, Vector3dc contactPosition, BlockPos sourcePortalPos, Direction.Axis portalAxis, ServerLevel sourceWorld, Direction.Axis sourceAxis) {
+        // A ship caught by the swept check may already be past the portal, so use where it touched it
+        Vector3dc shipPos = contactPosition != null ? contactPosition : ship.getTransform().getPositionInWorld();
         Vector3d portalPos = new Vector3d(sourcePortalPos.getX() + 0.5, sourcePortalPos.getY(), sourcePortalPos.getZ() + 0.5);
 
         Vector3d approachVector = shipPos.sub(portalPos, new Vector3d());
 
-        Logger.sendMessage("[Portal Skies] Approach vector: " +
-                String.format("%.2f, %.2f, %.2f", approachVector.x(), approachVector.y(), approachVector.z()), false);
+        Logger.debug(() -> "[Portal Skies] Approach vector: " +
+                String.format("%.2f, %.2f, %.2f", approachVector.x(), approachVector.y(), approachVector.z()));
 
-        Logger.sendMessage("[Portal Skies] Portal axes - Source: " + sourceAxis + " Target: " + portalAxis, false);
+        Logger.debug(() -> "[Portal Skies] Portal axes - Source: " + sourceAxis + " Target: " + portalAxis);
 
         // First, determine the approach direction in the SOURCE portal
         Direction sourceApproachDir;
@@ -560,11 +963,11 @@ public class netherPortalShipListener {
             sourceApproachDir = approachVector.x() > 0 ? Direction.WEST : Direction.EAST;
         }
 
-        Logger.sendMessage("[Portal Skies] Source approach direction: " + sourceApproachDir, false);
+        Logger.debug(() -> "[Portal Skies] Source approach direction: " + sourceApproachDir);
 
         // If portals have same axis, keep the same approach direction
         if (portalAxis == sourceAxis) {
-            Logger.sendMessage("[Portal Skies] Same axis - keeping direction: " + sourceApproachDir, false);
+            Logger.debug(() -> "[Portal Skies] Same axis - keeping direction: " + sourceApproachDir);
             return sourceApproachDir;
         }
 
@@ -578,7 +981,7 @@ public class netherPortalShipListener {
                 case SOUTH: targetApproachDir = Direction.WEST;  break;  // South in X → East in Z
                 default:    targetApproachDir = sourceApproachDir; break;
             }
-            Logger.sendMessage("[Portal Skies] X→Z axis mapping - " + sourceApproachDir + "→" + targetApproachDir, false);
+            Logger.debug(() -> "[Portal Skies] X→Z axis mapping - " + sourceApproachDir + "→" + targetApproachDir);
         } else {
             // Z→X mapping (Nether→Overworld)
             switch (sourceApproachDir) {
@@ -586,7 +989,7 @@ public class netherPortalShipListener {
                 case WEST:  targetApproachDir = Direction.NORTH; break;  // West in Z → North in X
                 default:    targetApproachDir = sourceApproachDir; break;
             }
-            Logger.sendMessage("[Portal Skies] Z→X axis mapping - " + sourceApproachDir + "→" + targetApproachDir, false);
+            Logger.debug(() -> "[Portal Skies] Z→X axis mapping - " + sourceApproachDir + "→" + targetApproachDir);
         }
 
         return targetApproachDir;
@@ -605,126 +1008,215 @@ public class netherPortalShipListener {
         return targetBlock;
     }
     private PortalCheckResult isShipInPortalWithThreshold(Ship ship, ServerLevel level) {
-        try {
-            var shipAABB = ship.getShipAABB();
-            if (shipAABB == null) return new PortalCheckResult(false, BlockPos.ZERO);
+        AABBdc worldAABB = ship.getWorldAABB();
+        SweptBox previous = previousShipBoxes.get(ship.getId());
 
-            ShipTransform transform = ship.getTransform();
+        PortalCheckResult result = sampleShipPortalPoints(ship, level);
+        if (!result.isInPortal && Config.PORTAL_SWEPT_DETECTION && worldAABB != null) {
+            result = checkSweptVolume(ship, level, worldAABB, previous);
+        }
 
-            // Use configurable sampling
-            Vector3d[] collisionPoints = getConfigurableCollisionPoints(shipAABB);
+        if (worldAABB != null) {
+            if (previous == null) {
+                previous = new SweptBox();
+                previousShipBoxes.put(ship.getId(), previous);
+            }
+            previous.dimension = level.dimension();
+            previous.box.set(worldAABB);
+            previous.hasBox = true;
+        }
+        return result;
+    }
 
-            Logger.sendMessage("[Portal Skies] DEBUG: Checking " + collisionPoints.length + " points for ship " + ship.getId(), false);
+    private PortalCheckResult sampleShipPortalPoints(Ship ship, ServerLevel level) {
+        try {
+            var shipAABB = ship.getShipAABB();
+            if (shipAABB == null) return NOT_IN_PORTAL;
 
-            int portalBlockCount = 0;
+            // Cached ship-local lattice, transformed point by point into the scratch position
+            double[] points = sampleLattice.get(ship.getId(), shipAABB, level.getServer().getTickCount());
+            Matrix4dc shipToWorld = ship.getTransform().getShipToWorld();
+            BlockPos.MutableBlockPos worldPos = sampleScratchPos;
+            int tested = 0;
 
-            // Check each collision point in world space
-            for (int i = 0; i < collisionPoints.length; i++) {
-                Vector3d localPoint = collisionPoints[i];
-                Vector3d worldPoint = new Vector3d(localPoint);
-                transform.getShipToWorld().transformPosition(worldPoint);
-                BlockPos worldPos=getBlockPositionFromWorldPos(worldPoint);
+            for (int i = 0; i < points.length; i += 3) {
+                double x = points[i], y = points[i + 1], z = points[i + 2];
+                double worldX = shipToWorld.m00() * x + shipToWorld.m10() * y + shipToWorld.m20() * z + shipToWorld.m30();
+                double worldY = shipToWorld.m01() * x + shipToWorld.m11() * y + shipToWorld.m21() * z + shipToWorld.m31();
+                double worldZ = shipToWorld.m02() * x + shipToWorld.m12() * y + shipToWorld.m22() * z + shipToWorld.m32();
+                worldPos.set(toBlockCoordinate(worldX), toBlockCoordinate(worldY), toBlockCoordinate(worldZ));
 
                 // Quick bounds check
                 if (!level.isInWorldBounds(worldPos)) continue;
 
+                tested++;
                 if (level.getBlockState(worldPos).getBlock() instanceof NetherPortalBlock) {
-                    portalBlockCount++;
+                    Logger.debug(() -> "[Portal Skies] Ship collision point in portal at: " +
+                            worldPos.getX() + ", " + worldPos.getY() + ", " + worldPos.getZ());
 
-
-                    Logger.sendMessage("[Portal Skies] Ship collision point in portal at: " +
-                            worldPos.getX() + ", " + worldPos.getY() + ", " + worldPos.getZ(), false);
-
-                    return new PortalCheckResult(true, worldPos);
+                    PortalMetrics.samplePoints(tested);
+                    return new PortalCheckResult(true, worldPos.immutable());
                 }
             }
+            PortalMetrics.samplePoints(tested);
 
-            Logger.sendMessage("[Portal Skies] DEBUG: No portal blocks found at sampling points", false);
-            return new PortalCheckResult(false, BlockPos.ZERO);
+            return NOT_IN_PORTAL;
 
         } catch (Exception e) {
-            Logger.sendMessage("[Portal Skies] Error checking portal with ShipAABB: " + e.getMessage(), false);
-            return new PortalCheckResult(false, BlockPos.ZERO);
+            Logger.debug(() -> "[Portal Skies] Error checking portal with ShipAABB: " + e.getMessage());
+            return NOT_IN_PORTAL;
         }
     }
 
-    private Vector3d[] getConfigurableCollisionPoints(AABBic shipAABB) {
-        int minX = shipAABB.minX();
-        int minY = shipAABB.minY();
-        int minZ = shipAABB.minZ();
-        int maxX = shipAABB.maxX();
-        int maxY = shipAABB.maxY();
-        int maxZ = shipAABB.maxZ();
-
-        List<Vector3d> points = new ArrayList<>();
-
-        double centerX = (minX + maxX) / 2.0;
-        double centerY = (minY + maxY) / 2.0;
-        double centerZ = (minZ + maxZ) / 2.0;
-
-        int samples = Config.PORTAL_SAMPLES_PER_FACE;
-        int skipInterval = Config.PORTAL_FACE_SKIP_INTERVAL;
-
-        // Define all 6 faces of the ship
-        Face[] faces = {
-                new Face("FRONT", minX, maxX, minY, maxY, maxZ, maxZ),  // Z max
-                new Face("BACK", minX, maxX, minY, maxY, minZ, minZ),   // Z min
-                new Face("RIGHT", maxX, maxX, minY, maxY, minZ, maxZ),  // X max
-                new Face("LEFT", minX, minX, minY, maxY, minZ, maxZ),   // X min
-                new Face("TOP", minX, maxX, maxY, maxY, minZ, maxZ),    // Y max
-                new Face("BOTTOM", minX, maxX, minY, minY, minZ, maxZ)  // Y min
-        };
-
-        // Always add front and back faces if configured
-        if (Config.PORTAL_ALWAYS_CHECK_FRONT_BACK) {
-            addFacePoints(points, faces[0], samples); // FRONT
-            addFacePoints(points, faces[1], samples); // BACK
-        }
-
-        // Add other faces based on skip interval
-        for (int i = 2; i < faces.length; i++) { // Start from 2 to skip front/back (already added)
-            if (skipInterval == 0 || i % (skipInterval + 1) == 0) {
-                addFacePoints(points, faces[i], samples);
+    // Same rounding as getBlockPositionFromWorldPos
+    private static int toBlockCoordinate(double value) {
+        int block = (int) value;
+        return value < 0 ? block - 1 : block;
+    }
+
+    /**
+     * Moves the ship's world box from where it was at the previous check to where it is now to find
+     * the registered portal frames it passed near, then sweeps the ship's sample points (and its
+     * center) along the same move to see whether any of them went through one. Without a previous
+     * box (first check, dimension change) the path is rebuilt from the current velocity over one
+     * check interval.
+     */
+    private PortalCheckResult checkSweptVolume(Ship ship, ServerLevel level, AABBdc current, SweptBox previous) {
+        try {
+            double halfX = (current.maxX() - current.minX()) / 2.0;
+            double halfY = (current.maxY() - current.minY()) / 2.0;
+            double halfZ = (current.maxZ() - current.minZ()) / 2.0;
+            double endX = current.minX() + halfX;
+            double endY = current.minY() + halfY;
+            double endZ = current.minZ() + halfZ;
+
+            double startX, startY, startZ;
+            if (previous != null && previous.dimension == level.dimension() && !previous.hasBox) {
+                // Just came out of a portal here, start sweeping from the next check
+                return NOT_IN_PORTAL;
+            } else if (previous != null && previous.dimension == level.dimension()) {
+                AABBdc box = previous.box;
+                startX = (box.minX() + box.maxX()) / 2.0;
+                startY = (box.minY() + box.maxY()) / 2.0;
+                startZ = (box.minZ() + box.maxZ()) / 2.0;
+                // The box can change size when the ship rotates, sweep the larger of the two
+                halfX = Math.max(halfX, (box.maxX() - box.minX()) / 2.0);
+                halfY = Math.max(halfY, (box.maxY() - box.minY()) / 2.0);
+                halfZ = Math.max(halfZ, (box.maxZ() - box.minZ()) / 2.0);
+            } else {
+                Vector3dc velocity = ship.getVelocity(); // blocks per second
+                double seconds = Config.CHECK_INTERVAL_TICKS / 20.0;
+                startX = endX - velocity.x() * seconds;
+                startY = endY - velocity.y() * seconds;
+                startZ = endZ - velocity.z() * seconds;
             }
-        }
 
-        // Always add center points
-        points.add(new Vector3d(centerX, centerY, maxZ)); // Front center
-        points.add(new Vector3d(centerX, centerY, minZ)); // Back center
-        points.add(new Vector3d(centerX, centerY, centerZ)); // Ship center
+            double moveX = endX - startX;
+            double moveY = endY - startY;
+            double moveZ = endZ - startZ;
+            double distanceSqr = moveX * moveX + moveY * moveY + moveZ * moveZ;
 
-        Logger.sendMessage("[Portal Skies] DEBUG: Generated " + points.size() + " sampling points " +
-                "(samples: " + samples + ", skip: " + skipInterval + ")", false);
+            // Barely moved: the point samples already covered it
+            if (distanceSqr < 0.25 || distanceSqr > MAX_SWEEP_DISTANCE * MAX_SWEEP_DISTANCE) {
+                return NOT_IN_PORTAL;
+            }
 
-        return points.toArray(new Vector3d[0]);
-    }
+            List<PortalFrame> candidates = PortalRegistry.get(level).findInBox(
+                    (int) Math.floor(Math.min(startX, endX) - halfX), (int) Math.floor(Math.min(startY, endY) - halfY),
+                    (int) Math.floor(Math.min(startZ, endZ) - halfZ), (int) Math.floor(Math.max(startX, endX) + halfX),
+                    (int) Math.floor(Math.max(startY, endY) + halfY), (int) Math.floor(Math.max(startZ, endZ) + halfZ));
+            if (candidates.isEmpty()) {
+                return NOT_IN_PORTAL;
+            }
 
-    private void addFacePoints(List<Vector3d> points, Face face, int samples) {
-        for (int row = 0; row < samples; row++) {
-            for (int col = 0; col < samples; col++) {
-                double x = face.minX + (face.maxX - face.minX) * (col + 0.5) / samples;
-                double y = face.minY + (face.maxY - face.minY) * (row + 0.5) / samples;
-                double z = face.minZ + (face.maxZ - face.minZ) * 0.5; // Use face Z coordinate
+            // Sample points where the ship is now, the move is undone per point for the sweep
+            var shipAABB = ship.getShipAABB();
+            double[] points = shipAABB == null ? null : sampleLattice.get(ship.getId(), shipAABB, level.getServer().getTickCount());
+            Matrix4dc shipToWorld = ship.getTransform().getShipToWorld();
+
+            PortalFrame hitFrame = null;
+            double hitTime = Double.MAX_VALUE;
+            for (PortalFrame frame : candidates) {
+                // Broad phase: grow the portal blocks by the ship's half size, then the box sweep is a segment test.
+                // A ship flying alongside a portal passes this, so the points decide
+                double broadTime = segmentEntryTime(startX, startY, startZ, moveX, moveY, moveZ,
+                        frame.minX() - halfX, frame.minY() - halfY, frame.minZ() - halfZ,
+                        frame.maxX() + 1 + halfX, frame.maxY() + 1 + halfY, frame.maxZ() + 1 + halfZ);
+                if (broadTime < 0 || broadTime >= hitTime) continue;
+
+                double time = pointsEntryTime(points, shipToWorld, startX, startY, startZ, moveX, moveY, moveZ, frame);
+                if (time < 0 || time >= hitTime) continue;
+
+                if (!isFrameIntact(level, frame)) {
+                    PortalRegistry.get(level).remove(frame);
+                    continue;
+                }
+                hitFrame = frame;
+                hitTime = time;
+            }
 
-                points.add(new Vector3d(x, y, z));
+            if (hitFrame == null) {
+                Logger.debug(() -> "[Portal Skies] DEBUG: Swept volume of ship " + ship.getId() + " missed " + candidates.size() + " nearby portals");
+                return NOT_IN_PORTAL;
             }
+
+            Vector3d contact = new Vector3d(startX + moveX * hitTime, startY + moveY * hitTime, startZ + moveZ * hitTime);
+            BlockPos hitCenter = hitFrame.center();
+            Logger.debug(() -> "[Portal Skies] Ship " + ship.getId() + " swept through portal at " + hitCenter +
+                    String.format(" (contact at %.2f, %.2f, %.2f)", contact.x, contact.y, contact.z));
+            return new PortalCheckResult(true, hitFrame.center(), contact);
+
+        } catch (Exception e) {
+            Logger.debug(() -> "[Portal Skies] Error checking swept portal volume: " + e.getMessage());
+            return NOT_IN_PORTAL;
         }
     }
 
-    // Helper class to represent a ship face
-    private static class Face {
-        public final String name;
-        public final double minX, maxX, minY, maxY, minZ, maxZ;
+    // Earliest time any sample point, or the box center, enters the frame's portal blocks during the move, or -1.
+    // The points move with the box center, turning between two checks isn't followed
+    private static double pointsEntryTime(double[] points, Matrix4dc shipToWorld, double startX, double startY, double startZ,
+                                          double moveX, double moveY, double moveZ, PortalFrame frame) {
+        double minX = frame.minX(), minY = frame.minY(), minZ = frame.minZ();
+        double maxX = frame.maxX() + 1, maxY = frame.maxY() + 1, maxZ = frame.maxZ() + 1;
+
+        double best = segmentEntryTime(startX, startY, startZ, moveX, moveY, moveZ, minX, minY, minZ, maxX, maxY, maxZ);
+        if (points == null) return best;
+
+        for (int i = 0; i < points.length; i += 3) {
+            double x = points[i], y = points[i + 1], z = points[i + 2];
+            double worldX = shipToWorld.m00() * x + shipToWorld.m10() * y + shipToWorld.m20() * z + shipToWorld.m30();
+            double worldY = shipToWorld.m01() * x + shipToWorld.m11() * y + shipToWorld.m21() * z + shipToWorld.m31();
+            double worldZ = shipToWorld.m02() * x + shipToWorld.m12() * y + shipToWorld.m22() * z + shipToWorld.m32();
+
+            double time = segmentEntryTime(worldX - moveX, worldY - moveY, worldZ - moveZ, moveX, moveY, moveZ,
+                    minX, minY, minZ, maxX, maxY, maxZ);
+            if (time >= 0 && (best < 0 || time < best)) best = time;
+        }
+        return best;
+    }
 
-        public Face(String name, double minX, double maxX, double minY, double maxY, double minZ, double maxZ) {
-            this.name = name;
-            this.minX = minX;
-            this.maxX = maxX;
-            this.minY = minY;
-            this.maxY = maxY;
-            this.minZ = minZ;
-            this.maxZ = maxZ;
+    // Slab test of start + t * move for t in [0, 1] against a box, returns the entry time or -1 on a miss
+    private static double segmentEntryTime(double startX, double startY, double startZ, double moveX, double moveY, double moveZ,
+                                           double minX, double minY, double minZ, double maxX, double maxY, double maxZ) {
+        double enter = 0.0;
+        double exit = 1.0;
+        for (int axis = 0; axis < 3; axis++) {
+            double start = axis == 0 ? startX : axis == 1 ? startY : startZ;
+            double move = axis == 0 ? moveX : axis == 1 ? moveY : moveZ;
+            double min = axis == 0 ? minX : axis == 1 ? minY : minZ;
+            double max = axis == 0 ? maxX : axis == 1 ? maxY : maxZ;
+
+            if (Math.abs(move) < 1.0E-9) {
+                if (start < min || start > max) return -1;
+                continue;
+            }
+            double t1 = (min - start) / move;
+            double t2 = (max - start) / move;
+            enter = Math.max(enter, Math.min(t1, t2));
+            exit = Math.min(exit, Math.max(t1, t2));
+            if (enter > exit) return -1;
         }
+        return enter;
     }
 
     // Fast portal block check with caching
@@ -733,6 +1225,7 @@ public class netherPortalShipListener {
             // Quick bounds check - prevents trying to access chunks that don't exist
             if (!world.isInWorldBounds(pos)) return false;
 
+            PortalMetrics.blockRead();
             BlockState state = world.getBlockState(pos);
             return state.getBlock() instanceof NetherPortalBlock;
         } catch (Exception e) {
@@ -745,22 +1238,27 @@ public class netherPortalShipListener {
 
         BlockPos scaledPos = calculateScaledPosition(sourcePortalPos, scale);
 
-        Logger.sendMessage("[Portal Skies] Source portal at: " +
-                sourcePortalPos.getX() + ", " + sourcePortalPos.getY() + ", " + sourcePortalPos.getZ(), true);
-        Logger.sendMessage("[Portal Skies] Scaled target position: " +
-                scaledPos.getX() + ", " + scaledPos.getY() + ", " + scaledPos.getZ() + " (scale: " + scale + ")", true);
+        Logger.info(() -> "[Portal Skies] Source portal at: " +
+                sourcePortalPos.getX() + ", " + sourcePortalPos.getY() + ", " + sourcePortalPos.getZ());
+        Logger.info(() -> "[Portal Skies] Scaled target position: " +
+                scaledPos.getX() + ", " + scaledPos.getY() + ", " + scaledPos.getZ() + " (scale: " + scale + ")");
 
         portalInfo = findExistingPortalVanillaStyle(sourcePortal,sourceWorld, targetWorld, scaledPos, 128, ship);
+        if (portalInfo == SEARCH_PENDING) {
+            Logger.debug("[Portal Skies] Waiting for background portal search");
+            return portalInfo;
+        }
 
         if (portalInfo != null) {
-            Logger.sendMessage("[Portal Skies] Found existing portal at: " +
-                    portalInfo.portalCenter.getX() + ", " + portalInfo.portalCenter.getY() + ", " + portalInfo.portalCenter.getZ() +
-                    " Size: " + portalInfo.actualWidth + "x" + portalInfo.actualHeight +
-                    " Axis: " + portalInfo.axis, true);
+            PortalInfo found = portalInfo;
+            Logger.info(() -> "[Portal Skies] Found existing portal at: " +
+                    found.portalCenter.getX() + ", " + found.portalCenter.getY() + ", " + found.portalCenter.getZ() +
+                    " Size: " + found.actualWidth + "x" + found.actualHeight +
+                    " Axis: " + found.axis);
             return portalInfo;
         }
 
-        Logger.sendMessage("[Portal Skies] No suitable portal found in target dimension", true);
+        Logger.info("[Portal Skies] No suitable portal found in target dimension");
         return null;
     }
 
@@ -785,48 +1283,178 @@ public class netherPortalShipListener {
             searchRadius = 136;
         }
 
-        Logger.sendMessage("[Portal Skies] Vanilla portal search around "
-                + center.getX() + ", " + center.getY() + ", " + center.getZ() + " (radius: " + searchRadius + ")", false);
+        // Known frames answer the common case cheaply, but a closer frame nobody registered
+        // (one vanilla's PortalForcer built, say) still wins, so the searches below only look closer in
+        PortalFrame knownFrame = PortalRegistry.get(targetWorld).findNearest(center, searchRadius,
+                sourcePortal.requiredWidth, sourcePortal.requiredHeight, frame -> isFrameIntact(targetWorld, frame));
+        if (knownFrame != null) {
+            Logger.debug(() -> "[Portal Skies] Found registered portal " + knownFrame.width() + "x" + knownFrame.height() +
+                    " at " + knownFrame.minX() + ", " + knownFrame.minY() + ", " + knownFrame.minZ());
+        }
 
-        for (int radius = 0; radius <= searchRadius; radius++) {
-            Logger.sendMessage("[Portal Skies] Searching radius " + radius, false);
+        if (Config.ASYNC_PORTAL_SEARCH) {
+            return findExistingPortalInBackground(sourcePortal, targetWorld, center, searchRadius, knownFrame);
+        }
 
-            for (int dx = -radius; dx <= radius; dx++) {
-                for (int dz = -radius; dz <= radius; dz++) {
-                    if (Math.abs(dx) != radius && Math.abs(dz) != radius) {
-                        continue;
-                    }
+        if (Config.USE_POI_PORTAL_SEARCH) {
+            try {
+                return findExistingPortalFromPoi(sourcePortal, targetWorld, center, searchRadius, knownFrame);
+            } catch (Exception e) {
+                Logger.debug(() -> "[Portal Skies] POI portal search failed, scanning blocks instead: " + e.getMessage());
+            }
+        }
 
-                    // RESTORED: Original Y-level checking (full world height)
-                    for (int y = targetWorld.getMinBuildHeight(); y <= targetWorld.getMaxBuildHeight(); y += 3) {
-                        BlockPos checkPos = new BlockPos(center.getX() + dx, y, center.getZ() + dz);
-
-                        if (isPortalBlockFast(targetWorld, checkPos)) {
-                            PortalInfo portalInfo = analyzePortalSize(targetWorld, checkPos);
-                            if (portalInfo != null && isTargetPortalLargeEnough(portalInfo,sourcePortal)) {
-                                double distance = Math.sqrt(center.distSqr(checkPos));
-                                Logger.sendMessage("[Portal Skies] Found valid portal at: " + checkPos.getX() + ", " +
-                                        checkPos.getY() + ", " + checkPos.getZ() + " (distance: " +
-                                        String.format("%.1f", distance) + ", radius: " + radius + ")", false);
-                                return portalInfo;
-                            }
-                        }
-                    }
-                }
+        int radius = searchRadius;
+        Logger.debug(() -> "[Portal Skies] Vanilla portal search around " + center + " (radius: " + radius + ")");
+
+        // Palette-filtered scan: same blocks and order as a full column scan, without the y += 3 gaps.
+        // Rings come nearest first, but a frame on a later ring can still be closer by distSqr, so the
+        // scan only stops once a whole ring is farther than the best frame so far
+        PortalColumnScanner scanner = new PortalColumnScanner(targetWorld, center, searchRadius);
+        List<PortalFrame> measured = new ArrayList<>();
+        PortalInfo best = knownFrame == null ? null : toPortalInfo(knownFrame);
+        long bestDistanceSqr = knownFrame == null ? Long.MAX_VALUE : knownFrame.distanceSqr(center);
+        BlockPos checkPos;
+        while ((checkPos = scanner.next()) != null) {
+            long ring = scanner.getRing();
+            if (ring * ring > bestDistanceSqr) break;
+
+            // A frame that was too small once is too small for every other block in it
+            if (isInsideAny(measured, checkPos)) continue;
+
+            PortalInfo portalInfo = analyzePortalSize(targetWorld, checkPos);
+            if (portalInfo == null || !portalInfo.isValid) continue;
+
+            PortalFrame frame = toPortalFrame(portalInfo);
+            registerPortal(targetWorld, portalInfo);
+            measured.add(frame);
+
+            // Ties go to the registered frame, like in the POI search
+            if (isTargetPortalLargeEnough(portalInfo, sourcePortal) && frame.distanceSqr(center) < bestDistanceSqr) {
+                best = portalInfo;
+                bestDistanceSqr = frame.distanceSqr(center);
             }
         }
 
-        Logger.sendMessage("[Portal Skies] No valid portals found in vanilla search area", false);
+        PortalMetrics.blockReads(scanner.getBlocksRead());
+        Logger.debug(() -> "[Portal Skies] Scan read " + scanner.getBlocksRead() + " blocks, skipped " +
+                scanner.getSectionsSkipped() + " sections by palette");
+        if (best == null) {
+            Logger.debug("[Portal Skies] No valid portals found in vanilla search area");
+        } else {
+            PortalInfo found = best;
+            double distance = Math.sqrt(bestDistanceSqr);
+            Logger.debug(() -> "[Portal Skies] Found valid portal at: " + found.portalCenter.getX() + ", " + found.portalCenter.getY() + ", " +
+                    found.portalCenter.getZ() + " (distance: " + String.format("%.1f", distance) + ")");
+        }
+        return best;
+    }
+    /**
+     * The off-thread search, without loading a single chunk to full. Full chunks already in memory
+     * had their POI validated as they loaded, so POI answers for those; every other chunk of the
+     * square goes to the background search. The nearest of that, POI and the registered frame wins.
+     */
+    private PortalInfo findExistingPortalInBackground(PortalInfo sourcePortal, ServerLevel targetWorld, BlockPos center, int searchRadius, PortalFrame knownFrame) {
+        int minChunkX = (center.getX() - searchRadius) >> 4, maxChunkX = (center.getX() + searchRadius) >> 4;
+        int minChunkZ = (center.getZ() - searchRadius) >> 4, maxChunkZ = (center.getZ() + searchRadius) >> 4;
+
+        List<ChunkPos> inMemory = new ArrayList<>();
+        List<ChunkPos> unanswered = new ArrayList<>();
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                boolean poiReady = Config.USE_POI_PORTAL_SEARCH && targetWorld.getChunkSource().getChunkNow(chunkX, chunkZ) != null;
+                (poiReady ? inMemory : unanswered).add(new ChunkPos(chunkX, chunkZ));
+            }
+        }
+
+        PortalFrame best = knownFrame;
+        if (!unanswered.isEmpty()) {
+            PortalSearchService.Lookup lookup = portalSearch.find(targetWorld, center, searchRadius,
+                    sourcePortal.requiredWidth, sourcePortal.requiredHeight, unanswered);
+            if (lookup.pending()) return SEARCH_PENDING;
+            PortalFrame found = lookup.frame();
+            if (found != null && (best == null || found.distanceSqr(center) < best.distanceSqr(center))) best = found;
+        }
+        if (inMemory.isEmpty()) return best == null ? null : toPortalInfo(best);
+
+        PoiManager poiManager = targetWorld.getPoiManager();
+        Stream<PoiRecord> records = inMemory.stream()
+                .flatMap(chunk -> poiManager.getInChunk(type -> type.is(PoiTypes.NETHER_PORTAL), chunk, PoiManager.Occupancy.ANY))
+                .filter(record -> Math.abs(record.getPos().getX() - center.getX()) <= searchRadius &&
+                        Math.abs(record.getPos().getZ() - center.getZ()) <= searchRadius);
+        return findNearestPoiPortal(sourcePortal, targetWorld, center, searchRadius, records, best);
+    }
+
+    /**
+     * Destination lookup through the POI index vanilla keeps for nether portal blocks.
+     * ensureLoadedAndValid is the same step vanilla's PortalForcer takes: only sections whose POI
+     * data was never validated get rebuilt from their blocks, everything else is read as-is.
+     */
+    private PortalInfo findExistingPortalFromPoi(PortalInfo sourcePortal, ServerLevel targetWorld, BlockPos center, int searchRadius, PortalFrame knownFrame) {
+        PoiManager poiManager = targetWorld.getPoiManager();
+        poiManager.ensureLoadedAndValid(targetWorld, center, searchRadius);
+
+        Stream<PoiRecord> records = poiManager.getInSquare(type -> type.is(PoiTypes.NETHER_PORTAL), center, searchRadius, PoiManager.Occupancy.ANY);
+        return findNearestPoiPortal(sourcePortal, targetWorld, center, searchRadius, records, knownFrame);
+    }
+
+    // Nearest big enough frame among the POI records, or knownFrame if none is closer
+    private PortalInfo findNearestPoiPortal(PortalInfo sourcePortal, ServerLevel targetWorld, BlockPos center, int searchRadius,
+                                            Stream<PoiRecord> records, PortalFrame knownFrame) {
+        WorldBorder border = targetWorld.getWorldBorder();
+        List<BlockPos> candidates = records
+                .map(PoiRecord::getPos)
+                .filter(border::isWithinBounds)
+                .sorted(Comparator.<BlockPos>comparingDouble(pos -> pos.distSqr(center)).thenComparingInt(BlockPos::getY))
+                .toList();
+
+        Logger.debug(() -> "[Portal Skies] POI portal search around " + center.getX() + ", " + center.getY() + ", " + center.getZ() +
+                " (radius: " + searchRadius + ") found " + candidates.size() + " portal blocks");
+
+        // Every block of a frame has its own POI, so measure each frame only once
+        List<PortalFrame> measured = new ArrayList<>();
+        long knownDistanceSqr = knownFrame == null ? Long.MAX_VALUE : knownFrame.distanceSqr(center);
+        for (BlockPos pos : candidates) {
+            // Nearest first, so past the registered frame nothing closer is left (ties go to the registered one)
+            if (pos.distSqr(center) >= knownDistanceSqr) break;
+            if (isInsideAny(measured, pos)) continue;
+
+            // POI records can lag behind the world for a tick or two
+            if (!isPortalBlockFast(targetWorld, pos)) continue;
+
+            PortalInfo portalInfo = analyzePortalSize(targetWorld, pos);
+            if (portalInfo == null || !portalInfo.isValid) continue;
+
+            registerPortal(targetWorld, portalInfo);
+            measured.add(toPortalFrame(portalInfo));
+
+            if (portalInfo.actualWidth >= sourcePortal.requiredWidth && portalInfo.actualHeight >= sourcePortal.requiredHeight) {
+                Logger.debug(() -> "[Portal Skies] Found valid portal through POI at: " + pos.getX() + ", " + pos.getY() + ", " + pos.getZ() +
+                        " (distance: " + String.format("%.1f", Math.sqrt(center.distSqr(pos))) + ")");
+                return portalInfo;
+            }
+        }
+
+        if (knownFrame != null) return toPortalInfo(knownFrame);
+        Logger.debug(() -> "[Portal Skies] No valid portals found through POI (" + measured.size() + " too small)");
         return null;
     }
+
+    private static boolean isInsideAny(List<PortalFrame> frames, BlockPos pos) {
+        for (PortalFrame frame : frames) {
+            if (frame.contains(pos.getX(), pos.getY(), pos.getZ())) return true;
+        }
+        return false;
+    }
+
     private boolean isTargetPortalLargeEnough(PortalInfo targetPortal, PortalInfo sourcePortal) {
         boolean isLargeEnough = targetPortal.actualWidth >= sourcePortal.requiredWidth &&
                 targetPortal.actualHeight >= sourcePortal.requiredHeight;
 
-        Logger.sendMessage("[Portal Skies] Target portal size check:", true);
-        Logger.sendMessage("[Portal Skies] - Source: " + sourcePortal.actualWidth + "x" + sourcePortal.actualHeight, true);
-        Logger.sendMessage("[Portal Skies] - Target: " + targetPortal.actualWidth + "x" + targetPortal.actualHeight, true);
-        Logger.sendMessage("[Portal Skies] - Large enough: " + isLargeEnough, true);
+        Logger.info("[Portal Skies] Target portal size check:");
+        Logger.info(() -> "[Portal Skies] - Source: " + sourcePortal.actualWidth + "x" + sourcePortal.actualHeight);
+        Logger.info(() -> "[Portal Skies] - Target: " + targetPortal.actualWidth + "x" + targetPortal.actualHeight);
+        Logger.info(() -> "[Portal Skies] - Large enough: " + isLargeEnough);
 
         return isLargeEnough;
     }
@@ -838,7 +1466,7 @@ public class netherPortalShipListener {
         if (shipAABB == null) {
 
            portalInfo.isValid=false;
-            Logger.sendMessage("[Portal Skies] Could not get ship dimensions", false);
+            Logger.debug("[Portal Skies] Could not get ship dimensions");
             return portalInfo;
 
         }
@@ -857,22 +1485,22 @@ public class netherPortalShipListener {
             shipWidthForPortal = aabbWidth;
             portalInfo.shipLength=(int)aabbLength;
             portalInfo.shipWidth=(int)aabbWidth;
-            Logger.sendMessage("[Portal Skies] Ship WIDTH parallel to portal, using width: " + shipWidthForPortal, false);
+            Logger.debug(() -> "[Portal Skies] Ship WIDTH parallel to portal, using width: " + shipWidthForPortal);
         } else {
             // Ship length (Z) is parallel to portal - use length dimension
             shipWidthForPortal = aabbLength;
             portalInfo.shipLength=(int)aabbWidth;
             portalInfo.shipWidth=(int)aabbLength;
-            Logger.sendMessage("[Portal Skies] Ship LENGTH parallel to portal, using length as width: " +(int)shipWidthForPortal, false);
+            Logger.debug(() -> "[Portal Skies] Ship LENGTH parallel to portal, using length as width: " +(int)shipWidthForPortal);
         }
 
         double shipHeight = aabbHeight;
 
-        Logger.sendMessage("[Portal Skies] === SHIP DIMENSION DEBUG ===", false);
-        Logger.sendMessage("[Portal Skies] AABB dimensions: " +
-                String.format("%.1fx%.1fx%.1f", aabbWidth, aabbHeight, aabbLength), false);
-        Logger.sendMessage("[Portal Skies] Portal-fitting width: " + shipWidthForPortal, false);
-        Logger.sendMessage("[Portal Skies] Ship orientation: " + orientation.parallelSide + " parallel to portal", false);
+        Logger.debug("[Portal Skies] === SHIP DIMENSION DEBUG ===");
+        Logger.debug(() -> "[Portal Skies] AABB dimensions: " +
+                String.format("%.1fx%.1fx%.1f", aabbWidth, aabbHeight, aabbLength));
+        Logger.debug(() -> "[Portal Skies] Portal-fitting width: " + shipWidthForPortal);
+        Logger.debug(() -> "[Portal Skies] Ship orientation: " + orientation.parallelSide + " parallel to portal");
 
         double buffer = 0.2;
         portalInfo.requiredWidth = (int) Math.ceil(shipWidthForPortal + buffer);
@@ -883,16 +1511,17 @@ public class netherPortalShipListener {
 
         portalInfo.isValid = isValid;
 
-        Logger.sendMessage("[Portal Skies] Portal validation:", false);
-        Logger.sendMessage("[Portal Skies] - Required: " + portalInfo.requiredWidth + "x" + portalInfo.requiredHeight, false);
-        Logger.sendMessage("[Portal Skies] - Actual: " + portalInfo.actualWidth + "x" + portalInfo.actualHeight, false);
-        Logger.sendMessage("[Portal Skies] - Valid: " + isValid, false);
+        Logger.debug("[Portal Skies] Portal validation:");
+        Logger.debug(() -> "[Portal Skies] - Required: " + portalInfo.requiredWidth + "x" + portalInfo.requiredHeight);
+        Logger.debug(() -> "[Portal Skies] - Actual: " + portalInfo.actualWidth + "x" + portalInfo.actualHeight);
+        Logger.debug(() -> "[Portal Skies] - Valid: " + isValid);
 
         return portalInfo;
     }
 
     private boolean isValidPortalBlock(ServerLevel world, BlockPos pos) {
         try {
+            PortalMetrics.blockRead();
             return world.getBlockState(pos).getBlock() instanceof NetherPortalBlock;
         } catch (Exception e) {
             return false;
@@ -901,6 +1530,7 @@ public class netherPortalShipListener {
 
     private PortalInfo analyzePortalSize(ServerLevel world, BlockPos portalBlock) {
         try {
+            PortalMetrics.blockRead();
             BlockState state = world.getBlockState(portalBlock);
             Direction.Axis axis = getPortalAxisAt(world,portalBlock);
 
@@ -908,13 +1538,13 @@ public class netherPortalShipListener {
             info.portalCenter = portalBlock;
             info.axis = axis;
 
-            Logger.sendMessage("[Portal Skies] Portal axis detected: " + axis, false);
+            Logger.debug(() -> "[Portal Skies] Portal axis detected: " + axis);
 
             info = measurePortalDimensions(world, portalBlock, axis);
 
             return info;
         } catch (Exception e) {
-            Logger.sendMessage("[Portal Skies] Error analyzing portal: " + e.getMessage(), false);
+            Logger.debug(() -> "[Portal Skies] Error analyzing portal: " + e.getMessage());
             return null;
         }
     }
@@ -925,8 +1555,8 @@ public class netherPortalShipListener {
         info.axis = expectedAxis;
 
         try {
-            Logger.sendMessage("[Portal Skies] Starting portal measurement at: " +
-                    start.getX() + "," + start.getY() + "," + start.getZ() + " axis: " + expectedAxis, false);
+            Logger.debug(() -> "[Portal Skies] Starting portal measurement at: " +
+                    start.getX() + "," + start.getY() + "," + start.getZ() + " axis: " + expectedAxis);
 
             if (expectedAxis == Direction.Axis.X) {
                 return measureXAxisPortal(world, start);
@@ -935,7 +1565,7 @@ public class netherPortalShipListener {
             }
 
         } catch (Exception e) {
-            Logger.sendMessage("[Portal Skies] Error measuring portal: " + e.getMessage(), false);
+            Logger.debug(() -> "[Portal Skies] Error measuring portal: " + e.getMessage());
             info.isValid = false;
             return info;
         }
@@ -992,10 +1622,10 @@ public class netherPortalShipListener {
             info.actualHeight = height;
             info.isValid = true;
 
-            Logger.sendMessage("[Portal Skies] X-axis portal - Width (X): " + width + " Height (Y): " + height, false);
+            Logger.debug(() -> "[Portal Skies] X-axis portal - Width (X): " + width + " Height (Y): " + height);
 
         } catch (Exception e) {
-            Logger.sendMessage("[Portal Skies] Error measuring X-axis portal: " + e.getMessage(), false);
+            Logger.debug(() -> "[Portal Skies] Error measuring X-axis portal: " + e.getMessage());
             info.isValid = false;
         }
 
@@ -1053,10 +1683,10 @@ public class netherPortalShipListener {
             info.actualHeight = height;
             info.isValid = true;
 
-            Logger.sendMessage("[Portal Skies] Z-axis portal - Width (Z): " + width + " Height (Y): " + height, false);
+            Logger.debug(() -> "[Portal Skies] Z-axis portal - Width (Z): " + width + " Height (Y): " + height);
 
         } catch (Exception e) {
-            Logger.sendMessage("[Portal Skies] Error measuring Z-axis portal: " + e.getMessage(), false);
+            Logger.debug(() -> "[Portal Skies] Error measuring Z-axis portal: " + e.getMessage());
             info.isValid = false;
         }
 
@@ -1065,6 +1695,7 @@ public class netherPortalShipListener {
 
     private boolean isPortalBlockWithAxis(ServerLevel world, BlockPos pos, Direction.Axis expectedAxis) {
         try {
+            PortalMetrics.blockRead();
             BlockState state = world.getBlockState(pos);
             if (state.getBlock() instanceof NetherPortalBlock) {
                 Direction.Axis axis = state.getValue(NetherPortalBlock.AXIS);
@@ -1102,13 +1733,37 @@ public class netherPortalShipListener {
         }
     }
 
+    private record PendingPortal(ResourceKey<Level> dimension, BlockPos pos) {}
+
+    private record PendingChunk(ResourceKey<Level> dimension, int chunkX, int chunkZ) {}
+
+    private record NearestPortal(double distance, PortalFrame frame) {}
+
+    // Updated in place every check; hasBox is false right after a ship came out of a portal
+    private static class SweptBox {
+        public ResourceKey<Level> dimension;
+        public final AABBd box = new AABBd();
+        public boolean hasBox;
+    }
+
+    private record HeldPortalHit(ResourceKey<Level> dimension, PortalCheckResult result, long tick) {}
+
+    private static final PortalCheckResult NOT_IN_PORTAL = new PortalCheckResult(false, BlockPos.ZERO);
+
     private static class PortalCheckResult {
         public final boolean isInPortal;
         public final BlockPos portalCenter;
+        // Ship center where it first touched the portal, only set by the swept check
+        public final Vector3dc contactPosition;
 
         public PortalCheckResult(boolean isInPortal, BlockPos portalCenter) {
+            this(isInPortal, portalCenter, null);
+        }
+
+        public PortalCheckResult(boolean isInPortal, BlockPos portalCenter, Vector3dc contactPosition) {
             this.isInPortal = isInPortal;
             this.portalCenter = portalCenter;
+            this.contactPosition = contactPosition;
         }
     }
 